@@ -0,0 +1,52 @@
+package JYBank.JYBank.aop;
+
+import JYBank.JYBank.dto.TransferDtos.CreateReq;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AOP 가드 키 계산 비용: 기존 방식(호출마다 파서 생성 + 파싱 + StandardEvaluationContext) vs SpelKeyResolver.
+ * 실행: ./gradlew jmh -Pjmh.includes=SpelKeyResolverBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class SpelKeyResolverBenchmark {
+    private static final String RATE_KEY = "'transfer:' + #req.sourceWalletId";
+    private static final String IDEM_KEY = "#req.idemKey";
+
+    private SpelKeyResolver resolver;
+    private Method method;
+    private String[] paramNames;
+    private Object[] args;
+
+    // 대상 메서드 모양만 맞춘 더미 (TransferService.create 와 같은 시그니처)
+    public String create(CreateReq req) { return null; }
+
+    @Setup
+    public void setup() throws Exception {
+        resolver = new SpelKeyResolver();
+        method = SpelKeyResolverBenchmark.class.getMethod("create", CreateReq.class);
+        paramNames = new String[]{"req"};
+        args = new Object[]{new CreateReq(1L, 2L, BigDecimal.valueOf(1_000), null, "idem-123")};
+    }
+
+    @Benchmark
+    public String parsePerCall() {
+        var parser = new SpelExpressionParser();
+        var ctx = new StandardEvaluationContext();
+        for (int i = 0; i < paramNames.length; i++) ctx.setVariable(paramNames[i], args[i]);
+        return parser.parseExpression(RATE_KEY).getValue(ctx, String.class)
+                + parser.parseExpression(IDEM_KEY).getValue(ctx, String.class);
+    }
+
+    @Benchmark
+    public String cachedCompiled() {
+        return resolver.resolve(method, args, RATE_KEY) + resolver.resolve(method, args, IDEM_KEY);
+    }
+}
@@ -0,0 +1,72 @@
+package JYBank.JYBank.domain.money;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 이체 1건의 잔액 연산(잔액 검증 → 출금 → 입금 → balanceAfter 비교)을 기존 BigDecimal 경로와 Money 경로로 비교.
+ * 실행: ./gradlew jmh  (gc 프로파일러의 gc.alloc.rate.norm 으로 연산당 할당 바이트 비교)
+ * BigDecimal 쪽은 기존 컬럼 스케일 그대로 (wallet.balance scale 2, ledger_entry.amount scale 0).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class MoneyBenchmark {
+    private BigDecimal srcBalanceDec;
+    private BigDecimal dstBalanceDec;
+    private BigDecimal amountDec;
+
+    private Money srcBalance;
+    private Money dstBalance;
+    private Money amount;
+
+    @Setup
+    public void setup() {
+        srcBalanceDec = new BigDecimal("1000000000.00");
+        dstBalanceDec = new BigDecimal("5000.00");
+        amountDec = new BigDecimal("12345");
+        srcBalance = Money.of(1_000_000_000L);
+        dstBalance = Money.of(5_000L);
+        amount = Money.of(12_345L);
+    }
+
+    @Benchmark
+    public void bigDecimal(Blackhole bh) {
+        if (srcBalanceDec.compareTo(amountDec) < 0) throw new IllegalArgumentException("INSUFFICIENT_BALANCE");
+        BigDecimal src = srcBalanceDec.subtract(amountDec);
+        BigDecimal dst = dstBalanceDec.add(amountDec);
+        bh.consume(src.compareTo(dst) > 0);
+        bh.consume(src);
+        bh.consume(dst);
+    }
+
+    @Benchmark
+    public void money(Blackhole bh) {
+        if (srcBalance.isLessThan(amount)) throw new IllegalArgumentException("INSUFFICIENT_BALANCE");
+        Money src = srcBalance.minus(amount);
+        Money dst = dstBalance.plus(amount);
+        bh.consume(src.compareTo(dst) > 0);
+        bh.consume(src.minor());
+        bh.consume(dst.minor());
+    }
+
+    // 다건 레그 합계 (TransferPosting.validate 와 같은 누적)
+    @Benchmark
+    @OperationsPerInvocation(16)
+    public BigDecimal bigDecimalSum() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < 16; i++) total = total.add(amountDec);
+        return total;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(16)
+    public long moneySum() {
+        Money total = Money.ZERO;
+        for (int i = 0; i < 16; i++) total = total.plus(amount);
+        return total.minor();
+    }
+}
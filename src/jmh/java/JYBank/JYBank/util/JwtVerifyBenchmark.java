@@ -0,0 +1,63 @@
+package JYBank.JYBank.util;
+
+import JYBank.JYBank.service.auth.VerifiedTokenCache;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JwtFilter 요청당 토큰 검증 비용.
+ * - threeParses: 기존 방식 (호출마다 키/파서 생성, isExpired + getLoginId + getIssuedAt 로 서명 검증 3회)
+ * - verifyOnce: 캐시된 파서로 JwtUtil.verify 1회
+ * - cachedHit: VerifiedTokenCache 적중 (SHA-256 + 맵 조회)
+ * 실행: ./gradlew jmh -Pjmh.includes=JwtVerifyBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class JwtVerifyBenchmark {
+    private static final String SECRET = "benchmark-secret-benchmark-secret-0123456789";
+
+    private String token;
+    private VerifiedTokenCache cache;
+
+    @Setup
+    public void setup() {
+        token = JwtUtil.createAccessToken("user@example.com", SECRET, 3_600_000);
+        cache = new VerifiedTokenCache(SECRET, true, 1_000);
+    }
+
+    @Benchmark
+    public Object threeParses() {
+        Claims a = legacyParse();
+        boolean expired = a.getExpiration().before(new Date());
+        Claims b = legacyParse();
+        String login = b.get("loginId", String.class);
+        Instant iat = legacyParse().getIssuedAt().toInstant();
+        return expired ? null : login + iat;
+    }
+
+    @Benchmark
+    public JwtPrincipal verifyOnce() {
+        return JwtUtil.verify(token, SECRET);
+    }
+
+    @Benchmark
+    public JwtPrincipal cachedHit() {
+        return cache.verify(token);
+    }
+
+    private Claims legacyParse() {
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .setAllowedClockSkewSeconds(30)
+                .build()
+                .parseClaimsJws(token).getBody();
+    }
+}
@@ -1,57 +1,84 @@
 package JYBank.JYBank.aop;
 
 import JYBank.JYBank.aop.annotation.Auditable;
+import JYBank.JYBank.config.TransactionConfig;
 import JYBank.JYBank.support.audit.AuditEvent;
+import JYBank.JYBank.support.audit.PendingAudit;
+import JYBank.JYBank.support.outbox.OutboxService;
 import org.aspectj.lang.JoinPoint;
-import org.aspectj.lang.annotation.AfterReturning;
-import org.aspectj.lang.annotation.AfterThrowing;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 
 import java.time.Instant;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
 
 @Aspect
 @Component
+@Order(TransactionConfig.ORDER + 100) // 트랜잭션 안쪽: 성공 이벤트가 업무 변경과 함께 커밋/롤백
+// @Transactional 이 없는 메서드(이체: 엔진이 트랜잭션을 직접 엶)는 엔진이 PendingAudit 를 가져가 자기 트랜잭션에 기록
 public class AuditAspect {
 
-    private final KafkaTemplate<String, AuditEvent> kafka;
+    private final OutboxService outbox;
     private final String topic;
 
     public AuditAspect(
-            KafkaTemplate<String, AuditEvent> kafka,
+            OutboxService outbox,
             @Value("${app.kafka.topics.audit}") String topic
     ) {
-        this.kafka = kafka;
+        this.outbox = outbox;
         this.topic = topic;
     }
 
-    @AfterReturning(pointcut = "@annotation(aud)", returning = "ret")
-    public void success(JoinPoint jp, Auditable aud, Object ret) {
-        AuditEvent evt = new AuditEvent(
-                aud.action(),
-                "SUCCESS",
-                principalOf(jp),
-                referenceOf(ret),
-                "ok",
-                Instant.now()
-        );
-        // key는 action 또는 principal 기준 권장
-        kafka.send(topic, aud.action(), evt);
+    @Around("@annotation(aud)")
+    public Object audit(ProceedingJoinPoint pjp, Auditable aud) throws Throwable {
+        PendingAudit pending = new PendingAudit(aud.action(), principalOf(pjp));
+        PendingAudit outer = PendingAudit.bind(pending);
+        Object ret;
+        boolean taken;
+        try {
+            ret = pjp.proceed();
+        } catch (Throwable ex) {
+            fail(pending, ex);
+            throw ex;
+        } finally {
+            taken = PendingAudit.current() != pending;
+            PendingAudit.restore(outer);
+        }
+        // 트랜잭션을 직접 여는 엔진(이체)이 가져갔으면 이미 업무 트랜잭션 안에서 기록됨
+        if (!taken) success(pending, ret);
+        return ret;
+    }
+
+    private void success(PendingAudit pending, Object ret) {
+        // 비동기 반환(로그인 등): 완료 시점에 성공/실패를 판정. 그땐 업무 트랜잭션이 없으므로 단독 기록
+        if (ret instanceof CompletionStage<?> stage) {
+            stage.whenComplete((value, ex) -> {
+                Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                if (cause == null) outbox.appendDetached(topic, pending.action(), pending.success(referenceOf(value)));
+                else fail(pending, cause);
+            });
+            return;
+        }
+        // key는 action 또는 principal 기준 권장. 메서드가 트랜잭션 안이면 함께 커밋, 아니면 단독 트랜잭션
+        outbox.append(topic, pending.action(), pending.success(referenceOf(ret)));
     }
 
-    @AfterThrowing(pointcut = "@annotation(aud)", throwing = "ex")
-    public void fail(JoinPoint jp, Auditable aud, Throwable ex) {
+    private void fail(PendingAudit pending, Throwable ex) {
         AuditEvent evt = new AuditEvent(
-                aud.action(),
+                pending.action(),
                 "FAIL",
-                principalOf(jp),
+                pending.principal(),
                 null,
                 ex.getMessage(),
                 Instant.now()
         );
-        kafka.send(topic, aud.action(), evt);
+        // 실패 감사는 업무 트랜잭션 롤백과 무관하게 남겨야 함
+        outbox.appendDetached(topic, pending.action(), evt);
     }
 
     // 주체/참조 추출 로직은 필요에 맞게 보완
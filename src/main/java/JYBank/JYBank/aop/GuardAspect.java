@@ -0,0 +1,44 @@
+package JYBank.JYBank.aop;
+
+import JYBank.JYBank.aop.annotation.Idempotent;
+import JYBank.JYBank.aop.annotation.RateLimited;
+import JYBank.JYBank.support.ratelimit.RateLimiter;
+import JYBank.JYBank.support.ratelimit.RateLimiter.Guarded;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * @RateLimited + @Idempotent 가 함께 붙은 메서드의 합친 가드.
+ * 레이트리밋 판정과 멱등 키 선점을 Redis 왕복 1회(Lua)로 처리하고, 이후 흐름(대기/재생/실패 시 해제)은 IdempotencyAspect 와 같다.
+ * 순서도 기존과 같음: 레이트리밋 거절이면 멱등 키를 건드리지 않고, 재생 응답도 레이트리밋 한도를 소비한다.
+ */
+@Aspect
+@Component
+@Order(10) // RateLimitAspect 자리 (트랜잭션 바깥)
+public class GuardAspect {
+    private final RateLimiter limiter;
+    private final IdempotencyAspect idempotency;
+    private final SpelKeyResolver keys;
+
+    public GuardAspect(RateLimiter limiter, IdempotencyAspect idempotency, SpelKeyResolver keys) {
+        this.limiter = limiter;
+        this.idempotency = idempotency;
+        this.keys = keys;
+    }
+
+    @Around("@annotation(rate) && @annotation(idem)")
+    public Object around(ProceedingJoinPoint pjp, RateLimited rate, Idempotent idem) throws Throwable {
+        String idemKey = keys.resolve(pjp, idem.key());
+        String token = IdempotencyAspect.newToken(idempotency.fingerprint(pjp));
+        Guarded g = limiter.acquireAndClaim(keys.resolve(pjp, rate.key()), rate.permitsPerMinute(), RateLimitAspect.PERIOD,
+                IdempotencyAspect.redisKey(idemKey), token, Duration.ofSeconds(idem.lockSeconds()));
+        RateLimitAspect.check(g.decision());
+        if (g.claim() == null) return idempotency.proceedUnguarded(pjp, idemKey); // Redis 장애
+        return idempotency.guard(pjp, idem, idemKey, token, g.claim());
+    }
+}
@@ -1,49 +1,253 @@
 package JYBank.JYBank.aop;
 
 import JYBank.JYBank.aop.annotation.Idempotent;
+import JYBank.JYBank.exception.IdempotencyConflictException;
+import JYBank.JYBank.exception.IdempotencyKeyReusedException;
+import JYBank.JYBank.support.ratelimit.RateLimiter.Claim;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.expression.EvaluationContext;
-import org.springframework.expression.spel.standard.SpelExpressionParser;
-import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 
-import java.lang.reflect.Method;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.UUID;
 
+/**
+ * 멱등 처리: idem:<key> 에 처리 중(P:지문:토큰) → 완료(D:지문:결과 JSON) 상태를 기록한다.
+ * - 지문 = HMAC(주체 + 인자 JSON). 같은 키에 지문이 다른 요청이면 재생/대기하지 않고 422 (키 재사용)
+ * - 완료 후 재시도: 저장된 JSON 을 그대로 돌려줌 (같은 응답 바디)
+ * - 처리 중 중복: wait 동안 완료를 기다리고, 그래도 처리 중이면 409 + Retry-After
+ * - 만료된 키 재시도: 그대로 실행 → 업무 테이블 unique 멱등키 위반 → IdempotentResultSource 로 기존 결과 복원
+ * - 축출 의심(Redis evicted_keys 증가 후 결과 TTL 이내) 또는 Redis 장애: 실행 전에 업무 테이블에서 먼저 복원 시도
+ *   (평소 첫 선점에는 DB 조회를 하지 않는다)
+ * 실패한 호출은 결과를 남기지 않고 처리 중 표시만 지워 재시도를 허용한다.
+ * @RateLimited 와 함께 붙은 메서드는 GuardAspect 가 첫 선점을 레이트리밋과 같은 Redis 왕복으로 처리한 뒤 guard() 로 넘긴다.
+ */
 @Aspect
 @Component
+@Order(20) // 트랜잭션(TransactionConfig.ORDER) 바깥
+@Slf4j
 public class IdempotencyAspect {
+    private static final String IN_FLIGHT = "P:";
+    private static final String DONE = "D:";
+    private static final int FINGERPRINT_HEX = 32; // HMAC-SHA256 앞 16바이트
+
+    // 내가 건 처리 중 표시일 때만 삭제 (lock 만료 후 다른 요청이 잡은 표시는 건드리지 않음)
+    private static final DefaultRedisScript<Long> RELEASE = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end return 0", Long.class);
+
     private final StringRedisTemplate redis;
-    private final SpelExpressionParser parser = new SpelExpressionParser();
+    private final ObjectMapper objectMapper;
+    private final List<IdempotentResultSource> sources;
+    private final SpelKeyResolver keys;
+    private final ObjectWriter canonical;
+
+    @Value("${app.idempotency.wait:PT2S}") private Duration wait;
+    @Value("${app.idempotency.retry-after-seconds:1}") private long retryAfterSeconds;
+    // 노드 간 같은 값이어야 함. 인자에 비밀번호 등이 있어 단순 해시 대신 HMAC
+    @Value("${app.idempotency.fingerprint-secret:${jwt.secret}}") private String fingerprintSecret;
 
-    public IdempotencyAspect(StringRedisTemplate redis) { this.redis = redis; }
+    private volatile long evictedKeys = -1;
+    private volatile long lastEvictionNanos; // 0 이면 축출 관측 없음
 
-    @Around("@annotation(anno)")
+    public IdempotencyAspect(StringRedisTemplate redis, ObjectMapper objectMapper, List<IdempotentResultSource> sources,
+                             SpelKeyResolver keys) {
+        this.redis = redis;
+        this.objectMapper = objectMapper;
+        this.sources = sources;
+        this.keys = keys;
+        this.canonical = objectMapper.writer().with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+    }
+
+    @Around("@annotation(anno) && !@annotation(JYBank.JYBank.aop.annotation.RateLimited)")
     public Object around(ProceedingJoinPoint pjp, Idempotent anno) throws Throwable {
-        String key = evalKey(pjp, anno.key());
-        String redisKey = "idem:" + key;
-        Boolean ok = redis.opsForValue().setIfAbsent(redisKey, "1", Duration.ofSeconds(anno.ttlSeconds()));
-        if (Boolean.FALSE.equals(ok)) {
-            throw new IllegalStateException("Duplicate request: " + key);
+        String key = keys.resolve(pjp, anno.key());
+        return guard(pjp, anno, key, newToken(fingerprint(pjp)), null);
+    }
+
+    static String redisKey(String key) { return "idem:" + key; }
+
+    static String newToken(String fingerprint) { return IN_FLIGHT + fingerprint + ":" + UUID.randomUUID(); }
+
+    // 같은 요청의 재시도인지 판별하는 값: 주체 + 인자(JSON, 맵은 키 순)
+    String fingerprint(ProceedingJoinPoint pjp) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        String principal = auth == null ? "" : auth.getName();
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(fingerprintSecret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            mac.update(principal.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            mac.update(canonical.writeValueAsBytes(pjp.getArgs()));
+            return HexFormat.of().formatHex(mac.doFinal(), 0, FINGERPRINT_HEX / 2);
+        } catch (GeneralSecurityException | JsonProcessingException e) {
+            throw new IllegalStateException("idempotency fingerprint failed", e);
+        }
+    }
+
+    // P:/D: 값의 지문. 지문 도입 전 형식(P:uuid, D:json)이면 null → 비교하지 않음
+    private static String fingerprintOf(String value) {
+        int end = 2 + FINGERPRINT_HEX;
+        if (value.length() <= end || value.charAt(end) != ':') return null;
+        for (int i = 2; i < end; i++) {
+            if (Character.digit(value.charAt(i), 16) < 0) return null;
+        }
+        return value.substring(2, end);
+    }
+
+    // first: 이미 시도한 첫 선점 결과 (null 이면 여기서 선점)
+    Object guard(ProceedingJoinPoint pjp, Idempotent anno, String key, String token, Claim first) throws Throwable {
+        String redisKey = redisKey(key);
+        Class<?> type = ((MethodSignature) pjp.getSignature()).getReturnType();
+        String fingerprint = fingerprintOf(token);
+
+        long deadline = System.nanoTime() + wait.toNanos();
+        long sleepMs = 10;
+        while (true) {
+            String current;
+            if (first != null) {
+                if (first.claimed()) break;
+                current = first.current().isEmpty() ? null : first.current();
+                first = null;
+            } else {
+                try {
+                    if (Boolean.TRUE.equals(redis.opsForValue().setIfAbsent(redisKey, token, Duration.ofSeconds(anno.lockSeconds())))) break;
+                    current = redis.opsForValue().get(redisKey);
+                } catch (DataAccessException e) {
+                    log.warn("idempotency store unavailable key={}: {}", key, e.getMessage());
+                    return proceedUnguarded(pjp, key, type);
+                }
+            }
+            if (current == null) continue; // 사이에 만료/해제 → 다시 선점 시도
+            String stored = fingerprintOf(current);
+            if (stored != null && !stored.equals(fingerprint)) throw new IdempotencyKeyReusedException(key);
+            if (current.startsWith(DONE)) return decode(current, type);
+            if (System.nanoTime() - deadline > 0) throw new IdempotencyConflictException(key, retryAfterSeconds);
+            try {
+                Thread.sleep(sleepMs);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                throw new IdempotencyConflictException(key, retryAfterSeconds);
+            }
+            sleepMs = Math.min(sleepMs * 2, 200);
+        }
+
+        // 선점 성공. 축출로 밀려난 완료 건일 수 있을 때만 재실행 전에 DB 에서 복원
+        if (evictionSuspected(anno)) {
+            Optional<?> stored = findStored(key, type);
+            if (stored.isPresent()) {
+                complete(redisKey, fingerprint, stored.get(), anno);
+                return stored.get();
+            }
+        }
+        Object result;
+        try {
+            result = pjp.proceed();
+        } catch (Throwable t) {
+            // unique 위반 등: lock 만료 사이 다른 요청이 같은 키로 먼저 커밋한 경우 그 결과를 돌려줌
+            Optional<?> winner = findStored(key, type);
+            if (winner.isPresent()) {
+                complete(redisKey, fingerprint, winner.get(), anno);
+                return winner.get();
+            }
+            release(redisKey, token);
+            throw t;
         }
+        complete(redisKey, fingerprint, result, anno);
+        return result;
+    }
+
+    // Redis 장애: DB unique 멱등키로만 보호
+    Object proceedUnguarded(ProceedingJoinPoint pjp, String key) throws Throwable {
+        return proceedUnguarded(pjp, key, ((MethodSignature) pjp.getSignature()).getReturnType());
+    }
+
+    private Object proceedUnguarded(ProceedingJoinPoint pjp, String key, Class<?> type) throws Throwable {
+        Optional<?> stored = findStored(key, type);
+        if (stored.isPresent()) return stored.get();
         try {
             return pjp.proceed();
         } catch (Throwable t) {
-            redis.delete(redisKey); // 정책에 따라 보존할 수도 있음
+            Optional<?> winner = findStored(key, type);
+            if (winner.isPresent()) return winner.get();
             throw t;
         }
     }
 
-    private String evalKey(ProceedingJoinPoint pjp, String spel) {
-        Method method = ((MethodSignature) pjp.getSignature()).getMethod();
-        String[] paramNames = ((MethodSignature) pjp.getSignature()).getParameterNames();
-        Object[] args = pjp.getArgs();
-        EvaluationContext ctx = new StandardEvaluationContext();
-        for (int i = 0; i < paramNames.length; i++) ctx.setVariable(paramNames[i], args[i]);
-        return parser.parseExpression(spel).getValue(ctx, String.class);
+    // 마지막 축출 관측 후 결과 TTL 이 지나기 전이면, 그 사이 완료 결과가 밀려났을 수 있다
+    private boolean evictionSuspected(Idempotent anno) {
+        long at = lastEvictionNanos;
+        return at != 0 && System.nanoTime() - at < anno.ttlSeconds() * 1_000_000_000L;
+    }
+
+    // Redis INFO stats 의 evicted_keys 증가를 축출 신호로 본다 (기동 전 축출도 한 번은 의심)
+    @Scheduled(fixedDelayString = "${app.idempotency.eviction-poll-ms:10000}")
+    void pollEvictions() {
+        try {
+            Properties stats = redis.execute((RedisCallback<Properties>) c -> c.serverCommands().info("stats"));
+            String v = stats == null ? null : stats.getProperty("evicted_keys");
+            if (v == null) return;
+            long n = Long.parseLong(v.trim());
+            if (n > Math.max(evictedKeys, 0)) lastEvictionNanos = System.nanoTime();
+            evictedKeys = n;
+        } catch (DataAccessException | NumberFormatException e) {
+            log.debug("redis eviction stats unavailable: {}", e.getMessage());
+        }
+    }
+
+    private Optional<?> findStored(String key, Class<?> type) {
+        for (IdempotentResultSource s : sources) {
+            if (s.supports(type)) return s.find(key);
+        }
+        return Optional.empty();
+    }
+
+    private void complete(String redisKey, String fingerprint, Object result, Idempotent anno) {
+        try {
+            String body = result == null ? "" : objectMapper.writeValueAsString(result);
+            redis.opsForValue().set(redisKey, DONE + fingerprint + ":" + body, Duration.ofSeconds(anno.ttlSeconds()));
+        } catch (JsonProcessingException | DataAccessException e) {
+            // 이미 커밋된 결과이므로 호출은 성공시킴. 이후 재시도는 DB 복원 또는 재실행
+            log.warn("idempotency result not stored key={}: {}", redisKey, e.getMessage());
+            release(redisKey, null);
+        }
+    }
+
+    private void release(String redisKey, String token) {
+        try {
+            if (token == null) redis.delete(redisKey);
+            else redis.execute(RELEASE, List.of(redisKey), token);
+        } catch (DataAccessException e) {
+            log.warn("idempotency release failed key={}: {}", redisKey, e.getMessage()); // lockSeconds 후 자연 만료
+        }
+    }
+
+    private Object decode(String stored, Class<?> type) throws JsonProcessingException {
+        String body = stored.substring(fingerprintOf(stored) == null ? DONE.length() : DONE.length() + FINGERPRINT_HEX + 1);
+        if (body.isEmpty() || type == void.class) return null;
+        return objectMapper.readValue(body, type);
     }
 }
@@ -0,0 +1,13 @@
+package JYBank.JYBank.aop;
+
+import java.util.Optional;
+
+/**
+ * @Idempotent 메서드의 완료 결과를 업무 테이블(unique 멱등키 컬럼)에서 복원.
+ * Redis 기록이 만료/축출되거나 Redis 가 죽어도 같은 키의 재시도가 다시 실행되지 않게 한다.
+ */
+public interface IdempotentResultSource {
+    boolean supports(Class<?> resultType);
+
+    Optional<?> find(String idemKey);
+}
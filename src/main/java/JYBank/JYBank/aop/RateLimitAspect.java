@@ -1,40 +1,44 @@
 package JYBank.JYBank.aop;
 
 import JYBank.JYBank.aop.annotation.RateLimited;
+import JYBank.JYBank.exception.RateLimitExceededException;
+import JYBank.JYBank.support.ratelimit.RateLimitHeaders;
+import JYBank.JYBank.support.ratelimit.RateLimiter;
+import JYBank.JYBank.support.ratelimit.RateLimiter.Decision;
+import jakarta.servlet.http.HttpServletResponse;
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Before;
-import org.aspectj.lang.reflect.MethodSignature;
-import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
 import java.time.Duration;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 
 @Aspect
 @Component
+@Order(10) // 트랜잭션(TransactionConfig.ORDER) 바깥
 public class RateLimitAspect {
-    private final StringRedisTemplate redis;
+    static final Duration PERIOD = Duration.ofMinutes(1);
 
-    public RateLimitAspect(StringRedisTemplate redis) { this.redis = redis; }
+    private final RateLimiter limiter;
+    private final SpelKeyResolver keys;
 
-    @Before("@annotation(anno)")
+    public RateLimitAspect(RateLimiter limiter, SpelKeyResolver keys) { this.limiter = limiter; this.keys = keys; }
+
+    // @Idempotent 가 같이 붙은 메서드는 GuardAspect 가 한 번에 처리
+    @Before("@annotation(anno) && !@annotation(JYBank.JYBank.aop.annotation.Idempotent)")
     public void before(JoinPoint jp, RateLimited anno) {
-        String key = evalKey(jp, anno.key());
-        String window = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmm"));
-        String rk = "rl:" + key + ":" + window;
-        Long c = redis.opsForValue().increment(rk);
-        if (c != null && c == 1L) redis.expire(rk, Duration.ofMinutes(1));
-        if (c != null && c > anno.permitsPerMinute()) throw new RuntimeException("Too many requests");
+        check(limiter.acquire(keys.resolve(jp, anno.key()), anno.permitsPerMinute(), PERIOD));
     }
 
-    private String evalKey(JoinPoint jp, String spel) {
-        String[] names = ((MethodSignature) jp.getSignature()).getParameterNames();
-        Object[] args = jp.getArgs();
-        var parser = new org.springframework.expression.spel.standard.SpelExpressionParser();
-        var ctx = new org.springframework.expression.spel.support.StandardEvaluationContext();
-        for (int i = 0; i < names.length; i++) ctx.setVariable(names[i], args[i]);
-        return parser.parseExpression(spel).getValue(ctx, String.class);
+    static void check(Decision d) {
+        if (!d.allowed()) throw new RateLimitExceededException("Too many requests", d);
+        // 통과한 요청에도 남은 한도를 헤더로 알려줌 (웹 요청일 때만)
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attrs) {
+            HttpServletResponse res = attrs.getResponse();
+            if (res != null && !res.isCommitted()) RateLimitHeaders.write(res::setHeader, d);
+        }
     }
 }
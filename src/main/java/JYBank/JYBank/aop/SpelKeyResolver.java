@@ -0,0 +1,58 @@
+package JYBank.JYBank.aop;
+
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.SimpleEvaluationContext;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * AOP 가드(@RateLimited, @Idempotent 등)의 SpEL 키 계산.
+ * (메서드, 식) 마다 파싱 결과와 파라미터 이름을 한 번만 만들어 두고, 식은 IMMEDIATE 모드로 바이트코드 컴파일한다.
+ * 평가 컨텍스트는 스레드마다 SimpleEvaluationContext 하나를 재사용 (변수만 바꿔 끼우고 평가 후 비움).
+ * SimpleEvaluationContext 라 타입 참조/생성자/빈 참조는 쓸 수 없다 → 키 식은 인자 프로퍼티/메서드 조합만.
+ */
+@Component
+public class SpelKeyResolver {
+    private record CacheKey(Method method, String spel) {}
+
+    private record Compiled(Expression expression, String[] paramNames) {}
+
+    private final SpelExpressionParser parser =
+            new SpelExpressionParser(new SpelParserConfiguration(SpelCompilerMode.IMMEDIATE, SpelKeyResolver.class.getClassLoader()));
+    private final ParameterNameDiscoverer names = new DefaultParameterNameDiscoverer();
+    private final Map<CacheKey, Compiled> cache = new ConcurrentHashMap<>();
+    private final ThreadLocal<SimpleEvaluationContext> contexts =
+            ThreadLocal.withInitial(() -> SimpleEvaluationContext.forReadOnlyDataBinding().withInstanceMethods().build());
+
+    public String resolve(JoinPoint jp, String spel) {
+        return resolve(((MethodSignature) jp.getSignature()).getMethod(), jp.getArgs(), spel);
+    }
+
+    public String resolve(Method method, Object[] args, String spel) {
+        Compiled c = cache.computeIfAbsent(new CacheKey(method, spel), this::compile);
+        SimpleEvaluationContext ctx = contexts.get();
+        String[] params = c.paramNames();
+        try {
+            for (int i = 0; i < params.length; i++) ctx.setVariable(params[i], args[i]);
+            return c.expression().getValue(ctx, String.class);
+        } finally {
+            for (String p : params) ctx.setVariable(p, null); // 인자 참조를 스레드에 남기지 않음
+        }
+    }
+
+    private Compiled compile(CacheKey k) {
+        String[] params = names.getParameterNames(k.method());
+        if (params == null) throw new IllegalStateException("parameter names unavailable (compile with -parameters): " + k.method());
+        return new Compiled(parser.parseExpression(k.spel()), params);
+    }
+}
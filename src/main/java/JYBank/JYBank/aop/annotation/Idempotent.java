@@ -5,5 +5,6 @@ import java.lang.annotation.*;
 @Retention(RetentionPolicy.RUNTIME)
 public @interface Idempotent {
     String key(); // SpEL e.g. "#idemKey"
-    long ttlSeconds() default 120;
+    long ttlSeconds() default 120;   // 완료 결과 보관 (이후는 업무 테이블의 멱등키로 복원)
+    long lockSeconds() default 30;   // 처리 중 표시 유지. 프로세스가 죽어도 이 시간이 지나면 재시도 가능
 }
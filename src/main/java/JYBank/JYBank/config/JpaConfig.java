@@ -0,0 +1,31 @@
+package JYBank.JYBank.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JpaConfig {
+
+    // 원장/이체 insert 를 JDBC 배치로 묶기 위한 설정 (SEQUENCE + pooled-lo 로 id를 미리 확보해야 배치 가능)
+    // PostgreSQL 은 JDBC URL 에 reWriteBatchedInserts=true 를 주면 배치가 multi-row insert 로 합쳐진다
+    // 노드마다 50개씩 블록을 받아 쓰므로 id 는 한 노드 안에서만 증가한다. 노드 간에는 커밋/기록 순서와 무관
+    // 예외: ledger_entry 는 지갑별 기록 순서가 필요해 LedgerEntryWriter 가 insert 시점(지갑 잠금 중)에 시퀀스에서 받는다.
+    // 기존 DB 의 시퀀스 위치는 SchemaUpgrades 가 맞춘다
+    @Bean
+    public HibernatePropertiesCustomizer batchingCustomizer(
+            @Value("${app.jpa.batch-size:50}") int batchSize,
+            @Value("${app.jpa.statistics:false}") boolean statistics) {
+        return props -> {
+            props.put(AvailableSettings.STATEMENT_BATCH_SIZE, batchSize);
+            props.put(AvailableSettings.ORDER_INSERTS, true);
+            props.put(AvailableSettings.ORDER_UPDATES, true);
+            props.put(AvailableSettings.BATCH_VERSIONED_DATA, true);
+            props.put(AvailableSettings.PREFERRED_POOLED_OPTIMIZER, "pooled-lo");
+            // 왕복 횟수 측정용 (prepared statement / batch 실행 수가 세션 종료 로그에 남음)
+            props.put(AvailableSettings.GENERATE_STATISTICS, statistics);
+        };
+    }
+}
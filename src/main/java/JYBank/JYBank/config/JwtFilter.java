@@ -1,9 +1,10 @@
 package JYBank.JYBank.config;
 
-import JYBank.JYBank.domain.user.AppUser;
-import JYBank.JYBank.repository.AppUserRepository;
 import JYBank.JYBank.service.auth.AuthService;
-import JYBank.JYBank.util.JwtUtil;
+import JYBank.JYBank.service.auth.RevocationEpochs;
+import JYBank.JYBank.service.auth.VerifiedTokenCache;
+import JYBank.JYBank.util.JwtPrincipal;
+import io.jsonwebtoken.ExpiredJwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -26,8 +27,8 @@ import java.util.List;
 public class JwtFilter extends OncePerRequestFilter {
 
     private final AuthService authService;            // 필요 시 역할/권한 조회에 사용
-    private final AppUserRepository userRepo;
-    private final String secretKey;
+    private final RevocationEpochs revocations;      // 하드 로그아웃 시각 (프로세스 캐시)
+    private final VerifiedTokenCache tokens;         // 서명 검증 + 검증 결과 캐시
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -52,34 +53,29 @@ public class JwtFilter extends OncePerRequestFilter {
         final String token = authorization.substring(7);
 
         try {
-            // 만료면 패스(원하면 401 바로 내려도 됨)
-            if (JwtUtil.isExpired(token, secretKey)) {
-                log.debug("JWT expired");
-                filterChain.doFilter(request, response);
-                return;
-            }
+            // 서명/만료 검증 1회 (같은 토큰 재요청은 캐시). 만료면 ExpiredJwtException → 아래에서 패스
+            final JwtPrincipal principal = tokens.verify(token);
 
-            // 주체(loginId/email) & 발급시각(iat) 추출
-            final String loginId = JwtUtil.getLoginId(token, secretKey);
+            // 주체(loginId/email) & 발급시각(iat)
+            final String loginId = principal.loginId();
             if (loginId == null || loginId.isBlank()) {
                 log.debug("JWT has no subject/loginId");
                 filterChain.doFilter(request, response);
                 return;
             }
 
-            final Instant iat = JwtUtil.getIssuedAt(token, secretKey); // ⬅ 하드 로그아웃 비교용(없으면 JwtUtil에 추가)
+            final Instant iat = principal.issuedAt(); // 하드 로그아웃 비교용
 
             // 🔒 하드 로그아웃(즉시 무효화) 체크: lastLogoutAt 이후 발급된 토큰만 허용
-            AppUser u = userRepo.findByEmailIgnoreCase(loginId).orElse(null);
-            if (u != null && u.getLastLogoutAt() != null &&
-                    (iat == null || iat.isBefore(u.getLastLogoutAt()))) {
+            final Instant revokedAt = revocations.epoch(loginId);
+            if (revokedAt != null && (iat == null || iat.isBefore(revokedAt))) {
                 log.debug("Access token invalidated by global logout: iat < lastLogoutAt");
                 response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
                 return;
             }
 
             // (선택) 토큰 타입이 access인지 확인하고 싶으면 여기에 추가:
-            // if (!JwtUtil.isAccessToken(token, secretKey)) { ... }
+            // if (!principal.isAccess()) { ... }
 
             // 권한 부여 (임시 USER 고정; 필요 시 role 클레임/DB로 확장)
             UsernamePasswordAuthenticationToken authentication =
@@ -91,6 +87,9 @@ public class JwtFilter extends OncePerRequestFilter {
             authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
             SecurityContextHolder.getContext().setAuthentication(authentication);
 
+        } catch (ExpiredJwtException e) {
+            // 만료면 패스(원하면 401 바로 내려도 됨)
+            log.debug("JWT expired");
         } catch (Exception e) {
             log.debug("JWT parse/verify failed: {}", e.getMessage());
             // 원하면 여기서 401로 끊고 return; 해도 됨
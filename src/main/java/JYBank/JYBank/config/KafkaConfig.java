@@ -1,14 +1,21 @@
 package JYBank.JYBank.config;
 
 import JYBank.JYBank.support.audit.AuditEvent;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
 import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.*;
+import org.springframework.kafka.listener.ContainerProperties;
 
 import java.util.Map;
+import java.util.Properties;
 
 @Configuration
 public class KafkaConfig {
@@ -25,4 +32,37 @@ public class KafkaConfig {
     public KafkaTemplate<String, AuditEvent> auditKafkaTemplate(ProducerFactory<String, AuditEvent> pf) {
         return new KafkaTemplate<>(pf);
     }
+
+    // 아웃박스 릴레이용: payload 가 이미 JSON 문자열이므로 그대로 전송, linger 로 배치 전송 유도
+    @Bean
+    public ProducerFactory<String, String> outboxProducerFactory(KafkaProperties props) {
+        Map<String, Object> cfg = props.buildProducerProperties();
+        cfg.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        cfg.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        cfg.putIfAbsent(ProducerConfig.LINGER_MS_CONFIG, 5);
+        cfg.putIfAbsent(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        return new DefaultKafkaProducerFactory<>(cfg);
+    }
+
+    @Bean
+    public KafkaTemplate<String, String> outboxKafkaTemplate(ProducerFactory<String, String> outboxProducerFactory) {
+        return new KafkaTemplate<>(outboxProducerFactory);
+    }
+
+    // 알림 배치 컨슈머용: spring.kafka.listener.* 설정은 그대로 두고 배치 리스너 + 수동 ack(전달 후 커밋)
+    @Bean
+    @ConditionalOnProperty(name = "app.notification.consumer", havingValue = "batch")
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> notificationBatchFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> consumerFactory,
+            @Value("${app.notification.batch.max-poll-records:500}") int maxPollRecords) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> f = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(f, consumerFactory);
+        f.setBatchListener(true);
+        f.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        Properties consumer = f.getContainerProperties().getKafkaConsumerProperties();
+        consumer.setProperty(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, String.valueOf(maxPollRecords));
+        consumer.setProperty(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
+        return f;
+    }
 }
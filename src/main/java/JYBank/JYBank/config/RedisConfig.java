@@ -4,6 +4,7 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 
 @Configuration
 public class RedisConfig {
@@ -11,4 +12,11 @@ public class RedisConfig {
     public LettuceConnectionFactory redisConnectionFactory() { return new LettuceConnectionFactory(); }
     @Bean
     public StringRedisTemplate stringRedisTemplate(LettuceConnectionFactory cf) { return new StringRedisTemplate(cf); }
+    // 노드 간 캐시 무효화 pub/sub 구독 (구독 연결 1개를 공유)
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(LettuceConnectionFactory cf) {
+        RedisMessageListenerContainer c = new RedisMessageListenerContainer();
+        c.setConnectionFactory(cf);
+        return c;
+    }
 }
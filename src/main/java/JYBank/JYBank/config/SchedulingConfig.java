@@ -0,0 +1,4 @@
+package JYBank.JYBank.config;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+@Configuration @EnableScheduling public class SchedulingConfig {}
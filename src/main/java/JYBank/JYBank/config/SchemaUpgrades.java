@@ -0,0 +1,143 @@
+package JYBank.JYBank.config;
+
+import JYBank.JYBank.domain.money.Money;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 시작 시 한 번씩 적용하는 스키마 변경 (Hibernate ddl 이 하지 않는 타입 변경 / 백필 / NOT NULL).
+ * 기능 플래그와 무관하게 항상 돈다 (app.schema.upgrades.enabled=false 는 수동으로 적용한 환경용).
+ * Hibernate 가 새 컬럼을 만든 뒤(entityManagerFactory 이후) 돈다.
+ * 적용한 단계 이름을 schema_upgrade 에 남기고, 여러 노드가 동시에 떠도 advisory lock 으로 한 노드만 적용한다.
+ * 단계마다 한 트랜잭션 (PostgreSQL DDL 은 트랜잭션 안에서 롤백된다) → 중간에 실패하면 다음 기동 때 처음부터 다시.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@Slf4j
+public class SchemaUpgrades {
+    private static final long LOCK_KEY = 0x4A59_5343_4845_4D41L; // "JYSCHEMA"
+
+    // IDENTITY → SEQUENCE(pooled-lo, allocationSize 50) 로 바꾼 테이블: (테이블, id 컬럼, 시퀀스)
+    private static final List<String[]> ID_SEQUENCES = List.of(
+            new String[]{"wallet", "wallet_id", "wallet_seq"},
+            new String[]{"wallet_shard", "id", "wallet_shard_seq"},
+            new String[]{"ledger_entry", "id", "ledger_entry_seq"},
+            new String[]{"transfer", "id", "transfer_seq"},
+            new String[]{"outbox_event", "id", "outbox_event_seq"},
+            new String[]{"balance_checkpoint", "id", "balance_checkpoint_seq"},
+            new String[]{"recon_range", "id", "recon_range_seq"},
+            new String[]{"recon_mismatch", "id", "recon_mismatch_seq"},
+            new String[]{"payout", "id", "payout_seq"},
+            new String[]{"deposit", "id", "deposit_seq"});
+
+    // 금액 컬럼: (테이블, 컬럼, 지갑 id 컬럼). 금액 통화는 지갑 통화
+    private static final List<String[]> MONEY_COLUMNS = List.of(
+            new String[]{"wallet", "balance", "wallet_id"},
+            new String[]{"wallet_shard", "balance", "wallet_id"},
+            new String[]{"ledger_entry", "amount", "wallet_id"},
+            new String[]{"ledger_entry", "balance_after", "wallet_id"},
+            new String[]{"transfer", "amount", "source_wallet_id"},
+            new String[]{"balance_checkpoint", "balance", "wallet_id"});
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final Map<String, Runnable> steps = new LinkedHashMap<>();
+
+    @Value("${app.schema.upgrades.enabled:true}") private boolean enabled;
+
+    public SchemaUpgrades(JdbcTemplate jdbc, PlatformTransactionManager txManager) {
+        this.jdbc = jdbc;
+        this.tx = new TransactionTemplate(txManager);
+        steps.put("id-sequences", this::idSequences);
+        steps.put("money-minor-units", this::moneyMinorUnits);
+        steps.put("app-user-email-key", this::emailKeyNotNull);
+    }
+
+    @PostConstruct
+    void apply() {
+        if (!enabled) return;
+        jdbc.execute("create table if not exists schema_upgrade (name varchar(64) primary key, applied_at timestamp with time zone not null)");
+        steps.forEach((name, step) -> tx.executeWithoutResult(s -> {
+            jdbc.query("select pg_advisory_xact_lock(?)", rs -> null, LOCK_KEY);
+            Integer done = jdbc.queryForObject("select count(*) from schema_upgrade where name = ?", Integer.class, name);
+            if (done != null && done > 0) return;
+            long started = System.nanoTime();
+            step.run();
+            jdbc.update("insert into schema_upgrade (name, applied_at) values (?, now())", name);
+            log.info("schema upgrade applied: {} took={}ms", name, (System.nanoTime() - started) / 1_000_000);
+        }));
+    }
+
+    // Hibernate ddl 은 시퀀스를 1부터 만든다 → IDENTITY 시절 행과 첫 pooled-lo 블록이 PK 충돌.
+    // 기존 max(id) 뒤로 옮긴다 (다음 nextval = max + 1 + 50, 사이 값은 버림)
+    private void idSequences() {
+        for (String[] s : ID_SEQUENCES) {
+            String table = s[0], id = s[1], seq = s[2];
+            jdbc.execute("create sequence if not exists " + seq + " start with 1 increment by 50");
+            Long next = jdbc.queryForObject("select setval('" + seq + "', coalesce(max(" + id + "), 0) + 1) from " + table, Long.class);
+            log.info("{} moved past {}.{} next={}", seq, table, id, next);
+        }
+    }
+
+    // numeric(20,2) 주 단위 → bigint 최소 단위 (통화 소수 자릿수만큼 곱함) + 하위 테이블 currency 를 지갑 통화로 맞춤.
+    // 최소 단위로 딱 떨어지지 않는 값(KRW 0.50 등)이 있으면 반올림하지 않고 실패시킨다
+    private void moneyMinorUnits() {
+        String scale = scaleCase();
+        for (String[] c : MONEY_COLUMNS) {
+            String table = c[0], column = c[1], walletRef = c[2];
+            String type = jdbc.query("select data_type, is_nullable from information_schema.columns " +
+                            "where table_schema = current_schema() and table_name = ? and column_name = ?",
+                    rs -> rs.next() ? rs.getString(1) + "|" + rs.getString(2) : null, table, column);
+            if (type != null && type.startsWith("numeric|")) {
+                Long inexact = jdbc.queryForObject("select count(*) from " + table + " x left join wallet w on w.wallet_id = x." + walletRef +
+                        " where x." + column + " is not null and mod(x." + column + " * power(10::numeric, " + scale + "), 1) <> 0", Long.class);
+                if (inexact != null && inexact > 0) {
+                    throw new IllegalStateException(table + "." + column + ": " + inexact + " rows below the currency minor unit");
+                }
+                String tmp = column + "__minor";
+                jdbc.execute("alter table " + table + " add column " + tmp + " bigint");
+                int n = jdbc.update("update " + table + " x set " + tmp + " = cast(x." + column + " * power(10::numeric, " + scale + ") as bigint) " +
+                        "from wallet w where w.wallet_id = x." + walletRef);
+                // 지갑이 없는 행은 기본 통화(소수 0자리)
+                n += jdbc.update("update " + table + " set " + tmp + " = cast(" + column + " as bigint) where " + tmp + " is null and " + column + " is not null");
+                jdbc.execute("alter table " + table + " drop column " + column);
+                jdbc.execute("alter table " + table + " rename column " + tmp + " to " + column);
+                if (type.endsWith("|NO")) jdbc.execute("alter table " + table + " alter column " + column + " set not null");
+                log.info("{}.{} converted to minor units rows={}", table, column, n);
+            }
+            if (!"wallet".equals(table)) {
+                int n = jdbc.update("update " + table + " x set currency = w.currency from wallet w " +
+                        "where w.wallet_id = x." + walletRef + " and x.currency <> w.currency");
+                if (n > 0) log.info("{}.currency backfilled from wallet rows={}", table, n);
+            }
+        }
+    }
+
+    // email_key 도입 전 가입자 채우기 (AppUser.normalizeEmail 과 같은 규칙) 후 NOT NULL.
+    // 로그인 / JwtFilter 폐기 조회 / 비밀번호 재설정이 모두 email_key 로 찾으므로 트래픽 전에 끝나야 한다
+    private void emailKeyNotNull() {
+        int n = jdbc.update("update app_user set email_key = lower(trim(email)) where email_key is null");
+        log.info("app_user.email_key backfilled rows={}", n);
+        jdbc.execute("alter table app_user alter column email_key set not null");
+    }
+
+    // 지갑 통화별 소수 자릿수 SQL (w.currency 기준). 통화 코드는 ISO 4217 형식만 허용
+    private String scaleCase() {
+        StringBuilder sb = new StringBuilder("case w.currency");
+        for (String currency : jdbc.queryForList("select distinct currency from wallet", String.class)) {
+            if (!currency.matches("[A-Z]{3}")) throw new IllegalStateException("invalid wallet currency: " + currency);
+            sb.append(" when '").append(currency).append("' then ").append(Money.fractionDigits(currency));
+        }
+        return sb.append(" else 0 end").toString();
+    }
+}
@@ -1,8 +1,9 @@
 package JYBank.JYBank.config;
 
 import JYBank.JYBank.service.auth.AuthService;
+import JYBank.JYBank.service.auth.RevocationEpochs;
+import JYBank.JYBank.service.auth.VerifiedTokenCache;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.Customizer;
@@ -18,9 +19,8 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 public class SecurityConfig {
 
     private final AuthService authService;
-
-    @Value("${jwt.secret}")
-    private String secretKey;
+    private final RevocationEpochs revocations;
+    private final VerifiedTokenCache tokens;
 
     private static final String[] WHITELIST = {
             "/v3/api-docs/**", "/swagger-ui/**", "/actuator/**",
@@ -36,7 +36,7 @@ public class SecurityConfig {
                         .requestMatchers(WHITELIST).permitAll()
                         .anyRequest().authenticated())
                 .httpBasic(Customizer.withDefaults()).
-                addFilterBefore(new JwtFilter(authService, secretKey),
+                addFilterBefore(new JwtFilter(authService, revocations, tokens),
                         org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter.class);
 
         ;
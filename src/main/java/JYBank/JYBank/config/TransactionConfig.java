@@ -0,0 +1,12 @@
+package JYBank.JYBank.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+
+// 어드바이스 순서: 레이트리밋(10) → 멱등(20) → 트랜잭션(100) → 감사(200)
+// 감사 aspect 가 업무 트랜잭션 안쪽에서 돌아야 성공 감사 이벤트가 같은 트랜잭션으로 outbox 에 기록된다
+@Configuration
+@EnableTransactionManagement(order = TransactionConfig.ORDER)
+public class TransactionConfig {
+    public static final int ORDER = 100;
+}
@@ -14,7 +14,9 @@ import java.time.Instant;
 @Builder
 @Table(name = "deposit")
 public class Deposit {
-    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "deposit_seq")
+    @SequenceGenerator(name = "deposit_seq", sequenceName = "deposit_seq", allocationSize = 50)
     private Long id;
     private Long walletId;
     @Column(unique = true)
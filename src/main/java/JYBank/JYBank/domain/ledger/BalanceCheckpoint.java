@@ -0,0 +1,32 @@
+package JYBank.JYBank.domain.ledger;
+
+import JYBank.JYBank.domain.money.Money;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+// 지갑별 주기 경계(asOf) 시점 잔액. 시점 잔액 = 직전 체크포인트 + 이후 원장 꼬리 합산
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "balance_checkpoint",
+        uniqueConstraints = @UniqueConstraint(name = "uk_balance_checkpoint", columnNames = {"wallet_id", "as_of"}))
+public class BalanceCheckpoint {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "balance_checkpoint_seq")
+    @SequenceGenerator(name = "balance_checkpoint_seq", sequenceName = "balance_checkpoint_seq", allocationSize = 50)
+    private Long id;
+    @Column(name = "wallet_id", nullable = false)
+    private Long walletId;
+    @Column(name = "as_of", nullable = false)
+    private Instant asOf; // 이 시각 이전(created_at < asOf) 원장까지 반영
+    @Embedded
+    @AttributeOverride(name = "minor", column = @Column(name = "balance", nullable = false))
+    @AttributeOverride(name = "currency", column = @Column(name = "currency", length = 3, columnDefinition = "varchar(3) default 'KRW' not null"))
+    private Money balance;
+    private Instant createdAt;
+}
@@ -0,0 +1,37 @@
+package JYBank.JYBank.domain.ledger;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+// 아카이브된 월 단위 원장 세그먼트 파일 메타. min/max 로 지갑·id·시간 범위가 겹치지 않는 세그먼트는 열지 않는다
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "ledger_archive_segment",
+        uniqueConstraints = @UniqueConstraint(name = "uk_ledger_archive_segment_month", columnNames = "month"),
+        indexes = @Index(name = "ix_ledger_archive_segment_wallet", columnList = "min_wallet_id, max_wallet_id"))
+public class LedgerArchiveSegment {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Column(nullable = false, length = 7)
+    private String month;    // yyyy-MM (UTC)
+    @Column(nullable = false)
+    private String fileName; // 아카이브 디렉터리 기준 상대 경로
+    private long rowCount;
+    @Column(name = "min_wallet_id")
+    private long minWalletId;
+    @Column(name = "max_wallet_id")
+    private long maxWalletId;
+    private long minEntryId;
+    private long maxEntryId;
+    private Instant fromTime; // [fromTime, toTime) 구간 원장
+    private Instant toTime;
+    private String status;    // DELETING(핫 테이블 삭제 중) | ARCHIVED
+    private Instant createdAt;
+}
@@ -1,9 +1,9 @@
 package JYBank.JYBank.domain.ledger;
 
+import JYBank.JYBank.domain.money.Money;
 import jakarta.persistence.*;
 import lombok.*;
 
-import java.math.BigDecimal;
 import java.time.Instant;
 
 @Entity
@@ -12,16 +12,29 @@ import java.time.Instant;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-@Table(name = "ledger_entry")
+@Table(name = "ledger_entry", indexes = {
+        @Index(name = "ix_ledger_entry_wallet_id", columnList = "wallet_id, id"),          // 이력 keyset 페이지네이션
+        @Index(name = "ix_ledger_entry_wallet_created", columnList = "wallet_id, created_at"),
+        @Index(name = "ix_ledger_entry_ref", columnList = "ref_type, ref_id")                 // 이체 레그 대사
+})
 public class LedgerEntry {
-    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // insert 는 LedgerEntryWriter 가 지갑 잠금 중에 nextval 로 → 지갑별로 id 순서 = 기록 순서
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ledger_entry_seq")
+    @SequenceGenerator(name = "ledger_entry_seq", sequenceName = "ledger_entry_seq", allocationSize = 50)
     private Long id;
     private Long walletId;
     private String direction; // debit | credit
-    @Column(precision = 20, scale = 0)
-    private BigDecimal amount;
-    @Column(precision = 20, scale = 0)
-    private BigDecimal balanceAfter;
+    // 최소 단위 bigint + 지갑 통화. 두 금액이 currency 컬럼 하나를 공유 (balanceAfter 쪽은 읽기 전용)
+    @Embedded
+    @AttributeOverride(name = "minor", column = @Column(name = "amount"))
+    @AttributeOverride(name = "currency", column = @Column(name = "currency", length = 3, columnDefinition = "varchar(3) default 'KRW' not null"))
+    private Money amount;
+    @Embedded
+    @AttributeOverride(name = "minor", column = @Column(name = "balance_after"))
+    @AttributeOverride(name = "currency", column = @Column(name = "currency", insertable = false, updatable = false))
+    private Money balanceAfter;
+    private Integer shardNo; // 샤딩 지갑이면 서브잔액 번호 (balanceAfter도 해당 샤드 기준)
     private String refType; // TRANSFER|PAYOUT|DEPOSIT
     private String refId;
     private Instant createdAt = Instant.now();
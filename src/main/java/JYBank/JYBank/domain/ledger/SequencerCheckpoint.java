@@ -0,0 +1,21 @@
+package JYBank.JYBank.domain.ledger;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+// 시퀀서 파티션별 DB 반영(프로젝션) 완료 지점. 프로젝션과 같은 트랜잭션에서 갱신
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "sequencer_checkpoint")
+public class SequencerCheckpoint {
+    @Id
+    private Integer partitionNo;
+    private long lastSeq;
+    private Instant updatedAt;
+}
@@ -0,0 +1,110 @@
+package JYBank.JYBank.domain.money;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+import jakarta.persistence.Embeddable;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+import java.util.Objects;
+
+/**
+ * 금액 값 타입: 통화 최소 단위(KRW 는 원, USD 는 센트) long + 통화 코드.
+ * 연산은 long 덧셈/비교뿐이라 BigDecimal 처럼 중간 객체(BigInteger, 스케일 맞춤 사본)를 만들지 않고,
+ * 결과 Money 1개도 짧게 사는 지역 값이면 JIT escape analysis 로 대부분 스칼라화된다.
+ * 넘침은 조용히 감싸지 않고 예외. JSON 은 기존 API 와 같은 주 단위 숫자로 내보낸다.
+ * 숫자만으로는 통화를 알 수 없으므로 JSON 에서 Money 를 만들지 않는다: 요청 DTO 는 BigDecimal 로 받고 지갑 통화로 ofMajor.
+ * 엔티티에는 (최소 단위 bigint, 통화 코드) 두 컬럼으로 함께 매핑한다 (@Embedded + @AttributeOverride).
+ */
+@Embeddable
+public record Money(long minor, String currency) implements Comparable<Money> {
+    public static final String DEFAULT_CURRENCY = "KRW";
+    public static final Money ZERO = new Money(0, DEFAULT_CURRENCY);
+
+    public Money {
+        Objects.requireNonNull(currency, "currency");
+    }
+
+    public static Money of(long minor) {
+        return minor == 0 ? ZERO : new Money(minor, DEFAULT_CURRENCY);
+    }
+
+    public static Money zero(String currency) {
+        return of(0, currency);
+    }
+
+    public static Money of(long minor, String currency) {
+        return minor == 0 && DEFAULT_CURRENCY.equals(currency) ? ZERO : new Money(minor, currency);
+    }
+
+    // 주 단위 금액 → 최소 단위. 통화 소수 자릿수를 넘는 값은 반올림하지 않고 거절
+    public static Money ofMajor(BigDecimal amount, String currency) {
+        try {
+            return of(amount.movePointRight(fractionDigits(currency)).longValueExact(), currency);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("INVALID_AMOUNT");
+        }
+    }
+
+    @JsonValue
+    public Number json() {
+        return fractionDigits(currency) == 0 ? Long.valueOf(minor) : toBigDecimal();
+    }
+
+    public Money plus(Money o) {
+        check(o);
+        try {
+            return of(Math.addExact(minor, o.minor), currency);
+        } catch (ArithmeticException e) {
+            throw new IllegalStateException("MONEY_OVERFLOW");
+        }
+    }
+
+    public Money minus(Money o) {
+        check(o);
+        try {
+            return of(Math.subtractExact(minor, o.minor), currency);
+        } catch (ArithmeticException e) {
+            throw new IllegalStateException("MONEY_OVERFLOW");
+        }
+    }
+
+    public Money negate() {
+        if (minor == Long.MIN_VALUE) throw new IllegalStateException("MONEY_OVERFLOW");
+        return of(-minor, currency);
+    }
+
+    public Money min(Money o) {
+        return compareTo(o) <= 0 ? this : o;
+    }
+
+    public int signum() { return Long.signum(minor); }
+
+    public boolean isZero() { return minor == 0; }
+
+    public boolean isLessThan(Money o) { return compareTo(o) < 0; }
+
+    @Override
+    public int compareTo(Money o) {
+        check(o);
+        return Long.compare(minor, o.minor);
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minor, fractionDigits(currency));
+    }
+
+    @Override
+    public String toString() {
+        return fractionDigits(currency) == 0 ? Long.toString(minor) : toBigDecimal().toPlainString();
+    }
+
+    private void check(Money o) {
+        if (!currency.equals(o.currency)) throw new IllegalArgumentException("CURRENCY_MISMATCH");
+    }
+
+    // 통화 소수 자릿수 (KRW 0, USD 2)
+    public static int fractionDigits(String currency) {
+        if (DEFAULT_CURRENCY.equals(currency)) return 0;
+        return Math.max(Currency.getInstance(currency).getDefaultFractionDigits(), 0);
+    }
+}
@@ -0,0 +1,31 @@
+package JYBank.JYBank.domain.outbox;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+// 트랜잭션 아웃박스: 업무 변경과 같은 트랜잭션에 기록 → 릴레이가 선점 → Kafka로 발행 → 삭제
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "outbox_event")
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_event_seq")
+    @SequenceGenerator(name = "outbox_event_seq", sequenceName = "outbox_event_seq", allocationSize = 50)
+    private Long id;
+    @Column(nullable = false)
+    private String topic;
+    private String msgKey;
+    @Column(nullable = false, columnDefinition = "text")
+    private String payload; // JSON
+    private String payloadType; // payload 클래스명 → Kafka __TypeId__ 헤더 (JsonSerializer 와 같은 형식)
+    @Column(nullable = false)
+    private Instant createdAt;
+    private String claimedBy; // 발행 중인 릴레이 노드
+    private Instant claimedAt;
+}
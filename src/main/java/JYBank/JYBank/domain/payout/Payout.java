@@ -14,7 +14,9 @@ import java.time.Instant;
 @Builder
 @Table(name = "payout")
 public class Payout {
-    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payout_seq")
+    @SequenceGenerator(name = "payout_seq", sequenceName = "payout_seq", allocationSize = 50)
     private Long id;
     private Long walletId;
     private String bankCode;
@@ -0,0 +1,29 @@
+package JYBank.JYBank.domain.recon;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+// 대사 불일치 리포트 1건
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "recon_mismatch", indexes = @Index(name = "ix_recon_mismatch_run", columnList = "run_id"))
+public class ReconMismatch {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "recon_mismatch_seq")
+    @SequenceGenerator(name = "recon_mismatch_seq", sequenceName = "recon_mismatch_seq", allocationSize = 50)
+    private Long id;
+    @Column(name = "run_id", nullable = false)
+    private Long runId;
+    private String kind;     // BALANCE|CHAIN_GAP|TRANSFER_UNBALANCED
+    private Long walletId;
+    private String refId;
+    @Column(length = 1000)
+    private String detail;
+    private Instant createdAt;
+}
@@ -0,0 +1,31 @@
+package JYBank.JYBank.domain.recon;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+// 대사 작업 단위 구간 [fromId, toId). 구간 결과와 DONE 표시는 한 트랜잭션 → 중단 후 재개 시 미완료 구간만 다시 처리
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "recon_range", indexes = @Index(name = "ix_recon_range_run", columnList = "run_id, status"))
+public class ReconRange {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "recon_range_seq")
+    @SequenceGenerator(name = "recon_range_seq", sequenceName = "recon_range_seq", allocationSize = 50)
+    private Long id;
+    @Column(name = "run_id", nullable = false)
+    private Long runId;
+    private String kind;   // WALLET(wallet_id 구간) | TRANSFER(transfer.id 구간)
+    private long fromId;
+    private long toId;
+    private String status; // PENDING|CLAIMED|DONE
+    private long checked;
+    private long mismatches;
+    private Instant claimedAt;
+    private Instant finishedAt;
+}
@@ -0,0 +1,25 @@
+package JYBank.JYBank.domain.recon;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+// 대사(reconciliation) 실행 1회
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "recon_run")
+public class ReconRun {
+    // 실행당 1행이라 배치로 얻을 게 없어 IDENTITY 유지
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private String status; // RUNNING|COMPLETED
+    private long mismatchCount;
+    private Instant startedAt;
+    private Instant finishedAt;
+}
@@ -1,9 +1,9 @@
 package JYBank.JYBank.domain.transfer;
 
+import JYBank.JYBank.domain.money.Money;
 import jakarta.persistence.*;
 import lombok.*;
 
-import java.math.BigDecimal;
 import java.time.Instant;
 
 @Entity
@@ -14,14 +14,24 @@ import java.time.Instant;
 @Builder
 @Table(name = "transfer")
 public class Transfer {
-    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transfer_seq")
+    @SequenceGenerator(name = "transfer_seq", sequenceName = "transfer_seq", allocationSize = 50)
     private Long id;
     private Long sourceWalletId;
     private Long destWalletId;
-    @Column(precision = 20, scale = 0)
-    private BigDecimal amount;
+    @Embedded
+    @AttributeOverride(name = "minor", column = @Column(name = "amount"))
+    @AttributeOverride(name = "currency", column = @Column(name = "currency", length = 3, columnDefinition = "varchar(3) default 'KRW' not null"))
+    private Money amount;
     private String status; // PENDING|COMPLETED|FAILED
     @Column(unique = true)
     private String idemKey;
     private Instant createdAt = Instant.now();
+    private Long reference; // sequencer 엔진이 수락 시 응답한 참조값 (다른 엔진은 null)
+
+    // 이체 생성 응답의 id. 멱등 재응답도 최초 응답과 같은 값을 돌려준다
+    public Long responseId() {
+        return reference != null ? reference : id;
+    }
 }
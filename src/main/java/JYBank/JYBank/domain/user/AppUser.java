@@ -5,9 +5,11 @@ import lombok.*;
 
 import java.time.Instant;
 import java.time.LocalDateTime;
+import java.util.Locale;
 
 @Entity
-@Table(name = "app_user")
+@Table(name = "app_user",
+        uniqueConstraints = @UniqueConstraint(name = "uk_app_user_email_key", columnNames = "email_key"))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -22,6 +24,10 @@ public class AppUser {
     @Column(nullable = false, unique = true, length = 255)
     private String email;
 
+    // 정규화(trim + 소문자) 이메일. lower(email) 비교 대신 unique 인덱스로 조회. 기존 행은 기동 시 SchemaUpgrades 가 채우고 NOT NULL 로 바꿈
+    @Column(name = "email_key", length = 255)
+    private String emailKey;
+
     @Column(nullable = false, length = 255)
     private String passwordHash;
 
@@ -49,6 +55,16 @@ public class AppUser {
 
     private Instant lastPasswordChangeAt;
 
+    public static String normalizeEmail(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    @PrePersist
+    @PreUpdate
+    void syncEmailKey() {
+        this.emailKey = normalizeEmail(email);
+    }
+
     // 연관관계 매핑 (지갑, 은행계좌)
     // 예시: @OneToMany(mappedBy = "user") private List<Wallet> wallets;
 }
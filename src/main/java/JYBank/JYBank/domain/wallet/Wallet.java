@@ -4,7 +4,7 @@ import JYBank.JYBank.domain.user.AppUser;
 import jakarta.persistence.*;
 import lombok.*;
 
-import java.math.BigDecimal;
+import JYBank.JYBank.domain.money.Money;
 import java.time.LocalDateTime;
 
 @Entity
@@ -17,18 +17,29 @@ import java.time.LocalDateTime;
 public class Wallet {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "wallet_seq")
+    @SequenceGenerator(name = "wallet_seq", sequenceName = "wallet_seq", allocationSize = 50)
     private Long walletId;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private AppUser user; // 소유자 (회원)
 
-    @Column(nullable = false, length = 3)
-    private String currency = "KRW";
+    // 잔액 = balance(최소 단위 bigint) + currency. 지갑 통화는 잔액의 통화
+    @Embedded
+    @AttributeOverride(name = "minor", column = @Column(name = "balance", nullable = false))
+    @AttributeOverride(name = "currency", column = @Column(name = "currency", nullable = false, length = 3))
+    private Money balance = Money.ZERO;
 
-    @Column(nullable = false, precision = 20, scale = 2)
-    private BigDecimal balance = BigDecimal.ZERO;
+    // 0이면 일반 지갑, K>0이면 잔액을 wallet_shard K개 행에 나눠 보관 (핫 지갑용).
+    // 기존 행이 있는 테이블에 ddl update 로 추가되므로 DB 기본값 필요
+    @Column(nullable = false, columnDefinition = "integer default 0 not null")
+    private int shardCount = 0;
+
+    // 낙관적 동시성 모드용. SQL 로 잔액을 바꾸는 경로도 version = version + 1 을 함께 갱신
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0 not null")
+    private long version;
 
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
@@ -37,14 +48,24 @@ public class Wallet {
     private LocalDateTime updatedAt = LocalDateTime.now();
 
     // ===== 도메인 메서드 =====
-    public void credit(BigDecimal amount) {
-        this.balance = this.balance.add(amount);
+    public String getCurrency() {
+        return balance.currency();
+    }
+
+    public boolean isSharded() {
+        return shardCount > 0;
+    }
+
+    public void credit(Money amount) {
+        if (isSharded()) throw new IllegalStateException("샤딩 지갑은 서브잔액으로만 입금");
+        this.balance = this.balance.plus(amount);
     }
 
-    public void debit(BigDecimal amount) {
-        if (this.balance.compareTo(amount) < 0) {
+    public void debit(Money amount) {
+        if (isSharded()) throw new IllegalStateException("샤딩 지갑은 서브잔액으로만 출금");
+        if (this.balance.isLessThan(amount)) {
             throw new IllegalArgumentException("잔액 부족");
         }
-        this.balance = this.balance.subtract(amount);
+        this.balance = this.balance.minus(amount);
     }
 }
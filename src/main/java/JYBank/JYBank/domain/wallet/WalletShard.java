@@ -0,0 +1,39 @@
+package JYBank.JYBank.domain.wallet;
+
+import JYBank.JYBank.domain.money.Money;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// 샤딩 지갑의 서브잔액. 지갑 총잔액 = sum(balance)
+@Entity
+@Table(name = "wallet_shard",
+        uniqueConstraints = @UniqueConstraint(name = "uk_wallet_shard", columnNames = {"wallet_id", "shard_no"}))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WalletShard {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "wallet_shard_seq")
+    @SequenceGenerator(name = "wallet_shard_seq", sequenceName = "wallet_shard_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "wallet_id", nullable = false)
+    private Long walletId;
+
+    @Column(name = "shard_no", nullable = false)
+    private int shardNo;
+
+    // 통화는 지갑 통화
+    @Embedded
+    @AttributeOverride(name = "minor", column = @Column(name = "balance", nullable = false))
+    @AttributeOverride(name = "currency", column = @Column(name = "currency", length = 3, columnDefinition = "varchar(3) default 'KRW' not null"))
+    private Money balance;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
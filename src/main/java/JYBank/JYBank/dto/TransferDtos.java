@@ -1,10 +1,19 @@
 package JYBank.JYBank.dto;
 
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.*;
+
 import java.math.BigDecimal;
+import java.util.List;
 
 public class TransferDtos {
+    // 금액은 주 단위 숫자. 통화는 요청에 없고 출금 지갑 통화로 해석 (TransferPosting.legs)
     public record CreateReq(@NotNull Long sourceWalletId, @NotNull Long destWalletId,
-                            @NotNull @Positive BigDecimal amount, String memo, @NotBlank String idemKey) {}
+                            @NotNull BigDecimal amount, String memo, @NotBlank String idemKey) {}
     public record CreateRes(Long transferId, String status) {}
+
+    // 다건 이체: 출금 1건 + 입금 N건 (분할 결제, 수수료 레그 등). 금액 > 0 검증은 TransferPosting.validate
+    public record Leg(@NotNull Long destWalletId, @NotNull BigDecimal amount) {}
+    public record MultiLegReq(@NotNull Long sourceWalletId, @NotEmpty @Size(max = 100) List<@Valid Leg> legs,
+                              String memo, @NotBlank String idemKey) {}
 }
@@ -0,0 +1,14 @@
+package JYBank.JYBank.dto;
+
+import JYBank.JYBank.domain.money.Money;
+
+import java.time.Instant;
+import java.util.List;
+
+public class WalletDtos {
+    public record BalanceRes(Long walletId, Money balance, String currency, Instant asOf) {}
+    public record EntryRes(Long id, String direction, Money amount, Money balanceAfter, Integer shardNo,
+                           String refType, String refId, Instant createdAt) {}
+    // nextCursor 가 null 이면 마지막 페이지
+    public record EntryPage(List<EntryRes> entries, Long nextCursor) {}
+}
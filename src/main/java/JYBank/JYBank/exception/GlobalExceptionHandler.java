@@ -3,6 +3,7 @@ package JYBank.JYBank.exception;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
 import JYBank.JYBank.service.auth.AuthService.EmailAlreadyUsedException;
+import JYBank.JYBank.support.ratelimit.RateLimitHeaders;
 
 import java.time.Instant;
 import java.util.Map;
@@ -15,14 +16,45 @@ public class GlobalExceptionHandler {
     }
 
     @ExceptionHandler(RuntimeException.class)
-    public ResponseEntity<ApiError> tooMany(RuntimeException e) {
-        if ("Too many requests".equals(e.getMessage())) {
-            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(new ApiError("RATE_LIMIT", e.getMessage(), null));
-        }
+    public ResponseEntity<ApiError> internal(RuntimeException e) {
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new ApiError("INTERNAL", e.getMessage(), null));
     }
 
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<ApiError> tooMany(RateLimitExceededException e) {
+        HttpHeaders headers = new HttpHeaders();
+        RateLimitHeaders.write(headers::set, e.getDecision());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).headers(headers)
+                .body(new ApiError("RATE_LIMIT", e.getMessage(), null));
+    }
+
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<ApiError> overloaded(ServiceOverloadedException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(new ApiError("OVERLOADED", e.getMessage(), null));
+    }
+
+    // 같은 멱등키 요청이 처리 중: 잠시 후 같은 키로 재시도하면 원래 결과를 받음
+    @ExceptionHandler(IdempotencyConflictException.class)
+    public ResponseEntity<ApiError> inProgress(IdempotencyConflictException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(new ApiError("IDEMPOTENCY_IN_PROGRESS", e.getMessage(), null));
+    }
+
+    // 반영 여부 미정: 실패로 단정하지 않는다. 같은 멱등키 재시도가 재기동 후 저널 재적용 결과를 돌려줌
+    @ExceptionHandler(TransferOutcomeUnknownException.class)
+    public ResponseEntity<ApiError> outcomeUnknown(TransferOutcomeUnknownException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(new ApiError("TRANSFER_OUTCOME_UNKNOWN", e.getMessage(), null));
+    }
 
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    public ResponseEntity<ApiError> keyReused(IdempotencyKeyReusedException e) {
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                .body(new ApiError("IDEMPOTENCY_KEY_REUSED", e.getMessage(), null));
+    }
 
     @ExceptionHandler(EmailAlreadyUsedException.class)
     public ResponseEntity<?> handleDupEmail(EmailAlreadyUsedException ex) {
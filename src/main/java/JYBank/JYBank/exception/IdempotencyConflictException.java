@@ -0,0 +1,14 @@
+package JYBank.JYBank.exception;
+
+import lombok.Getter;
+
+// 같은 멱등키 요청이 아직 처리 중 → 409 + Retry-After
+@Getter
+public class IdempotencyConflictException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public IdempotencyConflictException(String key, long retryAfterSeconds) {
+        super("Request in progress: " + key);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
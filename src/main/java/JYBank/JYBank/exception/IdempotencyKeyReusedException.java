@@ -0,0 +1,8 @@
+package JYBank.JYBank.exception;
+
+// 같은 멱등키로 다른 요청(주체/인자가 다름)이 옴 → 422. 이전 결과를 재생하지 않는다
+public class IdempotencyKeyReusedException extends RuntimeException {
+    public IdempotencyKeyReusedException(String key) {
+        super("Idempotency key reused with a different request: " + key);
+    }
+}
@@ -0,0 +1,15 @@
+package JYBank.JYBank.exception;
+
+import JYBank.JYBank.support.ratelimit.RateLimiter.Decision;
+import lombok.Getter;
+
+// 레이트리밋 초과 → 429 + RateLimit-* / Retry-After
+@Getter
+public class RateLimitExceededException extends RuntimeException {
+    private final Decision decision;
+
+    public RateLimitExceededException(String message, Decision decision) {
+        super(message);
+        this.decision = decision;
+    }
+}
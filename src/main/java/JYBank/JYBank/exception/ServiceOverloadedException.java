@@ -0,0 +1,14 @@
+package JYBank.JYBank.exception;
+
+import lombok.Getter;
+
+// 전용 작업 큐가 가득 참 → 503 + Retry-After (요청 스레드를 붙잡지 않고 바로 거절)
+@Getter
+public class ServiceOverloadedException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public ServiceOverloadedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
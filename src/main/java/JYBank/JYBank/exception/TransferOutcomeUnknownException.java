@@ -0,0 +1,8 @@
+package JYBank.JYBank.exception;
+
+// 저널 fsync 실패로 이체가 반영됐는지 알 수 없음 → 503. 같은 Idempotency-Key 로 재시도하면 실제 결과를 받는다
+public class TransferOutcomeUnknownException extends RuntimeException {
+    public TransferOutcomeUnknownException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,89 @@
+package JYBank.JYBank.notification;
+
+import JYBank.JYBank.notification.dto.NotificationEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 알림 배치 컨슈머 (app.notification.consumer=batch).
+ * poll 한 묶음을 한 번에: 중복방지 SET NX 는 파이프라인 1회 → 수신자별로 묶어 병렬 발송(같은 수신자는 도착 순서대로 순차)
+ * → 전부 전달된 뒤에만 오프셋 커밋(수동 ack).
+ * 일부 실패 시: 전달 못 한 이벤트(실패 건 + 같은 수신자의 뒤 건)의 중복방지 키를 풀고 예외 → 커밋 없이 에러 핸들러가 배치를 재전달,
+ * 이미 전달된 건은 중복방지 키로 건너뜀.
+ */
+@Component
+@ConditionalOnProperty(name = "app.notification.consumer", havingValue = "batch")
+@Slf4j
+public class NotificationBatchConsumer {
+    private final NotificationService service;
+    private final ExecutorService dispatchers;
+
+    public NotificationBatchConsumer(NotificationService service,
+                                     @Value("${app.notification.batch.concurrency:8}") int concurrency) {
+        this.service = service;
+        AtomicInteger seq = new AtomicInteger();
+        this.dispatchers = Executors.newFixedThreadPool(concurrency, r -> {
+            Thread t = new Thread(r, "notif-dispatch-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @KafkaListener(topics = "${app.kafka.topics.notification}", groupId = "jybank-notification",
+            containerFactory = "notificationBatchFactory")
+    public void onBatch(List<NotificationEvent> events, Acknowledgment ack) {
+        List<NotificationEvent> fresh = service.acquireAll(events.stream().filter(Objects::nonNull).toList());
+
+        // 수신자별 순서 유지
+        Map<String, List<NotificationEvent>> byReceiver = new LinkedHashMap<>();
+        for (NotificationEvent e : fresh) byReceiver.computeIfAbsent(String.valueOf(e.receiverId()), k -> new ArrayList<>()).add(e);
+
+        List<List<NotificationEvent>> groups = new ArrayList<>(byReceiver.values());
+        List<Future<List<NotificationEvent>>> futures = new ArrayList<>(groups.size());
+        for (List<NotificationEvent> group : groups) futures.add(dispatchers.submit(() -> deliver(group)));
+
+        List<NotificationEvent> undelivered = new ArrayList<>();
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                undelivered.addAll(futures.get(i).get());
+            } catch (ExecutionException e) {
+                undelivered.addAll(groups.get(i)); // 어디까지 보냈는지 모름 → 그룹 전체 재전달 (중복 가능성 < 유실)
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                undelivered.addAll(groups.get(i));
+            }
+        }
+        if (!undelivered.isEmpty()) {
+            service.release(undelivered);
+            throw new IllegalStateException("notification delivery failed: " + undelivered.size() + "/" + fresh.size());
+        }
+        ack.acknowledge();
+    }
+
+    // 수신자 한 명의 이벤트를 순서대로. 실패하면 멈추고 남은 건(실패 건 포함)을 돌려줌
+    private List<NotificationEvent> deliver(List<NotificationEvent> group) {
+        for (int i = 0; i < group.size(); i++) {
+            try {
+                service.dispatch(group.get(i));
+            } catch (RuntimeException e) {
+                log.warn("notification dispatch failed eventId={}: {}", group.get(i).eventId(), e.getMessage());
+                return group.subList(i, group.size());
+            }
+        }
+        return List.of();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        dispatchers.shutdown();
+    }
+}
@@ -1,10 +1,13 @@
 package JYBank.JYBank.notification;
 
 import JYBank.JYBank.notification.dto.NotificationEvent;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
 
+// 건별 소비 (기본). 배치 모드는 NotificationBatchConsumer
 @Component
+@ConditionalOnProperty(name = "app.notification.consumer", havingValue = "single", matchIfMissing = true)
 public class NotificationConsumer {
     private final NotificationService service;
     public NotificationConsumer(NotificationService s) { this.service = s; }
@@ -3,14 +3,22 @@ package JYBank.JYBank.notification;
 import JYBank.JYBank.notification.channel.NotificationChannel;
 import JYBank.JYBank.notification.dto.NotificationEvent;
 import JYBank.JYBank.notification.template.NotificationTemplate;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 @Service
 public class NotificationService {
+    private static final Duration DEDUP_TTL = Duration.ofHours(24);
+
     private final List<NotificationTemplate> templates;
     private final List<NotificationChannel> channels;
     private final StringRedisTemplate redis;
@@ -26,13 +34,42 @@ public class NotificationService {
     // 중복방지(컨슈머 멱등성): eventId로 24시간 동안 한 번만 알림
     private boolean acquire(String eventId) {
         if (eventId == null) return true; // eventId 없으면 스킵
-        Boolean ok = redis.opsForValue().setIfAbsent("notif:" + eventId, "1", Duration.ofHours(24));
+        Boolean ok = redis.opsForValue().setIfAbsent(dedupKey(eventId), "1", DEDUP_TTL);
         return !Boolean.FALSE.equals(ok);
     }
 
+    // 배치용: SET NX 를 파이프라인 1회로 → 처음 보는 이벤트만 (순서 유지, 배치 안 중복도 제거)
+    // 키가 이벤트마다 다른 슬롯이라 Lua 대신 파이프라인 (클러스터에서도 동작)
+    public List<NotificationEvent> acquireAll(List<NotificationEvent> events) {
+        List<Object> results = redis.executePipelined((RedisCallback<Object>) conn -> {
+            for (NotificationEvent e : events) {
+                if (e.eventId() == null) continue;
+                conn.stringCommands().set(bytes(dedupKey(e.eventId())), bytes("1"),
+                        Expiration.from(DEDUP_TTL), SetOption.SET_IF_ABSENT);
+            }
+            return null;
+        });
+        List<NotificationEvent> fresh = new ArrayList<>(events.size());
+        int i = 0;
+        for (NotificationEvent e : events) {
+            if (e.eventId() == null || !Boolean.FALSE.equals(results.get(i++))) fresh.add(e);
+        }
+        return fresh;
+    }
+
+    // 전달하지 못한 이벤트의 중복방지 키 해제 → 재전달 시 다시 알림
+    public void release(Collection<NotificationEvent> events) {
+        List<String> keys = events.stream().filter(e -> e.eventId() != null).map(e -> dedupKey(e.eventId())).toList();
+        if (!keys.isEmpty()) redis.delete(keys);
+    }
+
     public void notify(NotificationEvent event) {
         if (!acquire(event.eventId())) return; // 이미 보낸 이벤트면 종료
+        dispatch(event);
+    }
 
+    // 중복 확인 없이 템플릿/채널로 발송
+    public void dispatch(NotificationEvent event) {
         var template = templates.stream().filter(t -> t.supports(event.type())).findFirst()
                 .orElseThrow(() -> new IllegalArgumentException("No template for type=" + event.type()));
         var title = template.title(event);
@@ -44,4 +81,8 @@ public class NotificationService {
 
         channel.send(event.receiverId(), title, body, event);
     }
+
+    private static String dedupKey(String eventId) { return "notif:" + eventId; }
+
+    private static byte[] bytes(String s) { return s.getBytes(StandardCharsets.UTF_8); }
 }
@@ -2,10 +2,18 @@ package JYBank.JYBank.repository;
 
 import JYBank.JYBank.domain.user.AppUser;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
 import java.util.Optional;
 
+// 이메일 조회는 정규화 키(AppUser.normalizeEmail)로: uk_app_user_email_key 인덱스 사용
 public interface AppUserRepository extends JpaRepository<AppUser, Long> {
-    boolean existsByEmailIgnoreCase(String email);
-    Optional<AppUser> findByEmailIgnoreCase(String email);
+    boolean existsByEmailKey(String emailKey);
+    Optional<AppUser> findByEmailKey(String emailKey);
+
+    // 하드 로그아웃 시각만 (엔티티 로드 없이). 사용자 없음/기록 없음 모두 empty
+    @Query("select u.lastLogoutAt from AppUser u where u.emailKey = :emailKey")
+    Optional<Instant> findLastLogoutAtByEmailKey(@Param("emailKey") String emailKey);
 }
@@ -0,0 +1,11 @@
+package JYBank.JYBank.repository;
+
+import JYBank.JYBank.domain.ledger.BalanceCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.Instant;
+import java.util.Optional;
+
+public interface BalanceCheckpointRepository extends JpaRepository<BalanceCheckpoint, Long> {
+    Optional<BalanceCheckpoint> findFirstByWalletIdAndAsOfLessThanEqualOrderByAsOfDesc(Long walletId, Instant at);
+}
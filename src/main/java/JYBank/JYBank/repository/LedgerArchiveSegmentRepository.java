@@ -0,0 +1,16 @@
+package JYBank.JYBank.repository;
+
+import JYBank.JYBank.domain.ledger.LedgerArchiveSegment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface LedgerArchiveSegmentRepository extends JpaRepository<LedgerArchiveSegment, Long> {
+    boolean existsByMonth(String month);
+
+    List<LedgerArchiveSegment> findByStatus(String status);
+
+    List<LedgerArchiveSegment> findAllByOrderByFromTimeAsc();
+}
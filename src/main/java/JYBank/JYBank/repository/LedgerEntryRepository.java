@@ -1,7 +1,20 @@
 package JYBank.JYBank.repository;
 
 import JYBank.JYBank.domain.ledger.LedgerEntry;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
 
 public interface LedgerEntryRepository extends JpaRepository<LedgerEntry, Long> {
+    // keyset 페이지: (wallet_id, id) 인덱스 범위 스캔, 깊은 페이지도 비용 일정
+    List<LedgerEntry> findByWalletIdAndIdGreaterThanOrderByIdAsc(Long walletId, Long afterId, Limit limit);
+
+    // [from, to) 구간 순변동 (입금 +, 출금 -)
+    @Query(value = "select cast(coalesce(sum(case when direction = 'credit' then amount else -amount end), 0) as bigint) " +
+            "from ledger_entry where wallet_id = :walletId and created_at >= :from and created_at < :to", nativeQuery = true)
+    long netChange(@Param("walletId") Long walletId, @Param("from") Instant from, @Param("to") Instant to);
 }
@@ -0,0 +1,27 @@
+package JYBank.JYBank.repository;
+
+import JYBank.JYBank.domain.outbox.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+    // 여러 노드가 동시에 폴링해도 같은 행을 가져가지 않음. 선점 안 됐거나 선점이 오래된(죽은 릴레이) 행만
+    @Query(value = "select * from outbox_event where claimed_at is null or claimed_at < :staleBefore " +
+            "order by id limit :n for update skip locked", nativeQuery = true)
+    List<OutboxEvent> lockBatch(@Param("n") int n, @Param("staleBefore") Instant staleBefore);
+
+    @Modifying
+    @Query("update OutboxEvent e set e.claimedBy = :node, e.claimedAt = :now where e.id in :ids")
+    int claim(@Param("ids") Collection<Long> ids, @Param("node") String node, @Param("now") Instant now);
+
+    // 전송 실패분은 선점을 풀어 다음 폴링에서 바로 재전송
+    @Modifying
+    @Query("update OutboxEvent e set e.claimedBy = null, e.claimedAt = null where e.id in :ids and e.claimedBy = :node")
+    int release(@Param("ids") Collection<Long> ids, @Param("node") String node);
+}
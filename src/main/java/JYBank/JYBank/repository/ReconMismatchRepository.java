@@ -0,0 +1,7 @@
+package JYBank.JYBank.repository;
+
+import JYBank.JYBank.domain.recon.ReconMismatch;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ReconMismatchRepository extends JpaRepository<ReconMismatch, Long> {
+}
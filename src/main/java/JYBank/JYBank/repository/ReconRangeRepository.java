@@ -0,0 +1,23 @@
+package JYBank.JYBank.repository;
+
+import JYBank.JYBank.domain.recon.ReconRange;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface ReconRangeRepository extends JpaRepository<ReconRange, Long> {
+    List<ReconRange> findByRunIdAndStatusNot(Long runId, String status);
+
+    // 선점: PENDING 이거나 오래 방치된 CLAIMED(죽은 워커) 만 가져감 → 여러 노드가 나눠 처리 가능
+    @Modifying
+    @Query("update ReconRange r set r.status = 'CLAIMED', r.claimedAt = :now " +
+            "where r.id = :id and (r.status = 'PENDING' or (r.status = 'CLAIMED' and r.claimedAt < :staleBefore))")
+    int claim(@Param("id") Long id, @Param("now") Instant now, @Param("staleBefore") Instant staleBefore);
+
+    @Query("select coalesce(sum(r.mismatches), 0) from ReconRange r where r.runId = :runId")
+    long sumMismatches(@Param("runId") Long runId);
+}
@@ -0,0 +1,10 @@
+package JYBank.JYBank.repository;
+
+import JYBank.JYBank.domain.recon.ReconRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface ReconRunRepository extends JpaRepository<ReconRun, Long> {
+    Optional<ReconRun> findFirstByStatusOrderByIdDesc(String status);
+}
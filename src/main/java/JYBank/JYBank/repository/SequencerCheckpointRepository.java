@@ -0,0 +1,7 @@
+package JYBank.JYBank.repository;
+
+import JYBank.JYBank.domain.ledger.SequencerCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface SequencerCheckpointRepository extends JpaRepository<SequencerCheckpoint, Integer> {
+}
@@ -3,5 +3,12 @@ package JYBank.JYBank.repository;
 import JYBank.JYBank.domain.transfer.Transfer;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 public interface TransferRepository extends JpaRepository<Transfer, Long> {
+    List<Transfer> findByIdemKeyIn(Collection<String> idemKeys);
+
+    Optional<Transfer> findByIdemKey(String idemKey);
 }
@@ -3,9 +3,19 @@ package JYBank.JYBank.repository;
 import JYBank.JYBank.domain.wallet.Wallet;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface WalletRepository extends JpaRepository<Wallet, Long> {
-    @Query(value = "select * from wallet where id = :id for update", nativeQuery = true)
+    @Query(value = "select * from wallet where wallet_id = :id for update", nativeQuery = true)
     Optional<Wallet> findByIdForUpdate(@Param("id") Long id);
+
+    @Query("select w.balance.currency from Wallet w where w.walletId = :id")
+    Optional<String> findCurrencyById(@Param("id") Long id);
+
+    // 여러 지갑을 wallet_id 오름차순으로 한 번에 잠금 (잠금 순서 고정 → 데드락 방지)
+    // 샤딩 지갑은 행 잠금 대상이 아님 (서브잔액 행에서 동시성 처리)
+    @Query(value = "select * from wallet where wallet_id in (:ids) and shard_count = 0 order by wallet_id for update", nativeQuery = true)
+    List<Wallet> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,17 @@
+package JYBank.JYBank.repository;
+
+import JYBank.JYBank.domain.wallet.WalletShard;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface WalletShardRepository extends JpaRepository<WalletShard, Long> {
+    boolean existsByWalletId(Long walletId);
+
+    // 지갑들의 샤드 행 전체를 (wallet_id, shard_no) 순으로 잠금 (그룹 커밋 배치)
+    @Query(value = "select id from wallet_shard where wallet_id in (:walletIds) order by wallet_id, shard_no for update", nativeQuery = true)
+    List<Long> lockByWalletIds(@Param("walletIds") Collection<Long> walletIds);
+}
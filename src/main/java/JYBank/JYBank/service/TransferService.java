@@ -3,48 +3,33 @@ package JYBank.JYBank.service;
 import JYBank.JYBank.aop.annotation.Auditable;
 import JYBank.JYBank.aop.annotation.Idempotent;
 import JYBank.JYBank.aop.annotation.RateLimited;
-import JYBank.JYBank.domain.ledger.LedgerEntry;
-import JYBank.JYBank.domain.wallet.Wallet;
 import JYBank.JYBank.dto.TransferDtos.*;
-import JYBank.JYBank.repository.LedgerEntryRepository;
-import JYBank.JYBank.repository.WalletRepository;
-import jakarta.transaction.Transactional;
+import JYBank.JYBank.service.transfer.TransferEngine;
+import JYBank.JYBank.service.transfer.TransferPosting;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
+import java.util.List;
 
 @Service
 public class TransferService {
-    private final WalletRepository walletRepo;
-    private final LedgerEntryRepository ledgerRepo;
+    private final TransferEngine engine;
+    private final TransferPosting posting;
 
-    public TransferService(WalletRepository walletRepo, LedgerEntryRepository ledgerRepo) {
-        this.walletRepo = walletRepo; this.ledgerRepo = ledgerRepo; }
+    public TransferService(TransferEngine engine, TransferPosting posting) { this.engine = engine; this.posting = posting; }
 
+    // 트랜잭션/동시성 처리는 엔진이 담당 (app.transfer.engine)
     @Auditable(action = "TRANSFER_CREATE")
     @Idempotent(key = "#req.idemKey", ttlSeconds = 300)
     @RateLimited(key = "'transfer:' + #req.sourceWalletId", permitsPerMinute = 60)
-    @Transactional
     public CreateRes create(CreateReq req) {
-        Wallet src = walletRepo.findByIdForUpdate(req.sourceWalletId()).orElseThrow();
-        Wallet dst = walletRepo.findByIdForUpdate(req.destWalletId()).orElseThrow();
-        if (src.getBalance().compareTo(req.amount()) < 0) throw new IllegalArgumentException("INSUFFICIENT_BALANCE");
-
-        // 차변: 출금, 대변: 입금 (원장 2건)
-        src.debit(req.amount());
-        dst.credit(req.amount());
-
-        LedgerEntry d = new LedgerEntry();
-        d.setWalletId(src.getWalletId()); d.setDirection("debit");
-        d.setAmount(req.amount()); d.setBalanceAfter(src.getBalance());
-        d.setRefType("TRANSFER"); d.setRefId("TBD");
-
-        LedgerEntry c = new LedgerEntry();
-        c.setWalletId(dst.getWalletId()); c.setDirection("credit");
-        c.setAmount(req.amount()); c.setBalanceAfter(dst.getBalance());
-        c.setRefType("TRANSFER"); c.setRefId("TBD");
+        List<Leg> legs = List.of(new Leg(req.destWalletId(), req.amount()));
+        return engine.execute(req.sourceWalletId(), posting.legs(req.sourceWalletId(), legs), req.idemKey());
+    }
 
-        ledgerRepo.save(d); ledgerRepo.save(c);
-        return new CreateRes(/*transferId*/ 0L, "COMPLETED");
+    @Auditable(action = "TRANSFER_MULTI_LEG")
+    @Idempotent(key = "#req.idemKey", ttlSeconds = 300)
+    @RateLimited(key = "'transfer:' + #req.sourceWalletId", permitsPerMinute = 60)
+    public CreateRes createMultiLeg(MultiLegReq req) {
+        return engine.execute(req.sourceWalletId(), posting.legs(req.sourceWalletId(), req.legs()), req.idemKey());
     }
 }
@@ -7,13 +7,22 @@ import JYBank.JYBank.dto.auth.LoginDtos.*;
 import JYBank.JYBank.dto.auth.SignUpDtos.*;
 import JYBank.JYBank.dto.auth.TokenRefreshDtos.*;
 import JYBank.JYBank.repository.AppUserRepository;
+import JYBank.JYBank.exception.RateLimitExceededException;
 import JYBank.JYBank.support.mail.SmtpMailService;
+import JYBank.JYBank.support.password.PasswordHasher;
+import JYBank.JYBank.support.ratelimit.RateLimiter;
+import JYBank.JYBank.support.ratelimit.RateLimiter.Decision;
+import JYBank.JYBank.util.JwtPrincipal;
 import JYBank.JYBank.util.JwtUtil;
+import io.jsonwebtoken.ExpiredJwtException;
 import jakarta.transaction.Transactional;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.security.SecureRandom;
 
@@ -22,13 +31,11 @@ import JYBank.JYBank.aop.annotation.RateLimited;
 import JYBank.JYBank.aop.annotation.Idempotent;
 
 
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Base64;
 import java.util.Optional;
-import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class AuthService {
@@ -56,110 +63,99 @@ public class AuthService {
 
 
     private final AppUserRepository userRepo;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
 
     private final StringRedisTemplate redis;
-
-    public AuthService(SmtpMailService mailer, AppUserRepository userRepo, PasswordEncoder passwordEncoder, StringRedisTemplate redis) {
+    private final RateLimiter limiter;
+    private final RevocationEpochs revocations;
+    private final RefreshSessionStore sessions;
+    private final RegisteredEmails registeredEmails;
+    private final TransactionTemplate tx;
+
+    public AuthService(SmtpMailService mailer, AppUserRepository userRepo, PasswordHasher passwordHasher, StringRedisTemplate redis,
+                       RateLimiter limiter, RevocationEpochs revocations, RefreshSessionStore sessions,
+                       RegisteredEmails registeredEmails, PlatformTransactionManager txManager) {
         this.mailer = mailer;
         this.userRepo = userRepo;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHasher = passwordHasher;
         this.redis = redis;
+        this.limiter = limiter;
+        this.revocations = revocations;
+        this.sessions = sessions;
+        this.registeredEmails = registeredEmails;
+        this.tx = new TransactionTemplate(txManager);
     }
 
 
-    private String rKey(String refreshToken) { // refresh 토큰 해시 키
-        try {
-            MessageDigest md = MessageDigest.getInstance("SHA-256");
-            byte[] digest = md.digest(refreshToken.getBytes(StandardCharsets.UTF_8));
-            return "auth:refresh:" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
-        } catch (Exception e) {
-            return "auth:refresh:" + Integer.toHexString(refreshToken.hashCode());
-        }
-    }
-
-
-    private boolean existsRefresh(String refreshToken) {
-        return Boolean.TRUE.equals(redis.hasKey(rKey(refreshToken)));
-    }
-
-    private String uSetKey(String loginId) {
-        return "auth:user:" + loginId + ":refresh";
-    }
-
-    //레디스에 리프레쉬 토큰 저장
+    // refresh 세션 저장 (TTL=refresh 만료와 동일)
     private void storeRefresh(String refreshToken, String loginId) {
-        String key = rKey(refreshToken);
-        Duration ttl = Duration.ofMillis(refreshTokenExpiredMs);
-
-        // 개별 토큰 화이트리스트
-        redis.opsForValue().set(key, "1", ttl);
-
-        // 사용자별 세션 Set에 등록
-        String setKey = uSetKey(loginId);
-        redis.opsForSet().add(setKey, key);
-        redis.expire(setKey, ttl);
-    }
-
-    //레디스에 리프레쉬 토큰 삭제 - 로그아웃
-    private void deleteRefresh(String refreshToken, String loginId) {
-        String key = rKey(refreshToken);
-        redis.delete(key);
-        if (loginId != null && !loginId.isBlank()) {
-            redis.opsForSet().remove(uSetKey(loginId), key);
-        }
+        sessions.store(loginId, refreshToken, Duration.ofMillis(refreshTokenExpiredMs));
     }
 
 
     // 회원가입
+    // 해시는 트랜잭션 밖에서 (해시 큐 대기 동안 DB 커넥션을 잡지 않음), 저장만 트랜잭션
     @Auditable(action = "REGISTER")
 // 동시/중복 가입 방지: 같은 이메일 5분 동안 1회만 처리
     @Idempotent(key = "'register:' + #req.email()", ttlSeconds = 300)
 // 과도한 가입 시도 제어: 이메일당 분당 3회
     @RateLimited(key = "'register:' + #req.email()", permitsPerMinute = 3)
-    @Transactional
     public SignUpResponse register(SignUpRequest req) {
         //소문자로 변경
-        String email = req.email().trim().toLowerCase();
+        String email = AppUser.normalizeEmail(req.email());
 
-        //아이디 중복 확인
-        if (userRepo.existsByEmailIgnoreCase(email)) {
+        //아이디 중복 확인 (Bloom 필터가 "없음"이면 DB 생략. 최종 보장은 email/email_key unique 제약)
+        if (registeredEmails.mightExist(email) && userRepo.existsByEmailKey(email)) {
             throw new EmailAlreadyUsedException(email);
         }
 
         //유저 생성
-        AppUser user = AppUser.builder().email(email).passwordHash(passwordEncoder.encode(req.password())).fullName(req.fullName()).phone(req.phone()).kycStatus(KycStatus.PENDING).role(UserRole.USER).build();
+        String passwordHash = passwordHasher.encode(req.password());
+        AppUser user = AppUser.builder().email(email).passwordHash(passwordHash).fullName(req.fullName()).phone(req.phone()).kycStatus(KycStatus.PENDING).role(UserRole.USER).build();
 
         //유저 저장
-        AppUser saved = userRepo.save(user);
+        AppUser saved;
+        try {
+            saved = tx.execute(s -> userRepo.save(user));
+        } catch (DataIntegrityViolationException e) {
+            // 위 확인과 저장 사이 같은 이메일이 먼저 커밋됨 (Bloom 필터 전파 지연 포함) → 500 대신 중복 이메일
+            if (isEmailKeyViolation(e) || userRepo.existsByEmailKey(email)) throw new EmailAlreadyUsedException(email);
+            throw e;
+        }
+        registeredEmails.added(saved.getEmailKey());
         return new SignUpResponse(saved.getUserId(), saved.getEmail(), saved.getKycStatus().name(), saved.getCreatedAt());
     }
 
 
+    private static boolean isEmailKeyViolation(DataIntegrityViolationException e) {
+        return e.getCause() instanceof ConstraintViolationException c && "uk_app_user_email_key".equalsIgnoreCase(c.getConstraintName());
+    }
+
+
     // 로그인
     @Auditable(action = "LOGIN")
 // 이메일 기준 분당 10회 제한 (IP까지 쓰고 싶으면 서비스 시그니처에 ip 추가 후 "'login:'+ #req.email() + ':' + #ip")
     @RateLimited(key = "'login:' + #req.email()", permitsPerMinute = 10)
-    @Transactional
-    public LoginResponse login(LoginRequest req) {
+    public CompletableFuture<LoginResponse> login(LoginRequest req) {
         // 1) 이메일 정규화
-        String email = Optional.ofNullable(req.email()).orElse("").trim().toLowerCase();
+        String email = AppUser.normalizeEmail(Optional.ofNullable(req.email()).orElse(""));
 
-        // 2) 유저 조회 & 패스워드 검증
-        AppUser user = userRepo.findByEmailIgnoreCase(email).orElseThrow(() -> new IllegalArgumentException("잘못된 이메일 또는 비밀번호"));
+        // 2) 유저 조회 & 패스워드 검증 (BCrypt 는 전용 실행기에서, 요청 스레드는 반환. 큐가 차면 503)
+        //    Bloom 필터는 쓰지 않음: 다른 노드에서 막 가입한 계정을 "없음"으로 볼 수 있어 로그인은 항상 DB 로 확인
+        AppUser user = userRepo.findByEmailKey(email).orElseThrow(() -> new IllegalArgumentException("잘못된 이메일 또는 비밀번호"));
 
-        if (!passwordEncoder.matches(req.password(), user.getPasswordHash())) {
-            throw new IllegalArgumentException("잘못된 이메일 또는 비밀번호");
-        }
+        return passwordHasher.matches(req.password(), user.getPasswordHash()).thenApply(ok -> {
+            if (!ok) throw new IllegalArgumentException("잘못된 이메일 또는 비밀번호");
 
-        // 3) 토큰 발급
-        String accessToken = JwtUtil.createAccessToken(user.getEmail(), secretKey, accessTokenExpiredMs);
-        String refreshToken = JwtUtil.createRefreshToken(user.getEmail(), secretKey, refreshTokenExpiredMs);
+            // 3) 토큰 발급
+            String accessToken = JwtUtil.createAccessToken(user.getEmail(), secretKey, accessTokenExpiredMs);
+            String refreshToken = JwtUtil.createRefreshToken(user.getEmail(), secretKey, refreshTokenExpiredMs);
 
-        // 4) Redis 화이트리스트 등록 (TTL=refresh 만료와 동일)
-        storeRefresh(refreshToken, user.getEmail());
+            // 4) Redis 화이트리스트 등록 (TTL=refresh 만료와 동일)
+            storeRefresh(refreshToken, user.getEmail());
 
-        return new LoginResponse(accessToken, refreshToken);
+            return new LoginResponse(accessToken, refreshToken);
+        });
     }
 
     // 리프레시 토큰 재발급 (회전)
@@ -170,29 +166,28 @@ public class AuthService {
     public TokenRefreshResponse refresh(TokenRefreshRequest req) {
         String oldRefresh = req.refreshToken();
 
-        // 1) 만료/타입 검증
-        if (JwtUtil.isExpired(oldRefresh, secretKey)) {
+        // 1) 만료/타입 검증 (서명 검증 1회로 클레임 전부)
+        JwtPrincipal principal;
+        try {
+            principal = JwtUtil.verify(oldRefresh, secretKey);
+        } catch (ExpiredJwtException e) {
             throw new IllegalArgumentException("리프레시 토큰이 만료되었습니다.");
         }
-        if (!JwtUtil.isRefreshToken(oldRefresh, secretKey)) {
+        if (!principal.isRefresh()) {
             throw new IllegalArgumentException("Access 토큰으로는 재발급할 수 없습니다.");
         }
 
-        // 2) 화이트리스트 확인 (로그아웃/폐기된 세션 차단)
-        if (!existsRefresh(oldRefresh)) {
-            throw new IllegalArgumentException("세션이 유효하지 않습니다. 다시 로그인 해주세요.");
-        }
-
-        // 3) 주체(loginId) 추출
-        String loginId = JwtUtil.getLoginId(oldRefresh, secretKey);
+        // 2) 주체(loginId) 추출
+        String loginId = principal.loginId();
 
-        // 4) 새 토큰 발급 (회전)
+        // 3) 새 토큰 발급 (회전)
         String newAccess = JwtUtil.createAccessToken(loginId, secretKey, accessTokenExpiredMs);
         String newRefresh = JwtUtil.createRefreshToken(loginId, secretKey, refreshTokenExpiredMs);
 
-        // 5) 기존 refresh 폐기 → 새 refresh 저장
-        deleteRefresh(oldRefresh, loginId);
-        storeRefresh(newRefresh, loginId);
+        // 4) 화이트리스트 확인 + 기존 refresh 폐기 + 새 refresh 저장을 Lua 1회로 (로그아웃/폐기/재사용된 세션 차단)
+        if (!sessions.rotate(loginId, oldRefresh, newRefresh, Duration.ofMillis(refreshTokenExpiredMs))) {
+            throw new IllegalArgumentException("세션이 유효하지 않습니다. 다시 로그인 해주세요.");
+        }
 
         return new TokenRefreshResponse(newAccess, newRefresh, Instant.now().plusMillis(accessTokenExpiredMs));
     }
@@ -205,20 +200,14 @@ public class AuthService {
     public int logout(String loginId) {
         if (loginId == null || loginId.isBlank()) return 0;
 
-        String setKey = uSetKey(loginId);
-        Set<String> tokenKeys = redis.opsForSet().members(setKey);
-
-        int revoked = 0;
-        if (tokenKeys != null && !tokenKeys.isEmpty()) {
-            Long n = redis.delete(tokenKeys);      // 모든 refresh whitelist 키 일괄 삭제
-            revoked = (n == null) ? 0 : n.intValue();
-        }
-        redis.delete(setKey);                      // 사용자 Set 자체 삭제
+        // 모든 refresh 세션 폐기 (SSCAN 배치 단위)
+        int revoked = sessions.revokeAll(loginId);
 
         // (옵션 강추) 즉시 무효화: lastLogoutAt 갱신 → Access iat 비교로 즉시 차단
-        userRepo.findByEmailIgnoreCase(loginId).ifPresent(u -> {
+        userRepo.findByEmailKey(AppUser.normalizeEmail(loginId)).ifPresent(u -> {
             u.setLastLogoutAt(Instant.now());
             userRepo.save(u);
+            revocations.revoke(u.getEmail(), u.getLastLogoutAt()); // 커밋 후 JwtFilter 캐시(전 노드)에 반영
         });
 
         return revoked;
@@ -265,22 +254,21 @@ public class AuthService {
 
     // ====== 레이트리밋 헬퍼 ======
     private void bumpThrottle(String key, Duration window, int limit) {
-        Long c = redis.opsForValue().increment(key);
-        if (c != null && c == 1) {
-            redis.expire(key, window);
-        }
-        if (c != null && c > limit) {
-            throw new IllegalStateException("요청이 너무 많습니다. 잠시 후 다시 시도해 주세요.");
+        Decision d = limiter.acquire(key, limit, window); // 판정 + 기록 + TTL 을 Lua 1회로
+        if (!d.allowed()) {
+            throw new RateLimitExceededException("요청이 너무 많습니다. 잠시 후 다시 시도해 주세요.", d);
         }
     }
 
     // ====== 이메일 인증 발송 ======
     public String sendEmailVerification(String email) {
-        String normalized = Optional.ofNullable(email).orElse("").trim().toLowerCase();
+        String normalized = AppUser.normalizeEmail(Optional.ofNullable(email).orElse(""));
         if (normalized.isBlank()) throw new IllegalArgumentException("이메일이 필요합니다.");
 
         // 존재하는 사용자만 발송(정보 노출 방지엔 보통 같은 응답, 여기선 단순 처리)
-        userRepo.findByEmailIgnoreCase(normalized).orElseThrow(() -> new IllegalArgumentException("가입되지 않은 이메일입니다."));
+        if (!registeredEmails.mightExist(normalized) || !userRepo.existsByEmailKey(normalized)) {
+            throw new IllegalArgumentException("가입되지 않은 이메일입니다.");
+        }
 
         // 레이트리밋: 같은 이메일 1분에 1회(연속 스팸 방지)
         bumpThrottle(emailVerifyThrottleKey(normalized), EMAIL_VERIFY_THROTTLE, 1);
@@ -318,7 +306,7 @@ public class AuthService {
         redis.opsForValue().set(emailVerifiedFlagKey(normalized), "1");
 
         // (선택-권장) DB에도 반영: AppUser.emailVerifiedAt 추가 시
-        // AppUser u = userRepo.findByEmailIgnoreCase(normalized).orElseThrow();
+        // AppUser u = userRepo.findByEmailKey(normalized).orElseThrow();
         // u.setEmailVerifiedAt(Instant.now());
         // userRepo.save(u);
 
@@ -344,9 +332,11 @@ public class AuthService {
 // 분당 1회
     @RateLimited(key = "'pwreset:start:' + #email", permitsPerMinute = 1)
     public String startPasswordReset(String email) {
-        String normalized = Optional.ofNullable(email).orElse("").trim().toLowerCase();
+        String normalized = AppUser.normalizeEmail(Optional.ofNullable(email).orElse(""));
         // 존재 유무 노출 방지 정책이라면 "성공"만 반환하고 내부적으로만 처리하는 것도 가능
-        userRepo.findByEmailIgnoreCase(normalized).orElseThrow(() -> new IllegalArgumentException("가입되지 않은 이메일입니다."));
+        if (!registeredEmails.mightExist(normalized) || !userRepo.existsByEmailKey(normalized)) {
+            throw new IllegalArgumentException("가입되지 않은 이메일입니다.");
+        }
 
         // 레이트리밋: 같은 이메일 2분에 1회
         bumpThrottle(pwResetThrottleKey(normalized), PW_RESET_THROTTLE, 1);
@@ -371,7 +361,6 @@ public class AuthService {
     @Idempotent(key = "'pwreset:finish:' + #code", ttlSeconds = 900)
 // 오남용 방지
     @RateLimited(key = "'pwreset:finish:' + #code", permitsPerMinute = 6)
-    @Transactional
     public void resetPassword(String code, String newPassword) {
         if (code == null || code.isBlank()) throw new IllegalArgumentException("코드가 필요합니다.");
         if (newPassword == null || newPassword.length() < 8) throw new IllegalArgumentException("비밀번호는 8자 이상이어야 합니다.");
@@ -379,14 +368,18 @@ public class AuthService {
         String email = redis.opsForValue().get(pwResetKey(code));
         if (email == null) throw new IllegalArgumentException("코드가 만료되었거나 잘못되었습니다.");
 
-        AppUser u = userRepo.findByEmailIgnoreCase(email).orElseThrow();
-        u.setPasswordHash(passwordEncoder.encode(newPassword));
-        //비밀번호 변경 시각 저장 필드가 있으면 업데이트
-        u.setLastPasswordChangeAt(Instant.now());
-        userRepo.save(u);
+        // 해시는 트랜잭션 밖에서, 변경 + 로그아웃만 트랜잭션
+        String passwordHash = passwordHasher.encode(newPassword);
+        tx.executeWithoutResult(s -> {
+            AppUser u = userRepo.findByEmailKey(AppUser.normalizeEmail(email)).orElseThrow();
+            u.setPasswordHash(passwordHash);
+            //비밀번호 변경 시각 저장 필드가 있으면 업데이트
+            u.setLastPasswordChangeAt(Instant.now());
+            userRepo.save(u);
 
-        // 보안: 모든 세션 강제 로그아웃(Refresh 전부 폐기)
-        logout(email);
+            // 보안: 모든 세션 강제 로그아웃(Refresh 전부 폐기)
+            logout(email);
+        });
 
         // 코드 사용 소진
         redis.delete(pwResetKey(code));
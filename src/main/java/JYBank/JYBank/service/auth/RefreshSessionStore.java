@@ -0,0 +1,143 @@
+package JYBank.JYBank.service.auth;
+
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * refresh 토큰 화이트리스트 (Redis).
+ * - auth:{loginId}:refresh:<토큰 SHA-256>  토큰별 키 (TTL = refresh 만료)
+ * - auth:{loginId}:sessions                 사용자 세션 Set (전체 로그아웃용)
+ * 해시태그 {loginId} 로 한 사용자의 키는 모두 같은 슬롯 → 저장/회전/폐기를 Lua 1회로 원자 처리 (클러스터에서도 동작).
+ * 전체 폐기는 SSCAN 배치 단위로 지워 세션이 많은 사용자도 Redis 를 오래 막지 않는다.
+ * 이전 키 형식(auth:refresh:<hash>, auth:user:<id>:refresh)은 refresh TTL 이 지날 때까지 회전/폐기에서만 인정한다.
+ */
+@Component
+public class RefreshSessionStore {
+    private static final int REVOKE_BATCH = 500;
+
+    // KEYS[1] 토큰 키, KEYS[2] 세션 Set / ARGV[1] ttl(ms)
+    private static final DefaultRedisScript<Long> STORE = new DefaultRedisScript<>(
+            "redis.call('SET', KEYS[1], '1', 'PX', ARGV[1]) " +
+            "redis.call('SADD', KEYS[2], KEYS[1]) " +
+            "redis.call('PEXPIRE', KEYS[2], ARGV[1]) " +
+            "return 1", Long.class);
+
+    // KEYS[1] 기존 토큰 키, KEYS[2] 새 토큰 키, KEYS[3] 세션 Set / ARGV[1] ttl(ms)
+    // 기존 키가 있을 때만 교체 → 같은 refresh 토큰으로 동시에 회전해도 한 요청만 성공
+    private static final DefaultRedisScript<Long> ROTATE = new DefaultRedisScript<>(
+            "if redis.call('DEL', KEYS[1]) == 0 then return 0 end " +
+            "redis.call('SREM', KEYS[3], KEYS[1]) " +
+            "redis.call('SET', KEYS[2], '1', 'PX', ARGV[1]) " +
+            "redis.call('SADD', KEYS[3], KEYS[2]) " +
+            "redis.call('PEXPIRE', KEYS[3], ARGV[1]) " +
+            "return 1", Long.class);
+
+    // KEYS[1] 세션 Set, KEYS[2..] 토큰 키 → 지운 토큰 수. Set 에서도 빼므로 폐기 중 새로 로그인한 세션은 남음
+    private static final DefaultRedisScript<Long> REVOKE_BATCH_SCRIPT = new DefaultRedisScript<>(
+            "local n = 0 " +
+            "for i = 2, #KEYS do " +
+            "  n = n + redis.call('UNLINK', KEYS[i]) " +
+            "  redis.call('SREM', KEYS[1], KEYS[i]) " +
+            "end " +
+            "return n", Long.class);
+
+    private final StringRedisTemplate redis;
+
+    public RefreshSessionStore(StringRedisTemplate redis) { this.redis = redis; }
+
+    public void store(String loginId, String refreshToken, Duration ttl) {
+        redis.execute(STORE, List.of(tokenKey(loginId, refreshToken), sessionsKey(loginId)), String.valueOf(ttl.toMillis()));
+    }
+
+    // 기존 토큰이 화이트리스트에 있으면 새 토큰으로 교체하고 true. 없으면(폐기/재사용) false
+    public boolean rotate(String loginId, String oldToken, String newToken, Duration ttl) {
+        Long ok = redis.execute(ROTATE, List.of(tokenKey(loginId, oldToken), tokenKey(loginId, newToken), sessionsKey(loginId)),
+                String.valueOf(ttl.toMillis()));
+        if (ok != null && ok == 1L) return true;
+        // 이전 키 형식 세션: DEL 이 1 인 요청만 통과 (원자)
+        String legacy = legacyTokenKey(oldToken);
+        if (!Boolean.TRUE.equals(redis.delete(legacy))) return false;
+        redis.opsForSet().remove(legacySessionsKey(loginId), legacy);
+        store(loginId, newToken, ttl);
+        return true;
+    }
+
+    // 사용자 refresh 세션 전부 폐기 → 폐기한 토큰 수
+    public int revokeAll(String loginId) {
+        String sessions = sessionsKey(loginId);
+        int revoked = 0;
+        List<String> batch = new ArrayList<>(REVOKE_BATCH + 1);
+        batch.add(sessions);
+        try (Cursor<String> c = redis.opsForSet().scan(sessions, ScanOptions.scanOptions().count(REVOKE_BATCH).build())) {
+            while (c.hasNext()) {
+                batch.add(c.next());
+                if (batch.size() > REVOKE_BATCH) {
+                    revoked += revokeBatch(batch);
+                    batch.subList(1, batch.size()).clear();
+                }
+            }
+        }
+        if (batch.size() > 1) revoked += revokeBatch(batch);
+        return revoked + revokeLegacy(loginId);
+    }
+
+    private int revokeBatch(List<String> keys) {
+        Long n = redis.execute(REVOKE_BATCH_SCRIPT, keys);
+        return n == null ? 0 : n.intValue();
+    }
+
+    private int revokeLegacy(String loginId) {
+        String sessions = legacySessionsKey(loginId);
+        if (!Boolean.TRUE.equals(redis.hasKey(sessions))) return 0;
+        int revoked = 0;
+        List<String> batch = new ArrayList<>(REVOKE_BATCH);
+        try (Cursor<String> c = redis.opsForSet().scan(sessions, ScanOptions.scanOptions().count(REVOKE_BATCH).build())) {
+            while (c.hasNext()) {
+                batch.add(c.next());
+                if (batch.size() == REVOKE_BATCH) {
+                    revoked += unlink(batch);
+                    batch.clear();
+                }
+            }
+        }
+        revoked += unlink(batch);
+        redis.unlink(sessions);
+        return revoked;
+    }
+
+    private int unlink(List<String> keys) {
+        if (keys.isEmpty()) return 0;
+        Long n = redis.unlink(keys);
+        return n == null ? 0 : n.intValue();
+    }
+
+    private static String tokenKey(String loginId, String refreshToken) {
+        return "auth:{" + loginId + "}:refresh:" + digest(refreshToken);
+    }
+
+    private static String sessionsKey(String loginId) { return "auth:{" + loginId + "}:sessions"; }
+
+    private static String legacyTokenKey(String refreshToken) { return "auth:refresh:" + digest(refreshToken); }
+
+    private static String legacySessionsKey(String loginId) { return "auth:user:" + loginId + ":refresh"; }
+
+    private static String digest(String token) {
+        try {
+            byte[] d = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(d);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // JDK 필수 알고리즘
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package JYBank.JYBank.service.auth;
+
+import JYBank.JYBank.util.BloomFilter;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 가입된 이메일(정규화 키) Bloom 필터. "없음"이면 DB 를 치지 않는다 (가입 가능 확인, 모르는 계정의 메일 요청).
+ * 아래 전파 지연 때문에 거짓 "없음"이 나올 수 있으므로 로그인처럼 틀리면 안 되는 판정에는 쓰지 않는다.
+ * - 주기적으로 app_user 를 keyset 순회해 새 필터를 만들고 교체 (첫 빌드 전에는 항상 "있을 수 있음" → DB 조회)
+ * - 가입 시 로컬 필터에 바로 추가하고, 커밋 후 pub/sub 로 다른 노드 필터에도 추가
+ * - 재빌드 스캔과 겹친 가입이 새 필터에서 빠지지 않게 최근 가입분(recent)을 grace 동안 보관해 교체 직전에 다시 넣는다
+ * pub/sub 유실 시 다른 노드는 다음 재빌드까지 그 이메일을 "없음"으로 볼 수 있다 (rebuild-ms 가 최대 지연).
+ * 사용자 삭제가 없으므로 필터에서 빼는 연산은 필요 없음.
+ */
+@Component
+@Slf4j
+public class RegisteredEmails {
+    private static final String CHANNEL = "auth:email:registered";
+    private static final int PAGE = 10_000;
+    private static final Duration RECENT_GRACE = Duration.ofMinutes(1); // 가입 트랜잭션이 재빌드 스캔보다 늦게 커밋될 수 있는 여유
+
+    private final JdbcTemplate jdbc;
+    private final StringRedisTemplate redis;
+    private final RedisMessageListenerContainer listeners;
+    private final Map<String, Long> recent = new ConcurrentHashMap<>(); // emailKey → 추가 시각(nanoTime)
+    private volatile BloomFilter filter;
+    private volatile long rebuildStarted;  // 진행 중인 재빌드 시작 시각(nanoTime), 0 = 없음
+    private volatile long lastPruned = System.nanoTime();
+
+    @Value("${app.auth.email-filter.enabled:true}") private boolean enabled;
+    @Value("${app.auth.email-filter.fpp:0.01}") private double fpp;
+
+    public RegisteredEmails(JdbcTemplate jdbc, StringRedisTemplate redis, RedisMessageListenerContainer listeners) {
+        this.jdbc = jdbc;
+        this.redis = redis;
+        this.listeners = listeners;
+    }
+
+    @PostConstruct
+    void subscribe() {
+        listeners.addMessageListener((message, pattern) ->
+                add(new String(message.getBody(), StandardCharsets.UTF_8)), new ChannelTopic(CHANNEL));
+    }
+
+    // false 면 가입되지 않은 이메일 (전파 지연 동안은 막 가입한 이메일일 수도 있음)
+    public boolean mightExist(String emailKey) {
+        BloomFilter f = filter;
+        return !enabled || f == null || f.mightContain(emailKey);
+    }
+
+    // 가입 직후 호출 (트랜잭션 중이면 다른 노드 전파는 커밋 후)
+    public void added(String emailKey) {
+        add(emailKey);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override public void afterCommit() { publish(emailKey); }
+            });
+        } else {
+            publish(emailKey);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.auth.email-filter.rebuild-ms:600000}")
+    public void rebuild() {
+        if (!enabled) return;
+        long started = System.nanoTime();
+        rebuildStarted = started;
+        try {
+            Long count = jdbc.queryForObject("select count(*) from app_user", Long.class);
+            BloomFilter next = new BloomFilter(Math.max(10_000, (count == null ? 0 : count) * 2), fpp);
+            long after = 0;
+            while (true) {
+                List<Object[]> page = jdbc.query(
+                        "select user_id, email_key from app_user where user_id > ? order by user_id limit ?",
+                        (rs, i) -> new Object[]{rs.getLong(1), rs.getString(2)}, after, PAGE);
+                for (Object[] row : page) next.put((String) row[1]);
+                if (page.size() < PAGE) break;
+                after = (Long) page.get(page.size() - 1)[0];
+            }
+            recent.keySet().forEach(next::put);
+            filter = next;
+            recent.keySet().forEach(next::put); // 위 복사와 교체 사이에 들어온 가입분
+            recent.values().removeIf(at -> started - at > RECENT_GRACE.toNanos());
+        } catch (DataAccessException e) {
+            log.warn("registered email filter rebuild failed: {}", e.getMessage()); // 기존 필터 유지
+        } finally {
+            rebuildStarted = 0;
+        }
+    }
+
+    private void add(String emailKey) {
+        if (!enabled) return; // 필터를 안 쓰면 recent 도 쌓지 않음
+        long now = System.nanoTime();
+        recent.put(emailKey, now);
+        BloomFilter f = filter;
+        if (f != null) f.put(emailKey);
+        // 재빌드가 실패를 반복해도 recent 가 무한히 자라지 않게 grace 마다 정리.
+        // 진행 중인 재빌드가 있으면 그 시작 기준으로 남겨 둔다 (rebuild() 의 정리와 같은 기준)
+        if (now - lastPruned > RECENT_GRACE.toNanos()) {
+            lastPruned = now;
+            long started = rebuildStarted;
+            long base = started != 0 ? started : now;
+            recent.values().removeIf(at -> base - at > RECENT_GRACE.toNanos());
+        }
+    }
+
+    private void publish(String emailKey) {
+        try {
+            redis.convertAndSend(CHANNEL, emailKey);
+        } catch (DataAccessException e) {
+            log.warn("registered email publish failed: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package JYBank.JYBank.service.auth;
+
+import JYBank.JYBank.domain.user.AppUser;
+import JYBank.JYBank.repository.AppUserRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 사용자별 하드 로그아웃 시각(lastLogoutAt, 폐기 epoch) 프로세스 캐시. JwtFilter 가 요청마다 DB 를 치지 않게 한다.
+ * - 미스일 때만 lastLogoutAt 컬럼 하나를 조회하고, "로그아웃 기록 없음"도 캐시
+ * - logout/resetPassword 커밋 후 pub/sub 로 다른 노드에 새 epoch 전파. 값은 항상 더 늦은 시각으로만 바뀜(merge)
+ *   → 발행 전에 시작한 느린 DB 로드가 새 epoch 를 덮어쓰지 못함
+ * pub/sub 는 유실될 수 있으므로(구독 재연결, Redis 장애) 항목은 ttl 후 DB 에서 다시 읽는다 = 다른 노드에서의 최대 지연.
+ */
+@Component
+@Slf4j
+public class RevocationEpochs {
+    private static final String CHANNEL = "auth:revocation";
+
+    // epoch == null: 로그아웃 기록 없음
+    private record Entry(Instant epoch, long expiresAtNanos) {}
+
+    private final AppUserRepository userRepo;
+    private final StringRedisTemplate redis;
+    private final RedisMessageListenerContainer listeners;
+    private final Map<String, Entry> cache = new ConcurrentHashMap<>();
+
+    @Value("${app.auth.revocation-cache.enabled:true}") private boolean enabled;
+    @Value("${app.auth.revocation-cache.ttl:PT5M}") private Duration ttl;
+    @Value("${app.auth.revocation-cache.max-entries:100000}") private int maxEntries;
+
+    public RevocationEpochs(AppUserRepository userRepo, StringRedisTemplate redis, RedisMessageListenerContainer listeners) {
+        this.userRepo = userRepo;
+        this.redis = redis;
+        this.listeners = listeners;
+    }
+
+    @PostConstruct
+    void subscribe() {
+        listeners.addMessageListener((message, pattern) -> {
+            String body = new String(message.getBody(), StandardCharsets.UTF_8); // loginId|epoch
+            int bar = body.lastIndexOf('|');
+            if (bar > 0) put(body.substring(0, bar), Instant.parse(body.substring(bar + 1)));
+        }, new ChannelTopic(CHANNEL));
+    }
+
+    // 이 시각 이전에 발급된 토큰은 무효. null 이면 제한 없음
+    public Instant epoch(String loginId) {
+        if (!enabled) return load(loginId);
+        Entry e = cache.get(loginId);
+        if (e != null && e.expiresAtNanos() - System.nanoTime() > 0) return e.epoch();
+        return put(loginId, load(loginId));
+    }
+
+    // 하드 로그아웃 기록 후 호출: 트랜잭션 중이면 커밋 후 반영/전파
+    public void revoke(String loginId, Instant epoch) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override public void afterCommit() { publish(loginId, epoch); }
+            });
+        } else {
+            publish(loginId, epoch);
+        }
+    }
+
+    private void publish(String loginId, Instant epoch) {
+        put(loginId, epoch);
+        try {
+            redis.convertAndSend(CHANNEL, loginId + "|" + epoch);
+        } catch (DataAccessException e) {
+            // 다른 노드는 ttl 후 DB 에서 반영
+            log.warn("revocation publish failed loginId={}: {}", loginId, e.getMessage());
+        }
+    }
+
+    private Instant load(String loginId) {
+        return userRepo.findLastLogoutAtByEmailKey(AppUser.normalizeEmail(loginId)).orElse(null);
+    }
+
+    private Instant put(String loginId, Instant epoch) {
+        if (cache.size() > maxEntries) cache.clear();
+        Entry fresh = new Entry(epoch, System.nanoTime() + ttl.toNanos());
+        return cache.merge(loginId, fresh, (old, cur) -> later(old.epoch(), cur.epoch()) == old.epoch()
+                ? new Entry(old.epoch(), cur.expiresAtNanos()) : cur).epoch();
+    }
+
+    private static Instant later(Instant a, Instant b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        return a.isAfter(b) ? a : b;
+    }
+}
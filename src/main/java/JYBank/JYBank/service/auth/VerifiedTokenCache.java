@@ -0,0 +1,63 @@
+package JYBank.JYBank.service.auth;
+
+import JYBank.JYBank.util.JwtPrincipal;
+import JYBank.JYBank.util.JwtUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 검증을 통과한 access 토큰 캐시. 같은 토큰이 반복해서 오면 서명 검증/클레임 파싱 없이 만료 시각까지 재사용한다.
+ * 키는 토큰 SHA-256 (토큰 원문을 메모리에 쌓지 않음). 하드 로그아웃은 JwtFilter 가 RevocationEpochs 로 따로 확인하므로
+ * 캐시된 토큰도 로그아웃 즉시 거절된다.
+ */
+@Component
+public class VerifiedTokenCache {
+    private final Map<String, JwtPrincipal> cache = new ConcurrentHashMap<>();
+    private final String secretKey;
+    private final boolean enabled;
+    private final int maxEntries;
+
+    public VerifiedTokenCache(@Value("${jwt.secret}") String secretKey,
+                              @Value("${app.jwt.verified-cache.enabled:true}") boolean enabled,
+                              @Value("${app.jwt.verified-cache.max-entries:50000}") int maxEntries) {
+        this.secretKey = secretKey;
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+    }
+
+    // 만료/위변조면 JwtUtil.verify 와 같은 예외
+    public JwtPrincipal verify(String token) {
+        if (!enabled) return JwtUtil.verify(token, secretKey);
+        String key = digest(token);
+        Instant now = Instant.now();
+        JwtPrincipal p = cache.get(key);
+        if (p != null) {
+            if (!p.isExpired(now)) return p;
+            cache.remove(key, p);
+        }
+        p = JwtUtil.verify(token, secretKey);
+        if (p.expiresAt() != null && !p.isExpired(now)) {
+            if (cache.size() >= maxEntries) cache.values().removeIf(e -> e.isExpired(now));
+            if (cache.size() >= maxEntries) cache.clear();
+            cache.put(key, p);
+        }
+        return p;
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] d = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().withoutPadding().encodeToString(d);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // JDK 필수 알고리즘
+        }
+    }
+}
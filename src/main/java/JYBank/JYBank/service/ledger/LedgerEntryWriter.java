@@ -0,0 +1,39 @@
+package JYBank.JYBank.service.ledger;
+
+import JYBank.JYBank.domain.ledger.LedgerEntry;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 원장 insert 는 모두 여기로. id 는 insert 시점에 DB 시퀀스에서 받는다 (JDBC 배치 1회).
+ * 호출자는 지갑 행(샤딩 지갑은 샤드 행) 잠금을 쥔 트랜잭션 안에서 부르므로, 같은 지갑의 다음 원장은 이전 트랜잭션 커밋 뒤에
+ * 번호를 받는다 → 지갑(샤드)별로 id 순서 = 기록 순서 = balanceAfter 체인 순서. 대사 체인 검사와 이력 keyset 이 이 순서에 기댄다.
+ * (노드별 pooled-lo 블록으로 미리 받은 id 는 노드가 다르면 순서가 뒤집힌다.)
+ * 시퀀스는 엔티티 매핑과 같은 increment 50 이라 id 가 50씩 건너뛰지만, pooled-lo 로 받는 쪽이 있어도 겹치지 않는다.
+ */
+@Component
+public class LedgerEntryWriter {
+    private static final String INSERT_SQL = "insert into ledger_entry " +
+            "(id, wallet_id, direction, amount, currency, balance_after, shard_no, ref_type, ref_id, created_at) " +
+            "values (nextval('ledger_entry_seq'), ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbc;
+
+    public LedgerEntryWriter(JdbcTemplate jdbc) { this.jdbc = jdbc; }
+
+    public void insert(List<LedgerEntry> entries) {
+        if (entries.isEmpty()) return;
+        List<Object[]> args = new ArrayList<>(entries.size());
+        for (LedgerEntry e : entries) {
+            args.add(new Object[]{e.getWalletId(), e.getDirection(), e.getAmount().minor(), e.getAmount().currency(),
+                    e.getBalanceAfter().minor(), e.getShardNo(), e.getRefType(), e.getRefId(), Timestamp.from(e.getCreatedAt())});
+        }
+        jdbc.batchUpdate(INSERT_SQL, args, new int[]{Types.BIGINT, Types.VARCHAR, Types.BIGINT, Types.VARCHAR,
+                Types.BIGINT, Types.INTEGER, Types.VARCHAR, Types.VARCHAR, Types.TIMESTAMP});
+    }
+}
@@ -0,0 +1,162 @@
+package JYBank.JYBank.service.ledger.archive;
+
+import JYBank.JYBank.domain.ledger.LedgerArchiveSegment;
+import JYBank.JYBank.domain.ledger.LedgerEntry;
+import JYBank.JYBank.repository.LedgerArchiveSegmentRepository;
+import JYBank.JYBank.service.ledger.archive.LedgerSegmentFile.RowGroup;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * 아카이브 세그먼트 읽기 경로. 세그먼트 메타는 메모리에 두고 주기적으로 갱신하며,
+ * 세그먼트(메타 min/max) → 행 그룹(footer min/max) 순으로 걸러 필요한 그룹만 풀어 읽는다.
+ * 삭제 중(DELETING)인 세그먼트의 행은 핫 테이블에도 남아 있을 수 있으므로 호출 측은 id 로 중복을 제거한다.
+ */
+@Service
+@Slf4j
+public class LedgerArchive {
+    private final LedgerArchiveSegmentRepository segmentRepo;
+    private final Path dir;
+    private final Map<String, List<RowGroup>> footers = new ConcurrentHashMap<>();
+    private volatile List<LedgerArchiveSegment> segments = List.of(); // fromTime 오름차순
+
+    public LedgerArchive(LedgerArchiveSegmentRepository segmentRepo,
+                         @Value("${app.ledger.archive.dir:./data/ledger-archive}") String dir) {
+        this.segmentRepo = segmentRepo;
+        this.dir = Paths.get(dir);
+    }
+
+    @PostConstruct
+    void init() {
+        try { refresh(); }
+        catch (RuntimeException e) { log.warn("ledger archive metadata load failed: {}", e.getMessage()); }
+    }
+
+    @Scheduled(fixedDelayString = "${app.ledger.archive.refresh-ms:60000}")
+    public void refresh() {
+        segments = List.copyOf(segmentRepo.findAllByOrderByFromTimeAsc());
+    }
+
+    Path dir() { return dir; }
+
+    // 이 시각 이전 원장은 전부 아카이브에 있음 (아카이브가 없으면 null)
+    public Instant horizon() {
+        List<LedgerArchiveSegment> s = segments;
+        return s.isEmpty() ? null : s.get(s.size() - 1).getToTime();
+    }
+
+    // 지갑의 id > afterId 아카이브 원장을 id 순으로 최대 limit 건
+    public List<LedgerEntry> entries(Long walletId, long afterId, int limit) {
+        List<LedgerEntry> out = new ArrayList<>();
+        for (LedgerArchiveSegment s : segments) {
+            if (!covers(s, walletId) || s.getMaxEntryId() <= afterId) continue;
+            int[] taken = {0};
+            read(s, g -> g.coversWallet(walletId) && g.maxId() > afterId, e -> {
+                // 세그먼트 안에서 지갑 행은 id 순 → 세그먼트당 limit 건이면 충분
+                if (taken[0] < limit && e.getWalletId().equals(walletId) && e.getId() > afterId) {
+                    out.add(e);
+                    taken[0]++;
+                }
+            });
+        }
+        out.sort(Comparator.comparing(LedgerEntry::getId));
+        return out.size() > limit ? new ArrayList<>(out.subList(0, limit)) : out;
+    }
+
+    // 지갑 아카이브 원장을 id 순으로 page 건씩 끌어오는 커서 (NDJSON 내보내기용)
+    public Cursor cursor(Long walletId, long afterId, int page) {
+        return new Cursor(walletId, afterId, page);
+    }
+
+    // [from, to) 최소 단위 순변동 (입금 +, 출금 -). 지갑 원장은 모두 지갑 통화
+    public long netChange(Long walletId, Instant from, Instant to) {
+        long f = LedgerSegmentFile.toMicros(from), t = LedgerSegmentFile.toMicros(to);
+        long[] sum = {0};
+        for (LedgerArchiveSegment s : segments) {
+            if (!covers(s, walletId) || !s.getToTime().isAfter(from) || !s.getFromTime().isBefore(to)) continue;
+            read(s, g -> g.coversWallet(walletId) && g.overlapsTime(f, t), e -> {
+                if (!e.getWalletId().equals(walletId)) return;
+                long m = LedgerSegmentFile.toMicros(e.getCreatedAt());
+                if (m < f || m >= t) return;
+                long minor = e.getAmount().minor();
+                sum[0] = "credit".equals(e.getDirection()) ? Math.addExact(sum[0], minor) : Math.subtractExact(sum[0], minor);
+            });
+        }
+        return sum[0];
+    }
+
+    // wallet_id ∈ [fromWallet, toWallet) 아카이브 원장 전체. 세그먼트는 오래된 월부터, 세그먼트 안은 (wallet_id, id) 순
+    public void scan(long fromWallet, long toWallet, Consumer<LedgerEntry> sink) {
+        for (LedgerArchiveSegment s : segments) {
+            if (s.getMaxWalletId() < fromWallet || s.getMinWalletId() >= toWallet) continue;
+            read(s, g -> g.overlapsWallets(fromWallet, toWallet), e -> {
+                if (e.getWalletId() >= fromWallet && e.getWalletId() < toWallet) sink.accept(e);
+            });
+        }
+    }
+
+    private static boolean covers(LedgerArchiveSegment s, long walletId) {
+        return s.getMinWalletId() <= walletId && walletId <= s.getMaxWalletId();
+    }
+
+    private void read(LedgerArchiveSegment s, Predicate<RowGroup> groupFilter, Consumer<LedgerEntry> sink) {
+        Path path = dir.resolve(s.getFileName());
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            List<RowGroup> groups = footers.get(s.getFileName());
+            if (groups == null) {
+                groups = LedgerSegmentFile.readFooter(ch);
+                footers.put(s.getFileName(), groups);
+            }
+            for (RowGroup g : groups) {
+                if (groupFilter.test(g)) LedgerSegmentFile.readGroup(ch, g).forEach(sink);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("ledger archive read failed: " + path, e);
+        }
+    }
+
+    public final class Cursor {
+        private final Long walletId;
+        private final int page;
+        private long after;
+        private Deque<LedgerEntry> buf = new ArrayDeque<>();
+        private boolean exhausted;
+
+        private Cursor(Long walletId, long after, int page) {
+            this.walletId = walletId;
+            this.after = after;
+            this.page = page;
+        }
+
+        public LedgerEntry peek() {
+            if (buf.isEmpty() && !exhausted) {
+                List<LedgerEntry> next = entries(walletId, after, page);
+                if (next.size() < page) exhausted = true;
+                if (!next.isEmpty()) after = next.get(next.size() - 1).getId();
+                buf = new ArrayDeque<>(next);
+            }
+            return buf.peekFirst();
+        }
+
+        public LedgerEntry next() {
+            LedgerEntry e = peek();
+            if (e == null) throw new NoSuchElementException();
+            return buf.pollFirst();
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package JYBank.JYBank.service.ledger.archive;
+
+import JYBank.JYBank.domain.ledger.LedgerArchiveSegment;
+import JYBank.JYBank.domain.ledger.LedgerEntry;
+import JYBank.JYBank.domain.money.Money;
+import JYBank.JYBank.repository.LedgerArchiveSegmentRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.Map;
+
+/**
+ * 원장 아카이빙. 보존 기간(기본 13개월)이 지난 닫힌 월을 오래된 것부터 세그먼트 파일로 내보내고 핫 테이블에서 지운다.
+ * 1) (wallet_id, id) 순으로 스트리밍해 임시 파일에 쓰고 fsync
+ * 2) DB 건수/ id 합과 대조 후 원자적 rename
+ * 3) 메타를 DELETING 으로 등록 → 모든 노드의 읽기 경로가 세그먼트를 보게 된 뒤(purge-delay) 배치 삭제, ARCHIVED
+ * 어느 단계에서 멈춰도 다음 실행이 이어서 처리한다.
+ * 삭제 후에는 세그먼트 파일이 원장 원본이므로, app.ledger.archive.dir 이 모든 노드가 읽는 공유/내구 저장소
+ * (NFS/EFS 등 복제되는 마운트)라고 app.ledger.archive.shared-storage=true 로 선언해야 켜진다. 아니면 기동 실패.
+ */
+@Service
+@Slf4j
+public class LedgerArchiver {
+    private static final String MONTH_SQL = "select id, wallet_id, direction, amount, balance_after, shard_no, ref_type, ref_id, created_at, currency " +
+            "from ledger_entry where created_at >= ? and created_at < ? order by wallet_id, id";
+
+    private final LedgerArchiveSegmentRepository segmentRepo;
+    private final LedgerArchive archive;
+    private final JdbcTemplate jdbc;
+    private final JdbcTemplate streamJdbc;
+    private final TransactionTemplate tx;
+    private final TransactionTemplate readOnlyTx;
+
+    @Value("${app.ledger.archive.enabled:false}") private boolean enabled;
+    @Value("${app.ledger.archive.shared-storage:false}") private boolean sharedStorage;
+    @Value("${app.ledger.archive.retention-months:13}") private int retentionMonths;
+    @Value("${app.ledger.archive.row-group-size:65536}") private int rowGroupSize;
+    @Value("${app.ledger.archive.compression-level:6}") private int compressionLevel;
+    @Value("${app.ledger.archive.delete-batch:5000}") private int deleteBatch;
+    @Value("${app.ledger.archive.purge-delay:PT5M}") private Duration purgeDelay; // 읽기 경로 메타 갱신 주기보다 길게
+
+    public LedgerArchiver(LedgerArchiveSegmentRepository segmentRepo, LedgerArchive archive, JdbcTemplate jdbc,
+                          DataSource dataSource, PlatformTransactionManager txManager,
+                          @Value("${app.ledger.stream.fetch-size:1000}") int fetchSize) {
+        this.segmentRepo = segmentRepo;
+        this.archive = archive;
+        this.jdbc = jdbc;
+        this.streamJdbc = new JdbcTemplate(dataSource);
+        this.streamJdbc.setFetchSize(fetchSize);
+        this.tx = new TransactionTemplate(txManager);
+        this.readOnlyTx = new TransactionTemplate(txManager);
+        this.readOnlyTx.setReadOnly(true);
+    }
+
+    // 노드 로컬 디스크에 원장 원본을 두고 핫 행을 지우면 다른 노드는 그 달을 못 읽고, 디스크를 잃으면 원장이 사라진다
+    @PostConstruct
+    void checkStorage() {
+        if (enabled) requireSharedStorage();
+    }
+
+    private void requireSharedStorage() {
+        if (!sharedStorage) {
+            throw new IllegalStateException("ledger archiving requires app.ledger.archive.dir (" + archive.dir().toAbsolutePath()
+                    + ") on shared durable storage; set app.ledger.archive.shared-storage=true once it is");
+        }
+    }
+
+    @Scheduled(cron = "${app.ledger.archive.cron:0 30 3 * * *}")
+    public void scheduled() {
+        if (enabled) run();
+    }
+
+    public synchronized void run() {
+        requireSharedStorage();
+        // 지난 실행에서 등록만 하고 못 지운 세그먼트
+        for (LedgerArchiveSegment s : segmentRepo.findByStatus("DELETING")) {
+            if (s.getCreatedAt().plus(purgeDelay).isBefore(Instant.now())) purge(s);
+        }
+
+        Instant cutoff = start(YearMonth.now(ZoneOffset.UTC).minusMonths(retentionMonths));
+        while (true) {
+            Timestamp oldest = jdbc.queryForObject("select min(created_at) from ledger_entry where created_at < ?",
+                    Timestamp.class, Timestamp.from(cutoff));
+            if (oldest == null) break;
+            YearMonth month = YearMonth.from(oldest.toInstant().atZone(ZoneOffset.UTC));
+            if (segmentRepo.existsByMonth(month.toString())) break; // 등록됐고 purge 대기 중
+            archiveMonth(month);
+        }
+        archive.refresh();
+    }
+
+    private void archiveMonth(YearMonth month) {
+        Instant from = start(month), to = start(month.plusMonths(1));
+        String fileName = "ledger-" + month + ".seg";
+        Path target = archive.dir().resolve(fileName);
+        Path tmp = archive.dir().resolve(fileName + ".tmp");
+        long started = System.nanoTime();
+        try {
+            Files.createDirectories(archive.dir());
+            LedgerSegmentFile.Writer writer = new LedgerSegmentFile.Writer(tmp, rowGroupSize, compressionLevel);
+            try (writer) {
+                readOnlyTx.executeWithoutResult(s -> streamJdbc.query(MONTH_SQL, rs -> {
+                    try {
+                        String currency = rs.getString(10);
+                        writer.add(LedgerEntry.builder().id(rs.getLong(1)).walletId(rs.getLong(2)).direction(rs.getString(3))
+                                .amount(Money.of(rs.getLong(4), currency)).balanceAfter(Money.of(rs.getLong(5), currency))
+                                .shardNo((Integer) rs.getObject(6))
+                                .refType(rs.getString(7)).refId(rs.getString(8)).createdAt(rs.getTimestamp(9).toInstant()).build());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, Timestamp.from(from), Timestamp.from(to)));
+            }
+            verify(tmp, writer, from, to);
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+            LedgerArchiveSegment seg = segmentRepo.save(LedgerArchiveSegment.builder()
+                    .month(month.toString()).fileName(fileName).rowCount(writer.rows())
+                    .minWalletId(writer.minWallet()).maxWalletId(writer.maxWallet())
+                    .minEntryId(writer.minId()).maxEntryId(writer.maxId())
+                    .fromTime(from).toTime(to).status("DELETING").createdAt(Instant.now()).build());
+            log.info("ledger archive month={} rows={} bytes={} took={}ms", month, writer.rows(), Files.size(target),
+                    (System.nanoTime() - started) / 1_000_000);
+            if (purgeDelay.isZero()) purge(seg);
+        } catch (IOException e) {
+            throw new UncheckedIOException("ledger archive failed: " + month, e);
+        }
+    }
+
+    // 파일이 DB 와 같은 행 집합을 담았는지: 건수 + id 합(2^64 mod), 파일 footer 행 수
+    private void verify(Path file, LedgerSegmentFile.Writer writer, Instant from, Instant to) throws IOException {
+        Map<String, Object> db = jdbc.queryForMap("select count(*) as n, coalesce(sum(id), 0) as s from ledger_entry " +
+                "where created_at >= ? and created_at < ?", Timestamp.from(from), Timestamp.from(to));
+        long n = ((Number) db.get("n")).longValue();
+        long sum = new BigDecimal(db.get("s").toString()).toBigInteger().longValue();
+        long fileRows;
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            fileRows = LedgerSegmentFile.readFooter(ch).stream().mapToLong(LedgerSegmentFile.RowGroup::rows).sum();
+        }
+        if (n != writer.rows() || sum != writer.idChecksum() || fileRows != n) {
+            Files.deleteIfExists(file);
+            throw new IllegalStateException("ARCHIVE_VERIFY_FAILED db=" + n + " written=" + writer.rows() + " file=" + fileRows);
+        }
+    }
+
+    // 세그먼트 월 구간 핫 행을 배치로 삭제 (한 트랜잭션을 짧게 유지해 잠금/WAL 폭주 방지)
+    private void purge(LedgerArchiveSegment seg) {
+        Timestamp from = Timestamp.from(seg.getFromTime()), to = Timestamp.from(seg.getToTime());
+        long total = 0;
+        int n;
+        do {
+            n = tx.execute(s -> jdbc.update("delete from ledger_entry where id in " +
+                    "(select id from ledger_entry where created_at >= ? and created_at < ? limit ?)", from, to, deleteBatch));
+            total += n;
+        } while (n > 0);
+        seg.setStatus("ARCHIVED");
+        segmentRepo.save(seg);
+        log.info("ledger archive month={} purged {} hot rows", seg.getMonth(), total);
+    }
+
+    private static Instant start(YearMonth m) {
+        return m.atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+    }
+}
@@ -0,0 +1,348 @@
+package JYBank.JYBank.service.ledger.archive;
+
+import JYBank.JYBank.domain.ledger.LedgerEntry;
+import JYBank.JYBank.domain.money.Money;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.*;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 원장 아카이브 세그먼트 파일 포맷 (열 지향, 행 그룹 단위 압축).
+ * <pre>
+ * header : magic(4) version(1)
+ * group* : column chunk × 10 (각 chunk = rawLen varint, compLen varint, deflate bytes)
+ * footer : groupCount varint, group × (offset, length, rows, min/max wallet, min/max id, min/max createdAt micros)
+ * trailer: footerLen(4) footerCrc(4) magic(4)
+ * </pre>
+ * 행은 (wallet_id, id) 순으로 정렬되어 들어오므로 그룹별 지갑 범위가 좁아, 지갑 단위 조회는 footer 만 보고 대부분의 그룹을 건너뛴다.
+ * 열마다 델타 + zigzag varint 로 인코딩한 뒤 압축한다. 금액 열은 최소 화폐 단위 long, 통화는 ref_type 처럼 그룹 사전 번호.
+ */
+final class LedgerSegmentFile {
+    static final int MAGIC = 0x4A594C41; // "JYLA"
+    static final byte VERSION = 1;
+    private static final int HEADER_LEN = 5;
+    private static final int TRAILER_LEN = 12;
+    private static final int COLUMNS = 10;
+
+    private LedgerSegmentFile() {}
+
+    record RowGroup(long offset, int length, int rows, long minWallet, long maxWallet,
+                    long minId, long maxId, long minMicros, long maxMicros) {
+        boolean coversWallet(long w) { return minWallet <= w && w <= maxWallet; }
+        boolean overlapsWallets(long from, long to) { return maxWallet >= from && minWallet < to; } // [from, to)
+        boolean overlapsTime(long fromMicros, long toMicros) { return maxMicros >= fromMicros && minMicros < toMicros; }
+    }
+
+    // ===== 쓰기 =====
+    static final class Writer implements Closeable {
+        private final FileChannel ch;
+        private final int groupSize;
+        private final Deflater deflater;
+        private final List<RowGroup> groups = new ArrayList<>();
+        private final List<LedgerEntry> pending;
+        private long position;
+        private long rows;
+        private long minWallet = Long.MAX_VALUE, maxWallet = Long.MIN_VALUE;
+        private long minId = Long.MAX_VALUE, maxId = Long.MIN_VALUE;
+        private long idChecksum;
+
+        Writer(Path path, int groupSize, int level) throws IOException {
+            this.ch = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            this.groupSize = groupSize;
+            this.deflater = new Deflater(level);
+            this.pending = new ArrayList<>(groupSize);
+            writeFully(ByteBuffer.allocate(HEADER_LEN).putInt(MAGIC).put(VERSION).flip());
+        }
+
+        void add(LedgerEntry e) throws IOException {
+            pending.add(e);
+            rows++;
+            idChecksum += e.getId();
+            minWallet = Math.min(minWallet, e.getWalletId()); maxWallet = Math.max(maxWallet, e.getWalletId());
+            minId = Math.min(minId, e.getId()); maxId = Math.max(maxId, e.getId());
+            if (pending.size() >= groupSize) flushGroup();
+        }
+
+        long rows() { return rows; }
+        long minWallet() { return minWallet; }
+        long maxWallet() { return maxWallet; }
+        long minId() { return minId; }
+        long maxId() { return maxId; }
+        long idChecksum() { return idChecksum; }
+
+        private void flushGroup() throws IOException {
+            if (pending.isEmpty()) return;
+            Buf[] cols = new Buf[COLUMNS];
+            for (int i = 0; i < COLUMNS; i++) cols[i] = new Buf(pending.size() * 4);
+            Map<String, Integer> dict = new LinkedHashMap<>();
+            Map<String, Integer> currencies = new LinkedHashMap<>();
+            long prevId = 0, prevWallet = 0, prevMicros = 0;
+            long gMinW = Long.MAX_VALUE, gMaxW = Long.MIN_VALUE, gMinId = Long.MAX_VALUE, gMaxId = Long.MIN_VALUE;
+            long gMinT = Long.MAX_VALUE, gMaxT = Long.MIN_VALUE;
+            for (LedgerEntry e : pending) {
+                long micros = toMicros(e.getCreatedAt());
+                cols[0].zigzag(e.getId() - prevId); prevId = e.getId();
+                cols[1].zigzag(e.getWalletId() - prevWallet); prevWallet = e.getWalletId();
+                cols[2].put("credit".equals(e.getDirection()) ? 1 : "debit".equals(e.getDirection()) ? 0 : 2);
+                cols[3].money(e.getAmount());
+                cols[4].money(e.getBalanceAfter());
+                cols[5].zigzag(e.getShardNo() == null ? -1 : e.getShardNo());
+                cols[6].varint(e.getRefType() == null ? 0 : dict.computeIfAbsent(e.getRefType(), k -> dict.size() + 1));
+                cols[7].string(e.getRefId());
+                cols[8].zigzag(micros - prevMicros); prevMicros = micros;
+                cols[9].varint(currencies.computeIfAbsent(currency(e), k -> currencies.size()));
+                gMinW = Math.min(gMinW, e.getWalletId()); gMaxW = Math.max(gMaxW, e.getWalletId());
+                gMinId = Math.min(gMinId, e.getId()); gMaxId = Math.max(gMaxId, e.getId());
+                gMinT = Math.min(gMinT, micros); gMaxT = Math.max(gMaxT, micros);
+            }
+            // ref_type / 통화 사전은 해당 열 앞에 붙인다
+            cols[6] = withDict(dict, cols[6]);
+            cols[9] = withDict(currencies, cols[9]);
+
+            Buf group = new Buf(pending.size() * 8);
+            for (Buf col : cols) compress(col, group);
+            long offset = position;
+            writeFully(ByteBuffer.wrap(group.bytes, 0, group.len));
+            groups.add(new RowGroup(offset, group.len, pending.size(), gMinW, gMaxW, gMinId, gMaxId, gMinT, gMaxT));
+            pending.clear();
+        }
+
+        private static String currency(LedgerEntry e) {
+            return e.getAmount() != null ? e.getAmount().currency()
+                    : e.getBalanceAfter() != null ? e.getBalanceAfter().currency() : Money.DEFAULT_CURRENCY;
+        }
+
+        private static Buf withDict(Map<String, Integer> dict, Buf col) {
+            Buf out = new Buf(col.len + 64);
+            out.varint(dict.size());
+            dict.keySet().forEach(out::string);
+            out.append(col);
+            return out;
+        }
+
+        private void compress(Buf raw, Buf out) {
+            deflater.reset();
+            deflater.setInput(raw.bytes, 0, raw.len);
+            deflater.finish();
+            byte[] tmp = new byte[Math.max(64, raw.len + raw.len / 16 + 64)];
+            int n = 0;
+            while (!deflater.finished()) {
+                if (n == tmp.length) tmp = Arrays.copyOf(tmp, tmp.length * 2);
+                n += deflater.deflate(tmp, n, tmp.length - n);
+            }
+            out.varint(raw.len);
+            out.varint(n);
+            out.put(tmp, 0, n);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flushGroup();
+                Buf footer = new Buf(groups.size() * 48 + 8);
+                footer.varint(groups.size());
+                for (RowGroup g : groups) {
+                    footer.varint(g.offset()); footer.varint(g.length()); footer.varint(g.rows());
+                    footer.zigzag(g.minWallet()); footer.zigzag(g.maxWallet());
+                    footer.zigzag(g.minId()); footer.zigzag(g.maxId());
+                    footer.zigzag(g.minMicros()); footer.zigzag(g.maxMicros());
+                }
+                CRC32 crc = new CRC32();
+                crc.update(footer.bytes, 0, footer.len);
+                writeFully(ByteBuffer.wrap(footer.bytes, 0, footer.len));
+                writeFully(ByteBuffer.allocate(TRAILER_LEN).putInt(footer.len).putInt((int) crc.getValue()).putInt(MAGIC).flip());
+                ch.force(true);
+            } finally {
+                deflater.end();
+                ch.close();
+            }
+        }
+
+        private void writeFully(ByteBuffer b) throws IOException {
+            while (b.hasRemaining()) position += ch.write(b);
+        }
+    }
+
+    // ===== 읽기 =====
+    static List<RowGroup> readFooter(FileChannel ch) throws IOException {
+        long size = ch.size();
+        if (size < HEADER_LEN + TRAILER_LEN) throw new IOException("segment too short");
+        ByteBuffer header = readAt(ch, 0, HEADER_LEN);
+        if (header.getInt() != MAGIC || header.get() != VERSION) throw new IOException("bad segment header");
+        ByteBuffer trailer = readAt(ch, size - TRAILER_LEN, TRAILER_LEN);
+        int footerLen = trailer.getInt();
+        int footerCrc = trailer.getInt();
+        if (trailer.getInt() != MAGIC) throw new IOException("bad segment trailer");
+        ByteBuffer fb = readAt(ch, size - TRAILER_LEN - footerLen, footerLen);
+        CRC32 crc = new CRC32();
+        crc.update(fb.duplicate());
+        if ((int) crc.getValue() != footerCrc) throw new IOException("segment footer crc mismatch");
+
+        In in = new In(fb.array(), 0, footerLen);
+        int n = (int) in.varint();
+        List<RowGroup> groups = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            groups.add(new RowGroup(in.varint(), (int) in.varint(), (int) in.varint(),
+                    in.zigzag(), in.zigzag(), in.zigzag(), in.zigzag(), in.zigzag(), in.zigzag()));
+        }
+        return List.copyOf(groups);
+    }
+
+    // 행 그룹 하나를 (wallet_id, id) 순서 그대로 복원
+    static List<LedgerEntry> readGroup(FileChannel ch, RowGroup g) throws IOException {
+        ByteBuffer bb = readAt(ch, g.offset(), g.length());
+        In group = new In(bb.array(), 0, g.length());
+        In[] cols = new In[COLUMNS];
+        Inflater inflater = new Inflater();
+        try {
+            for (int i = 0; i < COLUMNS; i++) cols[i] = inflate(group, inflater);
+        } catch (DataFormatException e) {
+            throw new IOException("corrupt segment group at " + g.offset(), e);
+        } finally {
+            inflater.end();
+        }
+        int dictSize = (int) cols[6].varint();
+        String[] dict = new String[dictSize + 1];
+        for (int i = 1; i <= dictSize; i++) dict[i] = cols[6].string();
+        String[] currencies = new String[(int) cols[9].varint()];
+        for (int i = 0; i < currencies.length; i++) currencies[i] = cols[9].string();
+
+        List<LedgerEntry> out = new ArrayList<>(g.rows());
+        long id = 0, wallet = 0, micros = 0;
+        for (int r = 0; r < g.rows(); r++) {
+            id += cols[0].zigzag();
+            wallet += cols[1].zigzag();
+            int dir = cols[2].get();
+            String currency = currencies[(int) cols[9].varint()];
+            Money amount = cols[3].money(currency);
+            Money balanceAfter = cols[4].money(currency);
+            long shard = cols[5].zigzag();
+            String refType = dict[(int) cols[6].varint()];
+            String refId = cols[7].string();
+            micros += cols[8].zigzag();
+            out.add(LedgerEntry.builder().id(id).walletId(wallet)
+                    .direction(dir == 1 ? "credit" : dir == 0 ? "debit" : null)
+                    .amount(amount).balanceAfter(balanceAfter)
+                    .shardNo(shard < 0 ? null : (int) shard)
+                    .refType(refType).refId(refId)
+                    .createdAt(fromMicros(micros)).build());
+        }
+        return out;
+    }
+
+    private static In inflate(In group, Inflater inflater) throws DataFormatException {
+        int rawLen = (int) group.varint();
+        int compLen = (int) group.varint();
+        byte[] raw = new byte[rawLen];
+        inflater.reset();
+        inflater.setInput(group.bytes, group.pos, compLen);
+        int n = 0;
+        while (n < rawLen && !inflater.finished()) {
+            int k = inflater.inflate(raw, n, rawLen - n);
+            if (k == 0 && (inflater.needsInput() || inflater.needsDictionary())) throw new DataFormatException("truncated column");
+            n += k;
+        }
+        group.pos += compLen;
+        return new In(raw, 0, rawLen);
+    }
+
+    private static ByteBuffer readAt(FileChannel ch, long pos, int len) throws IOException {
+        ByteBuffer b = ByteBuffer.allocate(len);
+        while (b.hasRemaining()) {
+            if (ch.read(b, pos + b.position()) < 0) throw new IOException("unexpected end of segment");
+        }
+        return b.flip();
+    }
+
+    static long toMicros(Instant t) {
+        return Math.addExact(Math.multiplyExact(t.getEpochSecond(), 1_000_000L), t.getNano() / 1_000);
+    }
+
+    static Instant fromMicros(long micros) {
+        return Instant.ofEpochSecond(Math.floorDiv(micros, 1_000_000L), Math.floorMod(micros, 1_000_000L) * 1_000L);
+    }
+
+    // 가변 길이 바이트 버퍼 (varint / zigzag / 문자열 / 금액 인코딩)
+    private static final class Buf {
+        byte[] bytes;
+        int len;
+
+        Buf(int cap) { bytes = new byte[Math.max(cap, 16)]; }
+
+        void put(int b) { ensure(1); bytes[len++] = (byte) b; }
+
+        void put(byte[] src, int off, int n) { ensure(n); System.arraycopy(src, off, bytes, len, n); len += n; }
+
+        void append(Buf other) { put(other.bytes, 0, other.len); }
+
+        void varint(long v) {
+            ensure(10);
+            while ((v & ~0x7FL) != 0) { bytes[len++] = (byte) ((v & 0x7F) | 0x80); v >>>= 7; }
+            bytes[len++] = (byte) v;
+        }
+
+        void zigzag(long v) { varint((v << 1) ^ (v >> 63)); }
+
+        void string(String s) {
+            if (s == null) { zigzag(-1); return; }
+            byte[] b = s.getBytes(StandardCharsets.UTF_8);
+            zigzag(b.length);
+            put(b, 0, b.length);
+        }
+
+        // 존재 여부 1바이트 + 최소 단위 zigzag
+        void money(Money m) {
+            if (m == null) { put(0); return; }
+            put(1);
+            zigzag(m.minor());
+        }
+
+        private void ensure(int n) {
+            if (len + n > bytes.length) bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, len + n));
+        }
+    }
+
+    private static final class In {
+        final byte[] bytes;
+        int pos;
+        final int end;
+
+        In(byte[] bytes, int pos, int len) { this.bytes = bytes; this.pos = pos; this.end = pos + len; }
+
+        int get() { return bytes[pos++] & 0xFF; }
+
+        long varint() {
+            long v = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = bytes[pos++];
+                v |= (long) (b & 0x7F) << shift;
+                if (b >= 0) return v;
+            }
+        }
+
+        long zigzag() { long v = varint(); return (v >>> 1) ^ -(v & 1); }
+
+        String string() {
+            int n = (int) zigzag();
+            if (n < 0) return null;
+            String s = new String(bytes, pos, n, StandardCharsets.UTF_8);
+            pos += n;
+            return s;
+        }
+
+        Money money(String currency) {
+            return get() == 0 ? null : Money.of(zigzag(), currency);
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package JYBank.JYBank.service.recon;
+
+import JYBank.JYBank.domain.recon.ReconMismatch;
+import JYBank.JYBank.domain.recon.ReconRange;
+import JYBank.JYBank.domain.recon.ReconRun;
+import JYBank.JYBank.repository.ReconMismatchRepository;
+import JYBank.JYBank.repository.ReconRangeRepository;
+import JYBank.JYBank.repository.ReconRunRepository;
+import JYBank.JYBank.service.ledger.archive.LedgerArchive;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 원장 대사 엔진.
+ * - WALLET 구간: 지갑별 원장 순변동 == 잔액(샤딩 지갑은 서브잔액 포함), (wallet, shard) 별 balanceAfter 체인 연속성.
+ *   체인은 id 순으로 걷는다: 원장 id 는 지갑(샤드) 잠금 중에 받으므로(LedgerEntryWriter) 지갑 안에서는 기록 순서와 같다
+ * - TRANSFER 구간: 이체마다 출금 레그 합 == 입금 레그 합 == transfer.amount
+ * id 공간을 구간으로 나눠 fork-join 풀에서 병렬 처리하고, 구간마다 REPEATABLE READ 스냅샷 안에서
+ * keyset 청크로 스트리밍하므로 메모리는 (구간 지갑 수 + 청크 크기)로 제한된다.
+ * 구간 결과는 DONE 표시와 함께 커밋되어, 중단되면 다음 실행이 남은 구간부터 이어간다.
+ * 아카이브된 원장은 세그먼트 파일에서 읽어 지갑별 시작 상태로 쓰고, 핫 테이블은 horizon 이후만 본다.
+ */
+@Service
+@Slf4j
+public class ReconciliationService {
+
+    private final JdbcTemplate jdbc;
+    private final ReconRunRepository runRepo;
+    private final ReconRangeRepository rangeRepo;
+    private final ReconMismatchRepository mismatchRepo;
+    private final LedgerArchive archive;
+    private final TransactionTemplate tx;
+    private final TransactionTemplate snapshotTx;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Value("${app.recon.enabled:false}") private boolean enabled;
+    @Value("${app.recon.wallet-range-size:10000}") private long walletRangeSize;
+    @Value("${app.recon.transfer-range-size:100000}") private long transferRangeSize;
+    @Value("${app.recon.chunk-size:5000}") private int chunkSize;
+    @Value("${app.recon.parallelism:0}") private int parallelism; // 0이면 코어 수
+    @Value("${app.recon.max-report-per-range:1000}") private int maxReportPerRange;
+    @Value("${app.recon.stale-claim:PT30M}") private Duration staleClaim;
+
+    public ReconciliationService(JdbcTemplate jdbc, ReconRunRepository runRepo, ReconRangeRepository rangeRepo,
+                                 ReconMismatchRepository mismatchRepo, LedgerArchive archive,
+                                 PlatformTransactionManager txManager) {
+        this.jdbc = jdbc;
+        this.runRepo = runRepo;
+        this.rangeRepo = rangeRepo;
+        this.mismatchRepo = mismatchRepo;
+        this.archive = archive;
+        this.tx = new TransactionTemplate(txManager);
+        this.snapshotTx = new TransactionTemplate(txManager);
+        this.snapshotTx.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.snapshotTx.setReadOnly(true);
+    }
+
+    @Scheduled(cron = "${app.recon.cron:0 0 2 * * *}")
+    public void nightly() {
+        if (enabled) run();
+    }
+
+    // 진행 중인 실행이 있으면 이어서, 없으면 새로 시작
+    public ReconRun run() {
+        if (!running.compareAndSet(false, true)) throw new IllegalStateException("대사 작업이 이미 실행 중");
+        try {
+            ReconRun run = runRepo.findFirstByStatusOrderByIdDesc("RUNNING").orElseGet(this::newRun);
+            List<ReconRange> todo = rangeRepo.findByRunIdAndStatusNot(run.getId(), "DONE");
+            log.info("recon run={} ranges to process={}", run.getId(), todo.size());
+
+            ForkJoinPool pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+            try {
+                List<Callable<Void>> tasks = new ArrayList<>(todo.size());
+                for (ReconRange r : todo) tasks.add(() -> { process(r); return null; });
+                pool.invokeAll(tasks);
+            } finally {
+                pool.shutdown();
+            }
+
+            if (rangeRepo.findByRunIdAndStatusNot(run.getId(), "DONE").isEmpty()) {
+                run.setStatus("COMPLETED");
+                run.setMismatchCount(rangeRepo.sumMismatches(run.getId()));
+                run.setFinishedAt(Instant.now());
+                runRepo.save(run);
+                log.info("recon run={} completed, mismatches={}", run.getId(), run.getMismatchCount());
+            }
+            return run;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private ReconRun newRun() {
+        return tx.execute(s -> {
+            ReconRun run = runRepo.save(ReconRun.builder().status("RUNNING").startedAt(Instant.now()).build());
+            List<ReconRange> ranges = new ArrayList<>();
+            addRanges(ranges, run.getId(), "WALLET", "select min(wallet_id), max(wallet_id) from wallet", walletRangeSize);
+            addRanges(ranges, run.getId(), "TRANSFER", "select min(id), max(id) from transfer", transferRangeSize);
+            rangeRepo.saveAll(ranges);
+            return run;
+        });
+    }
+
+    private void addRanges(List<ReconRange> out, Long runId, String kind, String minMaxSql, long size) {
+        long[] mm = jdbc.queryForObject(minMaxSql, (rs, i) -> new long[]{rs.getLong(1), rs.getLong(2), rs.wasNull() ? 1 : 0});
+        if (mm == null || mm[2] == 1) return; // 빈 테이블
+        for (long lo = mm[0]; lo <= mm[1]; lo += size) {
+            out.add(ReconRange.builder().runId(runId).kind(kind).fromId(lo).toId(lo + size).status("PENDING").build());
+        }
+    }
+
+    private void process(ReconRange range) {
+        Instant now = Instant.now();
+        Integer claimed = tx.execute(s -> rangeRepo.claim(range.getId(), now, now.minus(staleClaim)));
+        if (claimed == null || claimed == 0) return; // 다른 워커가 처리 중
+
+        Report report = new Report(range.getRunId(), maxReportPerRange);
+        try {
+            snapshotTx.executeWithoutResult(s -> {
+                if ("WALLET".equals(range.getKind())) verifyWallets(range, report);
+                else verifyTransfers(range, report);
+            });
+        } catch (RuntimeException e) {
+            log.error("recon range id={} [{}, {}) failed, will be retried", range.getId(), range.getFromId(), range.getToId(), e);
+            return; // CLAIMED 로 남음 → stale-claim 이후 재처리
+        }
+        tx.executeWithoutResult(s -> {
+            mismatchRepo.saveAll(report.items);
+            range.setStatus("DONE");
+            range.setClaimedAt(now);
+            range.setChecked(report.checked);
+            range.setMismatches(report.count);
+            range.setFinishedAt(Instant.now());
+            rangeRepo.save(range);
+        });
+    }
+
+    // ===== 지갑 구간 =====
+    private void verifyWallets(ReconRange range, Report report) {
+        Map<Long, Long> balances = new HashMap<>();
+        jdbc.query("select w.wallet_id, w.balance + coalesce((select sum(s.balance) from wallet_shard s where s.wallet_id = w.wallet_id), 0) " +
+                        "from wallet w where w.wallet_id >= ? and w.wallet_id < ?",
+                rs -> { balances.put(rs.getLong(1), rs.getLong(2)); }, range.getFromId(), range.getToId());
+
+        // 아카이브된 과거 원장으로 지갑별 시작 상태(순변동, 체인 끝)를 먼저 만든다
+        Map<Long, WalletState> opening = new HashMap<>();
+        archive.scan(range.getFromId(), range.getToId(), e -> opening.computeIfAbsent(e.getWalletId(), k -> new WalletState())
+                .apply(report, e.getWalletId(), e.getId(), e.getDirection(), e.getAmount().minor(), e.getBalanceAfter().minor(), e.getShardNo()));
+        Instant horizon = archive.horizon();
+        Timestamp hotFrom = Timestamp.from(horizon == null ? Instant.EPOCH : horizon); // 삭제 중 세그먼트 행 중복 제외
+
+        WalletCursor cur = new WalletCursor(report, balances, opening);
+        long lastWallet = range.getFromId() - 1;
+        long lastId = Long.MAX_VALUE;
+        while (true) {
+            List<Object[]> rows = jdbc.query(
+                    "select wallet_id, id, direction, amount, balance_after, shard_no from ledger_entry " +
+                            "where (wallet_id, id) > (?, ?) and wallet_id < ? and created_at >= ? order by wallet_id, id limit ?",
+                    (rs, i) -> new Object[]{rs.getLong(1), rs.getLong(2), rs.getString(3), rs.getLong(4),
+                            rs.getLong(5), rs.getObject(6)},
+                    lastWallet, lastId, range.getToId(), hotFrom, chunkSize);
+            for (Object[] r : rows) cur.accept((Long) r[0], (Long) r[1], (String) r[2], (Long) r[3], (Long) r[4], (Integer) r[5]);
+            if (rows.size() < chunkSize) break;
+            Object[] last = rows.get(rows.size() - 1);
+            lastWallet = (Long) last[0];
+            lastId = (Long) last[1];
+        }
+        cur.finish();
+        // 핫 원장 없이 아카이브에만 원장이 있는 지갑
+        opening.forEach((w, st) -> cur.close(w, st));
+        // 원장이 하나도 없는 지갑: 잔액이 0이어야 함
+        balances.forEach((w, bal) -> {
+            report.checked++;
+            if (bal != 0) report.add("BALANCE", w, null, "ledger=0 wallet=" + bal);
+        });
+    }
+
+    // 지갑 하나의 누적 상태
+    private static final class WalletState {
+        private final Map<Integer, Long> chains = new HashMap<>(); // shardNo(-1 = 본 잔액) → 직전 balanceAfter (최소 단위)
+        private long sum;
+
+        void apply(Report report, Long walletId, Long entryId, String direction, long amount, long balanceAfter, Integer shardNo) {
+            long signed = "credit".equals(direction) ? amount : -amount;
+            sum += signed;
+            int key = shardNo == null ? -1 : shardNo;
+            long expected = chains.getOrDefault(key, 0L) + signed;
+            if (expected != balanceAfter) {
+                report.add("CHAIN_GAP", walletId, String.valueOf(entryId),
+                        "shard=" + shardNo + " expected=" + expected + " balanceAfter=" + balanceAfter);
+            }
+            chains.put(key, balanceAfter); // 실제 값으로 재동기화 → 불일치 1건이 뒤로 연쇄되지 않음
+        }
+    }
+
+    private static final class WalletCursor {
+        private final Report report;
+        private final Map<Long, Long> balances;
+        private final Map<Long, WalletState> opening;
+        private Long wallet;
+        private WalletState state;
+
+        WalletCursor(Report report, Map<Long, Long> balances, Map<Long, WalletState> opening) {
+            this.report = report;
+            this.balances = balances;
+            this.opening = opening;
+        }
+
+        void accept(Long walletId, Long entryId, String direction, long amount, long balanceAfter, Integer shardNo) {
+            if (!walletId.equals(wallet)) {
+                finish();
+                wallet = walletId;
+                WalletState prev = opening.remove(walletId);
+                state = prev != null ? prev : new WalletState();
+            }
+            state.apply(report, walletId, entryId, direction, amount, balanceAfter, shardNo);
+        }
+
+        void finish() {
+            if (wallet == null) return;
+            close(wallet, state);
+            wallet = null;
+        }
+
+        void close(Long walletId, WalletState st) {
+            report.checked++;
+            Long bal = balances.remove(walletId);
+            if (bal == null) report.add("BALANCE", walletId, null, "ledger entries for missing wallet, net=" + st.sum);
+            else if (bal != st.sum) report.add("BALANCE", walletId, null, "ledger=" + st.sum + " wallet=" + bal);
+        }
+    }
+
+    // ===== 이체 구간 =====
+    private void verifyTransfers(ReconRange range, Report report) {
+        // 레그가 아카이브로 옮겨진 이체는 지갑 구간(아카이브 포함)에서만 검증
+        Instant horizon = archive.horizon();
+        Timestamp since = Timestamp.from(horizon == null ? Instant.EPOCH : horizon);
+        Long n = jdbc.queryForObject("select count(*) from transfer where id >= ? and id < ? and created_at >= ?", Long.class,
+                range.getFromId(), range.getToId(), since);
+        report.checked = n == null ? 0 : n;
+        jdbc.query("select t.id, t.amount, " +
+                        "coalesce(sum(case when e.direction = 'debit' then e.amount end), 0), " +
+                        "coalesce(sum(case when e.direction = 'credit' then e.amount end), 0), " +
+                        "count(case when e.direction = 'debit' then 1 end), count(case when e.direction = 'credit' then 1 end) " +
+                        "from transfer t left join ledger_entry e on e.ref_type = 'TRANSFER' and e.ref_id = cast(t.id as varchar) " +
+                        "where t.id >= ? and t.id < ? and t.created_at >= ? group by t.id, t.amount " +
+                        "having count(case when e.direction = 'debit' then 1 end) = 0 " +
+                        "or count(case when e.direction = 'credit' then 1 end) = 0 " +
+                        "or coalesce(sum(case when e.direction = 'debit' then e.amount end), 0) <> t.amount " +
+                        "or coalesce(sum(case when e.direction = 'credit' then e.amount end), 0) <> t.amount",
+                rs -> {
+                    report.add("TRANSFER_UNBALANCED", null, String.valueOf(rs.getLong(1)),
+                            "amount=" + rs.getLong(2) + " debit=" + rs.getLong(3) + "(" + rs.getLong(5) + ")"
+                                    + " credit=" + rs.getLong(4) + "(" + rs.getLong(6) + ")");
+                }, range.getFromId(), range.getToId(), since);
+    }
+
+    // 구간별 결과: 건수는 모두 세고, 상세는 상한까지만 보관
+    private static final class Report {
+        private final Long runId;
+        private final int maxItems;
+        private final List<ReconMismatch> items = new ArrayList<>();
+        private long checked;
+        private long count;
+
+        Report(Long runId, int maxItems) {
+            this.runId = runId;
+            this.maxItems = maxItems;
+        }
+
+        void add(String kind, Long walletId, String refId, String detail) {
+            count++;
+            if (items.size() < maxItems) {
+                items.add(ReconMismatch.builder().runId(runId).kind(kind).walletId(walletId).refId(refId)
+                        .detail(detail).createdAt(Instant.now()).build());
+            }
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package JYBank.JYBank.service.transfer;
+
+import JYBank.JYBank.domain.ledger.LedgerEntry;
+import JYBank.JYBank.domain.money.Money;
+import JYBank.JYBank.domain.transfer.Transfer;
+import JYBank.JYBank.domain.wallet.Wallet;
+import JYBank.JYBank.repository.WalletRepository;
+import JYBank.JYBank.service.wallet.WalletShardService;
+import JYBank.JYBank.service.wallet.WalletShardService.ShardCredit;
+import JYBank.JYBank.service.wallet.WalletShardService.ShardPosting;
+import JYBank.JYBank.service.wallet.WalletShardService.ShardPostings;
+import JYBank.JYBank.support.audit.PendingAudit;
+import jakarta.transaction.Transactional;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+
+/**
+ * 단일 문장 동시성: 지갑마다 조건부 UPDATE ... RETURNING 한 번으로 검증 + 반영 + balanceAfter 를 얻는다.
+ * 읽기-수정-쓰기 왕복이 없어 행 잠금은 UPDATE 실행부터 커밋까지만 잡힌다.
+ * 지갑은 id 오름차순으로 갱신 → 비관적 모드와 같은 잠금 순서라 데드락이 생기지 않음.
+ * 샤딩 지갑은 shard_count = 0 조건에 걸리지 않으므로, 일반 지갑 행을 모두 갱신한 뒤 서브잔액 경로로 한 번에 넘긴다
+ * (잠금 순서: 지갑 행 → 샤드 행, 다른 전략/그룹 커밋과 같음).
+ */
+@Component
+@ConditionalOnProperty(name = "app.transfer.concurrency", havingValue = "conditional")
+public class ConditionalUpdateWalletConcurrency implements WalletConcurrency {
+    private static final String DEBIT_SQL = "update wallet set balance = balance - ?, version = version + 1, updated_at = now() " +
+            "where wallet_id = ? and shard_count = 0 and balance >= ? returning balance, currency";
+    private static final String CREDIT_SQL = "update wallet set balance = balance + ?, version = version + 1, updated_at = now() " +
+            "where wallet_id = ? and shard_count = 0 returning balance, currency";
+
+    // 일반 지갑: RETURNING 결과, 샤딩 지갑: sharded 에 지갑 (샤드 반영은 일반 지갑 행을 다 갱신한 뒤)
+    private record Applied(String currency, Money balanceAfter, Wallet sharded) {}
+
+    private final TransferPosting posting;
+    private final JdbcTemplate jdbc;
+    private final WalletRepository walletRepo;
+    private final WalletShardService shards;
+
+    public ConditionalUpdateWalletConcurrency(TransferPosting posting, JdbcTemplate jdbc, WalletRepository walletRepo,
+                                              WalletShardService shards) {
+        this.posting = posting; this.jdbc = jdbc; this.walletRepo = walletRepo; this.shards = shards; }
+
+    @Override
+    @Transactional
+    public Transfer post(Long sourceWalletId, List<TransferLeg> legs, String idemKey, PendingAudit audit) {
+        Money total = posting.validate(sourceWalletId, legs);
+        // 지갑별 입금 합계 (같은 지갑으로 가는 레그는 한 번의 UPDATE 로)
+        Map<Long, Money> credits = new TreeMap<>();
+        for (TransferLeg leg : legs) credits.merge(leg.destWalletId(), leg.amount(), Money::plus);
+
+        Map<Long, Applied> applied = new HashMap<>();
+        for (Long id : TransferPosting.walletIds(sourceWalletId, legs)) {
+            applied.put(id, id.equals(sourceWalletId) ? debit(id, total) : credit(id, credits.get(id)));
+        }
+
+        Applied src = applied.get(sourceWalletId);
+        List<ShardCredit> shardCredits = new ArrayList<>();
+        for (int i = 0; i < legs.size(); i++) {
+            Applied dst = applied.get(legs.get(i).destWalletId());
+            if (dst.sharded() != null) shardCredits.add(new ShardCredit(i, dst.sharded(), legs.get(i).amount()));
+        }
+        ShardPostings sharded = src.sharded() == null && shardCredits.isEmpty() ? null
+                : shards.post(src.sharded(), total, shardCredits);
+
+        Transfer t = posting.saveTransfer(sourceWalletId, legs, total, idemKey);
+        posting.publishAudit(t, audit);
+        String refId = String.valueOf(t.getId());
+        List<LedgerEntry> entries = new ArrayList<>(legs.size() + 1);
+        if (src.sharded() == null) {
+            entries.add(TransferPosting.entry(sourceWalletId, "debit", total, src.balanceAfter(), null, refId));
+        } else {
+            for (ShardPosting sp : sharded.debits()) {
+                entries.add(TransferPosting.entry(sourceWalletId, "debit", sp.amount(), sp.balanceAfter(), sp.shardNo(), refId));
+            }
+        }
+        // RETURNING 은 지갑별 최종 잔액 → 레그 순서대로 balanceAfter 를 되짚어 채움
+        Map<Long, Money> running = new HashMap<>();
+        for (Map.Entry<Long, Money> c : credits.entrySet()) {
+            Applied a = applied.get(c.getKey());
+            if (a.sharded() == null) running.put(c.getKey(), a.balanceAfter().minus(c.getValue()));
+        }
+        for (int i = 0; i < legs.size(); i++) {
+            TransferLeg leg = legs.get(i);
+            Applied dst = applied.get(leg.destWalletId());
+            posting.publishCredit(t, leg.destWalletId(), dst.currency(), leg.amount(), i);
+            if (dst.sharded() == null) {
+                Money after = running.merge(leg.destWalletId(), leg.amount(), Money::plus);
+                entries.add(TransferPosting.entry(leg.destWalletId(), "credit", leg.amount(), after, null, refId));
+            } else {
+                ShardPosting sp = sharded.credits().get(i); // 레그마다 임의 샤드 1행
+                entries.add(TransferPosting.entry(leg.destWalletId(), "credit", leg.amount(), sp.balanceAfter(), sp.shardNo(), refId));
+            }
+        }
+        posting.saveEntries(entries);
+        return t;
+    }
+
+    private Applied debit(Long walletId, Money amount) {
+        List<Applied> r = jdbc.query(DEBIT_SQL, ConditionalUpdateWalletConcurrency::applied, amount.minor(), walletId, amount.minor());
+        if (!r.isEmpty()) return sameCurrency(r.get(0), amount);
+        Wallet w = walletRepo.findById(walletId).orElseThrow(() -> new IllegalArgumentException("WALLET_NOT_FOUND"));
+        if (!w.isSharded()) throw new IllegalArgumentException("INSUFFICIENT_BALANCE");
+        return sameCurrency(new Applied(w.getCurrency(), null, w), amount);
+    }
+
+    private Applied credit(Long walletId, Money amount) {
+        List<Applied> r = jdbc.query(CREDIT_SQL, ConditionalUpdateWalletConcurrency::applied, amount.minor(), walletId);
+        if (!r.isEmpty()) return sameCurrency(r.get(0), amount);
+        Wallet w = walletRepo.findById(walletId).orElseThrow(() -> new IllegalArgumentException("WALLET_NOT_FOUND"));
+        return sameCurrency(new Applied(w.getCurrency(), null, w), amount);
+    }
+
+    private static Applied applied(ResultSet rs, int i) throws SQLException {
+        return new Applied(rs.getString(2), Money.of(rs.getLong(1), rs.getString(2)), null);
+    }
+
+    // 이미 실행된 UPDATE 는 예외로 트랜잭션째 롤백됨
+    private static Applied sameCurrency(Applied a, Money amount) {
+        if (!a.currency().equals(amount.currency())) throw new IllegalArgumentException("CURRENCY_MISMATCH");
+        return a;
+    }
+}
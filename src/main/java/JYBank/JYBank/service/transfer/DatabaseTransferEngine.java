@@ -0,0 +1,38 @@
+package JYBank.JYBank.service.transfer;
+
+import JYBank.JYBank.domain.transfer.Transfer;
+import JYBank.JYBank.dto.TransferDtos.CreateRes;
+import JYBank.JYBank.support.audit.PendingAudit;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CompletionException;
+
+@Component
+@ConditionalOnProperty(name = "app.transfer.engine", havingValue = "database", matchIfMissing = true)
+public class DatabaseTransferEngine implements TransferEngine {
+    private final WalletConcurrency concurrency;
+    private final GroupCommitTransferExecutor groupCommit;
+
+    public DatabaseTransferEngine(WalletConcurrency concurrency, GroupCommitTransferExecutor groupCommit) {
+        this.concurrency = concurrency; this.groupCommit = groupCommit; }
+
+    @Override
+    public CreateRes execute(Long sourceWalletId, List<TransferLeg> legs, String idemKey) {
+        // 감사 성공 이벤트는 이체 트랜잭션 안에서 기록 (그룹 커밋은 워커 쓰레드이므로 요청 쓰레드에서 미리 꺼내 넘김)
+        PendingAudit audit = PendingAudit.take();
+        Transfer t;
+        if (!groupCommit.isEnabled()) {
+            t = concurrency.post(sourceWalletId, legs, idemKey, audit);
+        } else {
+            try {
+                t = groupCommit.submit(sourceWalletId, legs, idemKey, audit).join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException re) throw re;
+                throw e;
+            }
+        }
+        return new CreateRes(t.getId(), t.getStatus());
+    }
+}
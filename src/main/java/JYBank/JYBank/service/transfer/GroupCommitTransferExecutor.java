@@ -0,0 +1,177 @@
+package JYBank.JYBank.service.transfer;
+
+import JYBank.JYBank.domain.ledger.LedgerEntry;
+import JYBank.JYBank.domain.money.Money;
+import JYBank.JYBank.domain.transfer.Transfer;
+import JYBank.JYBank.domain.wallet.Wallet;
+import JYBank.JYBank.repository.TransferRepository;
+import JYBank.JYBank.support.audit.PendingAudit;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 그룹 커밋 이체 실행기 (opt-in: app.transfer.group-commit.enabled=true).
+ * 동시에 들어온 이체를 최대 maxWaitMicros 또는 maxBatch건까지 모아 한 트랜잭션으로 커밋한다.
+ * 잔액 부족 등 개별 실패는 해당 요청의 future만 실패시키고, 배치 자체가 실패하면 건별로 재시도한다.
+ */
+@Component
+@Slf4j
+public class GroupCommitTransferExecutor {
+
+    private record Pending(Long sourceWalletId, List<TransferLeg> legs, String idemKey, PendingAudit audit,
+                           CompletableFuture<Transfer> future) {}
+
+    private final TransferPosting posting;
+    private final TransferRepository transferRepo;
+    private final TransactionTemplate tx;
+
+    @Value("${app.transfer.group-commit.enabled:false}") private boolean enabled;
+    @Value("${app.transfer.group-commit.max-batch:256}") private int maxBatch;
+    @Value("${app.transfer.group-commit.max-wait-micros:500}") private long maxWaitMicros;
+    @Value("${app.transfer.group-commit.queue-capacity:10000}") private int queueCapacity;
+
+    private BlockingQueue<Pending> queue;
+    private Thread worker;
+    private volatile boolean running;
+
+    public GroupCommitTransferExecutor(TransferPosting posting, TransferRepository transferRepo,
+                                       PlatformTransactionManager txManager) {
+        this.posting = posting;
+        this.transferRepo = transferRepo;
+        this.tx = new TransactionTemplate(txManager);
+    }
+
+    public boolean isEnabled() { return enabled; }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) return;
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        worker = new Thread(this::loop, "transfer-group-commit");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (worker == null) return;
+        running = false;
+        worker.interrupt();
+        worker.join(5_000);
+    }
+
+    public CompletableFuture<Transfer> submit(Long sourceWalletId, List<TransferLeg> legs, String idemKey, PendingAudit audit) {
+        if (!enabled) throw new IllegalStateException("group commit disabled");
+        CompletableFuture<Transfer> f = new CompletableFuture<>();
+        try {
+            posting.validate(sourceWalletId, legs); // 요청 오류는 큐에 넣기 전에 바로 실패
+        } catch (IllegalArgumentException e) {
+            f.completeExceptionally(e);
+            return f;
+        }
+        if (!queue.offer(new Pending(sourceWalletId, legs, idemKey, audit, f))) {
+            f.completeExceptionally(new IllegalStateException("TRANSFER_QUEUE_FULL"));
+        }
+        return f;
+    }
+
+    private void loop() {
+        long maxWaitNanos = TimeUnit.MICROSECONDS.toNanos(maxWaitMicros);
+        List<Pending> batch = new ArrayList<>(maxBatch);
+        while (running) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                long deadline = System.nanoTime() + maxWaitNanos;
+                while (batch.size() < maxBatch) {
+                    long remain = deadline - System.nanoTime();
+                    if (remain <= 0) break;
+                    Pending p = queue.poll(remain, TimeUnit.NANOSECONDS);
+                    if (p == null) break;
+                    batch.add(p);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Throwable t) {
+                log.error("group commit loop error", t);
+                batch.forEach(p -> p.future().completeExceptionally(t));
+            } finally {
+                batch.clear();
+            }
+        }
+        // 종료 시 남은 요청 실패 처리
+        Pending p;
+        while ((p = queue.poll()) != null) p.future().completeExceptionally(new IllegalStateException("SHUTTING_DOWN"));
+    }
+
+    private void flush(List<Pending> batch) {
+        Map<Pending, Object> outcomes;
+        try {
+            outcomes = tx.execute(s -> commitBatch(batch));
+        } catch (RuntimeException e) {
+            // DB 오류 등으로 배치 전체가 롤백되면 한 건 때문에 전부 실패하지 않도록 건별 재시도
+            log.warn("group commit batch of {} failed, retrying individually: {}", batch.size(), e.getMessage());
+            for (Pending p : batch) {
+                try {
+                    p.future().complete(posting.post(p.sourceWalletId(), p.legs(), p.idemKey(), p.audit()));
+                } catch (RuntimeException ex) {
+                    p.future().completeExceptionally(ex);
+                }
+            }
+            return;
+        }
+        // 커밋이 끝난 뒤에만 호출자에게 결과 전달
+        outcomes.forEach((p, r) -> {
+            if (r instanceof Transfer t) p.future().complete(t);
+            else p.future().completeExceptionally((Throwable) r);
+        });
+    }
+
+    // 한 트랜잭션: 관련 지갑(+ 샤드 행) 전체 잠금 → 순서대로 반영 → 원장 일괄 저장
+    private Map<Pending, Object> commitBatch(List<Pending> batch) {
+        Map<Pending, Object> outcomes = new LinkedHashMap<>();
+
+        Set<Long> ids = new TreeSet<>();
+        Set<String> keys = new HashSet<>();
+        for (Pending p : batch) {
+            ids.addAll(TransferPosting.walletIds(p.sourceWalletId(), p.legs()));
+            if (p.idemKey() != null) keys.add(p.idemKey());
+        }
+        // 이미 처리된 멱등키는 unique 위반으로 배치 전체가 깨지지 않도록 미리 걸러냄
+        Set<String> seen = new HashSet<>();
+        if (!keys.isEmpty()) transferRepo.findByIdemKeyIn(keys).forEach(t -> seen.add(t.getIdemKey()));
+
+        Map<Long, Wallet> wallets = posting.lock(ids);
+        posting.lockShards(wallets);
+        List<LedgerEntry> entries = new ArrayList<>(batch.size() * 2);
+        for (Pending p : batch) {
+            if (p.idemKey() != null && !seen.add(p.idemKey())) {
+                outcomes.put(p, new IllegalStateException("Duplicate request: " + p.idemKey()));
+                continue;
+            }
+            try {
+                Money total = posting.validate(p.sourceWalletId(), p.legs());
+                outcomes.put(p, posting.apply(wallets, p.sourceWalletId(), p.legs(), total, p.idemKey(), p.audit(), entries));
+            } catch (IllegalArgumentException e) {
+                outcomes.put(p, e); // 잔액 부족 등은 해당 요청만 실패
+            }
+        }
+        posting.saveEntries(entries);
+        return outcomes;
+    }
+}
@@ -0,0 +1,74 @@
+package JYBank.JYBank.service.transfer;
+
+import JYBank.JYBank.domain.ledger.LedgerEntry;
+import JYBank.JYBank.domain.money.Money;
+import JYBank.JYBank.domain.transfer.Transfer;
+import JYBank.JYBank.domain.wallet.Wallet;
+import JYBank.JYBank.repository.WalletRepository;
+import JYBank.JYBank.support.audit.PendingAudit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 낙관적 동시성: 지갑을 잠금 없이 읽고, flush 시 version 조건부 UPDATE 가 0건이면 트랜잭션 전체를 다시 시도.
+ * 충돌이 드문 분산 트래픽에서 잠금 대기가 없고, 핫 지갑에서는 재시도가 늘어나므로 max-attempts 로 상한을 둔다.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "app.transfer.concurrency", havingValue = "optimistic")
+public class OptimisticWalletConcurrency implements WalletConcurrency {
+    private final TransferPosting posting;
+    private final WalletRepository walletRepo;
+    private final TransactionTemplate tx;
+    private final int maxAttempts;
+    private final long backoffMicros;
+
+    public OptimisticWalletConcurrency(TransferPosting posting, WalletRepository walletRepo,
+                                       PlatformTransactionManager txManager,
+                                       @Value("${app.transfer.optimistic.max-attempts:5}") int maxAttempts,
+                                       @Value("${app.transfer.optimistic.backoff-micros:200}") long backoffMicros) {
+        this.posting = posting;
+        this.walletRepo = walletRepo;
+        this.tx = new TransactionTemplate(txManager);
+        this.maxAttempts = maxAttempts;
+        this.backoffMicros = backoffMicros;
+    }
+
+    @Override
+    public Transfer post(Long sourceWalletId, List<TransferLeg> legs, String idemKey, PendingAudit audit) {
+        Money total = posting.validate(sourceWalletId, legs);
+        Set<Long> ids = TransferPosting.walletIds(sourceWalletId, legs);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return tx.execute(s -> {
+                    Map<Long, Wallet> wallets = new HashMap<>();
+                    for (Wallet w : walletRepo.findAllById(ids)) wallets.put(w.getWalletId(), w);
+                    // 샤딩 지갑이 끼면 샤드 행은 즉시 잠기므로, 일반 지갑 행을 먼저 id 순으로 잠가 전 경로 공통 순서(지갑 행 → 샤드 행)를 지킴.
+                    // 읽은 뒤 바뀐 지갑은 flush 의 version 검사가 재시도시킨다
+                    if (wallets.values().stream().anyMatch(Wallet::isSharded)) walletRepo.findAllByIdForUpdate(ids);
+                    List<LedgerEntry> entries = new ArrayList<>(legs.size() + 1);
+                    Transfer t = posting.apply(wallets, sourceWalletId, legs, total, idemKey, audit, entries);
+                    posting.saveEntries(entries);
+                    return t;
+                });
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= maxAttempts) {
+                    log.warn("optimistic transfer gave up after {} attempts src={}", attempt, sourceWalletId);
+                    throw new IllegalStateException("CONCURRENT_UPDATE");
+                }
+                // 지수 백오프 + 지터: 같은 지갑을 노리는 재시도끼리 다시 부딪히지 않도록 분산
+                long cap = backoffMicros << Math.min(attempt - 1, 10);
+                LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(cap + 1) * 1_000L);
+            }
+        }
+    }
+}
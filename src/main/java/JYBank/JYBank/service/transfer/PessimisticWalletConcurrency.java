@@ -0,0 +1,21 @@
+package JYBank.JYBank.service.transfer;
+
+import JYBank.JYBank.domain.transfer.Transfer;
+import JYBank.JYBank.support.audit.PendingAudit;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@ConditionalOnProperty(name = "app.transfer.concurrency", havingValue = "pessimistic", matchIfMissing = true)
+public class PessimisticWalletConcurrency implements WalletConcurrency {
+    private final TransferPosting posting;
+
+    public PessimisticWalletConcurrency(TransferPosting posting) { this.posting = posting; }
+
+    @Override
+    public Transfer post(Long sourceWalletId, List<TransferLeg> legs, String idemKey, PendingAudit audit) {
+        return posting.post(sourceWalletId, legs, idemKey, audit);
+    }
+}
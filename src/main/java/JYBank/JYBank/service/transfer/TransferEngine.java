@@ -0,0 +1,19 @@
+package JYBank.JYBank.service.transfer;
+
+import JYBank.JYBank.domain.money.Money;
+import JYBank.JYBank.dto.TransferDtos.CreateRes;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * TransferService 뒤의 이체 실행 엔진. app.transfer.engine 으로 배포 단위 선택
+ * - database(기본): 지갑 행 잠금 + 트랜잭션 (건별 또는 그룹 커밋)
+ * - sequencer: 파티션 단일 쓰레드 메모리 잔액 + 저널, DB는 비동기 프로젝션
+ */
+public interface TransferEngine {
+    CreateRes execute(Long sourceWalletId, List<TransferLeg> legs, String idemKey);
+
+    // 엔진이 DB 보다 앞선 잔액을 들고 있으면 그 값 (수락한 이체가 모두 반영된 잔액). 없으면 DB 가 기준
+    default Optional<Money> liveBalance(Long walletId) { return Optional.empty(); }
+}
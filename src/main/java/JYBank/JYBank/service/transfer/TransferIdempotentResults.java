@@ -0,0 +1,24 @@
+package JYBank.JYBank.service.transfer;
+
+import JYBank.JYBank.aop.IdempotentResultSource;
+import JYBank.JYBank.dto.TransferDtos.CreateRes;
+import JYBank.JYBank.repository.TransferRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+// transfer.idem_key(unique) 로 이체 응답 복원
+@Component
+public class TransferIdempotentResults implements IdempotentResultSource {
+    private final TransferRepository transferRepo;
+
+    public TransferIdempotentResults(TransferRepository transferRepo) { this.transferRepo = transferRepo; }
+
+    @Override
+    public boolean supports(Class<?> resultType) { return CreateRes.class.equals(resultType); }
+
+    @Override
+    public Optional<CreateRes> find(String idemKey) {
+        return transferRepo.findByIdemKey(idemKey).map(t -> new CreateRes(t.responseId(), t.getStatus()));
+    }
+}
@@ -0,0 +1,6 @@
+package JYBank.JYBank.service.transfer;
+
+import JYBank.JYBank.domain.money.Money;
+
+// 엔진이 다루는 입금 레그: 요청 금액(TransferDtos.Leg, 주 단위)을 출금 지갑 통화로 환산한 것 (TransferPosting.legs)
+public record TransferLeg(Long destWalletId, Money amount) {}
@@ -0,0 +1,220 @@
+package JYBank.JYBank.service.transfer;
+
+import JYBank.JYBank.domain.ledger.LedgerEntry;
+import JYBank.JYBank.domain.money.Money;
+import JYBank.JYBank.domain.transfer.Transfer;
+import JYBank.JYBank.domain.wallet.Wallet;
+import JYBank.JYBank.dto.TransferDtos.Leg;
+import JYBank.JYBank.notification.dto.NotificationEvent;
+import JYBank.JYBank.repository.TransferRepository;
+import JYBank.JYBank.repository.WalletRepository;
+import JYBank.JYBank.service.ledger.LedgerEntryWriter;
+import JYBank.JYBank.service.wallet.BalanceCache;
+import JYBank.JYBank.service.wallet.BalanceCheckpointService;
+import JYBank.JYBank.service.wallet.WalletShardService;
+import JYBank.JYBank.service.wallet.WalletShardService.ShardCredit;
+import JYBank.JYBank.service.wallet.WalletShardService.ShardPosting;
+import JYBank.JYBank.service.wallet.WalletShardService.ShardPostings;
+import JYBank.JYBank.support.audit.PendingAudit;
+import JYBank.JYBank.support.outbox.OutboxService;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * 이체 전기(posting) 공통 로직.
+ * 단건 트랜잭션 경로와 그룹 커밋 경로가 같은 검증/잠금/원장 작성 규칙을 쓰도록 분리.
+ */
+@Component
+public class TransferPosting {
+    private final WalletRepository walletRepo;
+    private final LedgerEntryWriter ledgerWriter;
+    private final TransferRepository transferRepo;
+    private final WalletShardService shards;
+    private final OutboxService outbox;
+    private final BalanceCheckpointService checkpoints;
+    private final BalanceCache balanceCache;
+    private final String notificationTopic;
+    private final String auditTopic;
+
+    public TransferPosting(WalletRepository walletRepo, LedgerEntryWriter ledgerWriter,
+                           TransferRepository transferRepo, WalletShardService shards, OutboxService outbox,
+                           BalanceCheckpointService checkpoints, BalanceCache balanceCache,
+                           @Value("${app.kafka.topics.notification}") String notificationTopic,
+                           @Value("${app.kafka.topics.audit}") String auditTopic) {
+        this.walletRepo = walletRepo; this.ledgerWriter = ledgerWriter; this.transferRepo = transferRepo; this.shards = shards;
+        this.outbox = outbox; this.checkpoints = checkpoints; this.balanceCache = balanceCache;
+        this.notificationTopic = notificationTopic; this.auditTopic = auditTopic; }
+
+    // 이체 1건 = 트랜잭션 1개
+    @Transactional
+    public Transfer post(Long sourceWalletId, List<TransferLeg> legs, String idemKey, PendingAudit audit) {
+        Money total = validate(sourceWalletId, legs);
+        Map<Long, Wallet> wallets = lock(walletIds(sourceWalletId, legs));
+        List<LedgerEntry> entries = new ArrayList<>(legs.size() + 1);
+        Transfer t = apply(wallets, sourceWalletId, legs, total, idemKey, audit, entries);
+        saveEntries(entries);
+        return t;
+    }
+
+    // 요청 금액(주 단위) → 출금 지갑 통화의 Money. 입금 지갑 통화가 다르면 apply 에서 CURRENCY_MISMATCH
+    public List<TransferLeg> legs(Long sourceWalletId, List<Leg> legs) {
+        String currency = walletRepo.findCurrencyById(sourceWalletId).orElseThrow(() -> new IllegalArgumentException("WALLET_NOT_FOUND"));
+        List<TransferLeg> out = new ArrayList<>(legs.size());
+        for (Leg leg : legs) out.add(new TransferLeg(leg.destWalletId(), Money.ofMajor(leg.amount(), currency)));
+        return out;
+    }
+
+    // 요청 자체 검증 (DB 접근 없음), 총 출금액 반환
+    public Money validate(Long sourceWalletId, List<TransferLeg> legs) {
+        if (legs == null || legs.isEmpty()) throw new IllegalArgumentException("EMPTY_LEGS");
+        Money total = Money.zero(legs.get(0).amount().currency());
+        for (TransferLeg leg : legs) {
+            if (sourceWalletId.equals(leg.destWalletId())) throw new IllegalArgumentException("SAME_WALLET");
+            if (leg.amount().signum() <= 0) throw new IllegalArgumentException("INVALID_AMOUNT");
+            total = total.plus(leg.amount());
+        }
+        return total;
+    }
+
+    public static Set<Long> walletIds(Long sourceWalletId, List<TransferLeg> legs) {
+        Set<Long> ids = new TreeSet<>();
+        ids.add(sourceWalletId);
+        for (TransferLeg leg : legs) ids.add(leg.destWalletId());
+        return ids;
+    }
+
+    // 모든 지갑을 id 오름차순으로 한 번의 SELECT ... FOR UPDATE로 잠금
+    // → A→B, B→A 이체가 동시에 와도 잠금 순서가 같아 데드락이 생기지 않음
+    // 샤딩 지갑은 행 잠금 없이 읽기만 함 (일반 지갑만 있으면 추가 조회 없음). 샤드 행은 이후 WalletShardService 가 잠금
+    // 잠금 순서는 모든 경로에서 지갑 행(id 순) → 샤드 행((wallet_id, shard_no) 순)
+    public Map<Long, Wallet> lock(Collection<Long> ids) {
+        Map<Long, Wallet> wallets = new HashMap<>();
+        for (Wallet w : walletRepo.findAllByIdForUpdate(ids)) wallets.put(w.getWalletId(), w);
+        if (wallets.size() < ids.size()) {
+            List<Long> rest = new ArrayList<>();
+            for (Long id : ids) if (!wallets.containsKey(id)) rest.add(id);
+            for (Wallet w : walletRepo.findAllById(rest)) if (w.isSharded()) wallets.put(w.getWalletId(), w);
+        }
+        return wallets;
+    }
+
+    // 그룹 커밋 배치: 샤딩 지갑의 샤드 행까지 (wallet_id, shard_no) 순으로 미리 잠금.
+    // 배치 안의 이체들이 샤드 행을 제각각 순서로 갱신해도 다른 트랜잭션과 데드락이 생기지 않음
+    public void lockShards(Map<Long, Wallet> wallets) {
+        Set<Long> sharded = new TreeSet<>();
+        for (Wallet w : wallets.values()) if (w.isSharded()) sharded.add(w.getWalletId());
+        shards.lockAll(sharded);
+    }
+
+    /**
+     * 잠긴 지갑들에 이체 1건을 반영하고 원장 레그를 out에 추가한다.
+     * 모든 검증이 끝난 뒤에만 잔액을 바꾸므로, 예외가 나면 지갑 상태는 그대로다.
+     * audit 가 있으면 감사 성공 이벤트도 같은 트랜잭션의 outbox 에 기록한다.
+     */
+    public Transfer apply(Map<Long, Wallet> wallets, Long sourceWalletId, List<TransferLeg> legs,
+                          Money total, String idemKey, PendingAudit audit, List<LedgerEntry> out) {
+        for (Long id : walletIds(sourceWalletId, legs)) {
+            Wallet w = wallets.get(id);
+            if (w == null) throw new IllegalArgumentException("WALLET_NOT_FOUND");
+            // 통화가 다른 지갑이 섞이면 아무것도 바꾸기 전에 거절 (환전 없음)
+            if (!w.getCurrency().equals(total.currency())) throw new IllegalArgumentException("CURRENCY_MISMATCH");
+        }
+        Wallet src = wallets.get(sourceWalletId);
+        if (!src.isSharded() && src.getBalance().isLessThan(total)) throw new IllegalArgumentException("INSUFFICIENT_BALANCE");
+        // 샤드 행은 이체 1건분을 (wallet_id, shard_no) 순으로 한 번에 반영 → 출금 실패 시 아무것도 바뀌지 않은 상태로 예외
+        ShardPostings sharded = postShards(src, legs, wallets, total);
+
+        Transfer t = saveTransfer(sourceWalletId, legs, total, idemKey);
+        publishAudit(t, audit);
+        String refId = String.valueOf(t.getId());
+
+        // 차변: 출금 1건(샤딩 지갑은 샤드별로 나뉠 수 있음), 대변: 입금 N건
+        if (!src.isSharded()) {
+            src.debit(total);
+            out.add(entry(src.getWalletId(), "debit", total, src.getBalance(), null, refId));
+        } else {
+            for (ShardPosting sp : sharded.debits()) {
+                out.add(entry(src.getWalletId(), "debit", sp.amount(), sp.balanceAfter(), sp.shardNo(), refId));
+            }
+        }
+        for (int i = 0; i < legs.size(); i++) {
+            TransferLeg leg = legs.get(i);
+            Wallet dst = wallets.get(leg.destWalletId());
+            publishCredit(t, dst, leg.amount(), i);
+            if (dst.isSharded()) {
+                ShardPosting sp = sharded.credits().get(i);
+                out.add(entry(dst.getWalletId(), "credit", leg.amount(), sp.balanceAfter(), sp.shardNo(), refId));
+            } else {
+                dst.credit(leg.amount());
+                out.add(entry(dst.getWalletId(), "credit", leg.amount(), dst.getBalance(), null, refId));
+            }
+        }
+        return t;
+    }
+
+    // 샤딩 지갑이 끼지 않으면 DB 접근 없음
+    private ShardPostings postShards(Wallet src, List<TransferLeg> legs, Map<Long, Wallet> wallets, Money total) {
+        List<ShardCredit> credits = new ArrayList<>();
+        for (int i = 0; i < legs.size(); i++) {
+            Wallet dst = wallets.get(legs.get(i).destWalletId());
+            if (dst.isSharded()) credits.add(new ShardCredit(i, dst, legs.get(i).amount()));
+        }
+        if (!src.isSharded() && credits.isEmpty()) return null;
+        return shards.post(src.isSharded() ? src : null, total, credits);
+    }
+
+    public Transfer saveTransfer(Long sourceWalletId, List<TransferLeg> legs, Money total, String idemKey) {
+        Transfer t = new Transfer();
+        t.setSourceWalletId(sourceWalletId);
+        t.setDestWalletId(legs.size() == 1 ? legs.get(0).destWalletId() : null); // 다건이면 원장 레그 참조
+        t.setAmount(total);
+        t.setStatus("COMPLETED");
+        t.setIdemKey(idemKey);
+        t.setCreatedAt(Instant.now());
+        return transferRepo.save(t);
+    }
+
+    // 입금 레그별 도착 알림. outbox 에 기록되므로 원장과 함께 커밋/롤백된다
+    public void publishCredit(Transfer t, Wallet dst, Money amount, int legIndex) {
+        publishCredit(t, dst.getWalletId(), dst.getCurrency(), amount, legIndex);
+    }
+
+    public void publishCredit(Transfer t, Long dstWalletId, String currency, Money amount, int legIndex) {
+        NotificationEvent evt = new NotificationEvent(
+                "transfer:" + t.getId() + ":" + legIndex,
+                "TRANSFER_COMPLETED",
+                String.valueOf(dstWalletId),
+                Map.of("amount", amount, "currency", currency,
+                        "fromWalletId", t.getSourceWalletId(), "transferId", t.getId()),
+                t.getCreatedAt());
+        outbox.append(notificationTopic, evt.receiverId(), evt);
+    }
+
+    // 이체 감사 성공 이벤트. 엔진이 여는 트랜잭션의 outbox 에 TRANSFER_COMPLETED 와 함께 기록 → 이체와 함께 커밋/롤백
+    public void publishAudit(Transfer t, PendingAudit audit) {
+        if (audit == null) return;
+        outbox.append(auditTopic, audit.action(), audit.success(String.valueOf(t.getId())));
+    }
+
+    // 원장 일괄 저장 + 커밋 후 잔액 체크포인트 갱신 예약. 지갑/샤드 잠금을 쥔 채로 호출 (id = 지갑별 기록 순서)
+    public void saveEntries(List<LedgerEntry> entries) {
+        ledgerWriter.insert(entries);
+        Set<Long> walletIds = new HashSet<>();
+        for (LedgerEntry e : entries) walletIds.add(e.getWalletId());
+        checkpoints.onEntriesWritten(walletIds);
+        balanceCache.evictAfterCommit(walletIds);
+    }
+
+    public static LedgerEntry entry(Long walletId, String direction, Money amount,
+                                     Money balanceAfter, Integer shardNo, String refId) {
+        LedgerEntry e = new LedgerEntry();
+        e.setWalletId(walletId); e.setDirection(direction);
+        e.setAmount(amount); e.setBalanceAfter(balanceAfter); e.setShardNo(shardNo);
+        e.setRefType("TRANSFER"); e.setRefId(refId);
+        return e;
+    }
+}
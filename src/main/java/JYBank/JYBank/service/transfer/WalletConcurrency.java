@@ -0,0 +1,18 @@
+package JYBank.JYBank.service.transfer;
+
+import JYBank.JYBank.domain.transfer.Transfer;
+import JYBank.JYBank.support.audit.PendingAudit;
+
+import java.util.List;
+
+/**
+ * database 엔진의 건별 이체 동시성 전략. app.transfer.concurrency 로 배포 단위 선택
+ * - pessimistic(기본): 지갑 행을 id 순 SELECT ... FOR UPDATE 로 잠근 뒤 반영
+ * - optimistic: 잠금 없이 읽고 @Version 충돌 시 트랜잭션째 재시도
+ * - conditional: 지갑마다 조건부 UPDATE ... RETURNING 한 번 (잠금은 문장 실행~커밋 사이만)
+ * 그룹 커밋 경로는 배치당 잠금 1회로 이미 비용이 분산되므로 항상 비관적 잠금을 쓴다.
+ */
+public interface WalletConcurrency {
+    // 이체 1건 = 트랜잭션 1개. audit(없으면 null)는 같은 트랜잭션에 기록
+    Transfer post(Long sourceWalletId, List<TransferLeg> legs, String idemKey, PendingAudit audit);
+}
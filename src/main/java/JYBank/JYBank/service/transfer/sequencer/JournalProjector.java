@@ -0,0 +1,69 @@
+package JYBank.JYBank.service.transfer.sequencer;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 파티션별 DB 프로젝션 쓰레드. seq 순서대로, 입금 레그가 메모리에 반영된 레코드만 배치로 DB에 쓴다.
+ * 실패한 배치는 건너뛰지 않고 재시도한다 (체크포인트 연속성 유지).
+ */
+@Slf4j
+final class JournalProjector implements Runnable {
+
+    record Item(JournalRecord record, CompletableFuture<Void> creditsApplied) {}
+
+    private final int partition;
+    private final SequencedTransferEngine engine;
+    private final int maxBatch;
+    private final LinkedBlockingQueue<Item> queue = new LinkedBlockingQueue<>();
+    private volatile boolean running = true;
+
+    JournalProjector(int partition, SequencedTransferEngine engine, int maxBatch) {
+        this.partition = partition;
+        this.engine = engine;
+        this.maxBatch = maxBatch;
+    }
+
+    void enqueue(JournalRecord r, CompletableFuture<Void> creditsApplied) {
+        queue.add(new Item(r, creditsApplied));
+    }
+
+    void stop() { running = false; }
+
+    @Override
+    public void run() {
+        List<Item> items = new ArrayList<>(maxBatch);
+        List<JournalRecord> records = new ArrayList<>(maxBatch);
+        long backoffMs = 100;
+        while (running || !queue.isEmpty() || !items.isEmpty()) {
+            try {
+                if (items.isEmpty()) {
+                    Item first = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) continue;
+                    items.add(first);
+                    queue.drainTo(items, maxBatch - 1);
+                }
+                records.clear();
+                for (Item it : items) {
+                    it.creditsApplied().get(); // 입금 반영 전에 DB에 쓰면 신규 지갑 적재 시 이중 반영될 수 있음
+                    records.add(it.record());
+                }
+                engine.project(partition, records);
+                items.clear();
+                backoffMs = 100;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("projection failed partition={} batch={}, retrying in {}ms", partition, items.size(), backoffMs, e);
+                try { Thread.sleep(backoffMs); } catch (InterruptedException ie) { Thread.currentThread().interrupt(); return; }
+                backoffMs = Math.min(backoffMs * 2, 10_000);
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package JYBank.JYBank.service.transfer.sequencer;
+
+import JYBank.JYBank.support.audit.PendingAudit;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 저널 레코드 1건 = 수락된 이체 1건 (출금 1 + 입금 N).
+ * 금액은 Money 최소 단위 long 그대로. audit(없으면 null)는 프로젝션 트랜잭션에서 감사 성공 이벤트로 기록된다.
+ */
+record JournalRecord(long seq, long acceptedAtMillis, long sourceWalletId,
+                     long[] destWalletIds, long[] amounts, String idemKey, PendingAudit audit) {
+
+    long total() {
+        long t = 0;
+        for (long a : amounts) t = Math.addExact(t, a);
+        return t;
+    }
+
+    // 본문 길이 (길이/CRC 헤더 제외)
+    int bodySize() {
+        int size = 8 + 8 + 8 + 4 + destWalletIds.length * 16 + 2 + bytes(idemKey).length + 2;
+        if (audit != null) size += 2 + bytes(audit.action()).length + 2 + bytes(audit.principal()).length;
+        return size;
+    }
+
+    // 문자열은 (short 길이 + UTF-8), 길이 0 = null. audit 는 action 길이가 0 이면 없음
+    void writeBody(ByteBuffer buf) {
+        buf.putLong(seq).putLong(acceptedAtMillis).putLong(sourceWalletId).putInt(destWalletIds.length);
+        for (int i = 0; i < destWalletIds.length; i++) buf.putLong(destWalletIds[i]).putLong(amounts[i]);
+        putString(buf, idemKey);
+        if (audit == null) {
+            buf.putShort((short) 0);
+        } else {
+            putString(buf, audit.action());
+            putString(buf, audit.principal());
+        }
+    }
+
+    static JournalRecord readBody(ByteBuffer buf) {
+        long seq = buf.getLong();
+        long at = buf.getLong();
+        long src = buf.getLong();
+        int n = buf.getInt();
+        long[] dst = new long[n];
+        long[] amt = new long[n];
+        for (int i = 0; i < n; i++) { dst[i] = buf.getLong(); amt[i] = buf.getLong(); }
+        String idem = getString(buf);
+        String action = getString(buf);
+        PendingAudit audit = action == null ? null : new PendingAudit(action, getString(buf));
+        return new JournalRecord(seq, at, src, dst, amt, idem, audit);
+    }
+
+    private static byte[] bytes(String s) {
+        return s == null ? new byte[0] : s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void putString(ByteBuffer buf, String s) {
+        byte[] b = bytes(s);
+        buf.putShort((short) b.length).put(b);
+    }
+
+    private static String getString(ByteBuffer buf) {
+        byte[] b = new byte[Short.toUnsignedInt(buf.getShort())];
+        buf.get(b);
+        return b.length == 0 ? null : new String(b, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,267 @@
+package JYBank.JYBank.service.transfer.sequencer;
+
+import JYBank.JYBank.dto.TransferDtos.CreateRes;
+import JYBank.JYBank.exception.TransferOutcomeUnknownException;
+import JYBank.JYBank.support.audit.PendingAudit;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 단일 쓰레드 파티션 시퀀서 (LMAX 스타일).
+ * 이 파티션 지갑의 잔액은 이 쓰레드만 읽고 쓴다. 수락한 이체는 저널에 모아서 기록 후 한 번에 fsync 하고,
+ * 그 다음에야 호출자 응답 / 입금 전달 / DB 프로젝션을 진행한다. 멱등키 중복은 엔진이 제출 전에 걸러낸다.
+ * fsync 가 실패하면 미확정 꼬리를 지워 확정 실패로 답하고, 지우지도 못하면 결과 불명으로 답한 뒤 파티션을 멈춘다.
+ * 잔액 조회도 inbox 로 받아 배치 fsync 뒤에 답한다 → 앞서 응답한 이체가 반영된(확정된) 잔액만 보인다.
+ */
+@Slf4j
+final class LedgerSequencer implements Runnable {
+
+    record Submit(long sourceWalletId, long[] destWalletIds, long[] amounts, String idemKey, PendingAudit audit,
+                  CompletableFuture<CreateRes> future) {}
+    record Credit(long walletId, long amount, CompletableFuture<Void> applied) {}
+    record Read(long walletId, CompletableFuture<Long> balance) {}
+
+    private final int partition;
+    private final SequencedTransferEngine engine;
+    private final TransferJournal journal;
+    private final int maxBatch;
+    private final int maxPending;
+
+    // 입금 메시지는 다른 파티션이 보내므로 거절하면 안 됨 → 무제한 큐 + 이체 요청 수만 따로 제한
+    private final LinkedBlockingQueue<Object> inbox = new LinkedBlockingQueue<>();
+    private final AtomicInteger pendingSubmits = new AtomicInteger();
+
+    private final Map<Long, long[]> balances = new HashMap<>();
+    private final List<Object[]> accepted = new ArrayList<>(); // 저널에 썼지만 아직 fsync 전인 (Submit, JournalRecord)
+    private final List<Read> reads = new ArrayList<>();
+    private long nextSeq;
+    private volatile boolean running = true;
+    private volatile boolean failed;
+
+    LedgerSequencer(int partition, SequencedTransferEngine engine, TransferJournal journal,
+                    int maxBatch, int maxPending) {
+        this.partition = partition;
+        this.engine = engine;
+        this.journal = journal;
+        this.maxBatch = maxBatch;
+        this.maxPending = maxPending;
+    }
+
+    // ===== 복구 단계 (쓰레드 시작 전 단일 쓰레드에서만 호출) =====
+    void loadBalance(long walletId, long minor) { balances.put(walletId, new long[]{minor}); }
+
+    void replayDebit(long walletId, long amount) { balance(walletId)[0] -= amount; }
+
+    void replayCredit(long walletId, long amount) { balance(walletId)[0] += amount; }
+
+    void startAt(long nextSeq) { this.nextSeq = nextSeq; }
+
+    // ===== 외부 진입점 =====
+    CompletableFuture<CreateRes> submit(long src, long[] dst, long[] amt, String idemKey, PendingAudit audit) {
+        CompletableFuture<CreateRes> f = new CompletableFuture<>();
+        if (failed) {
+            f.completeExceptionally(new IllegalStateException("SEQUENCER_UNAVAILABLE"));
+            return f;
+        }
+        if (pendingSubmits.incrementAndGet() > maxPending) {
+            pendingSubmits.decrementAndGet();
+            f.completeExceptionally(new IllegalStateException("TRANSFER_QUEUE_FULL"));
+            return f;
+        }
+        inbox.add(new Submit(src, dst, amt, idemKey, audit, f));
+        return f;
+    }
+
+    void credit(long walletId, long amount, CompletableFuture<Void> applied) {
+        inbox.add(new Credit(walletId, amount, applied));
+    }
+
+    // 메모리 잔액(최소 단위). 이 파티션 지갑이 아니거나(샤딩/없음) 파티션이 멈췄으면 null
+    CompletableFuture<Long> read(long walletId) {
+        CompletableFuture<Long> f = new CompletableFuture<>();
+        if (failed || !running) {
+            f.complete(null);
+            return f;
+        }
+        inbox.add(new Read(walletId, f));
+        return f;
+    }
+
+    void stop() { running = false; }
+
+    @Override
+    public void run() {
+        List<Object> batch = new ArrayList<>(maxBatch);
+        while (running || !inbox.isEmpty()) {
+            try {
+                Object first = inbox.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                inbox.drainTo(batch, maxBatch - 1);
+
+                for (Object cmd : batch) {
+                    if (cmd instanceof Credit c) {
+                        applyCredit(c);
+                    } else if (cmd instanceof Read r) {
+                        reads.add(r);
+                    } else if (cmd instanceof Submit s) {
+                        pendingSubmits.decrementAndGet();
+                        if (failed) {
+                            s.future().completeExceptionally(new IllegalStateException("SEQUENCER_UNAVAILABLE"));
+                            continue;
+                        }
+                        JournalRecord r = accept(s);
+                        if (r != null) accepted.add(new Object[]{s, r});
+                    }
+                }
+                commit(); // 그룹 fsync: 배치당 1회
+                answerReads();
+                if (failed) {
+                    halt(batch, new IllegalStateException("SEQUENCER_UNAVAILABLE"));
+                    return;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } catch (Throwable t) {
+                // 세그먼트 열기 실패 등: 이미 저널에 쓴 요청은 fsync 실패와 같게, 나머지는 실패 처리하고 파티션 중단
+                log.error("sequencer partition {} failed", partition, t);
+                if (!accepted.isEmpty()) abandon(t);
+                halt(batch, t);
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+        commit();
+        answerReads();
+        journal.close();
+    }
+
+    // 확정 후 응답: 같은 배치에서 수락만 되고 fsync 실패로 원복될 수 있는 차감은 보여주지 않는다
+    private void answerReads() {
+        for (Read r : reads) {
+            long[] b = failed ? null : balance(r.walletId());
+            r.balance().complete(b == null ? null : b[0]);
+        }
+        reads.clear();
+    }
+
+    // 저널에 쓴 요청들을 fsync 후 응답 + 입금 전달 + 프로젝션 예약
+    private void commit() {
+        if (accepted.isEmpty()) return;
+        try {
+            journal.force();
+        } catch (RuntimeException | InternalError e) {
+            log.error("sequencer partition {} journal force failed, records={}", partition, accepted.size(), e);
+            abandon(e);
+            return;
+        }
+        for (Object[] a : accepted) {
+            Submit s = (Submit) a[0];
+            JournalRecord r = (JournalRecord) a[1];
+            engine.dispatch(partition, r); // 응답 전에 입금 전달 → 응답 후의 입금 지갑 조회는 이 입금 뒤에 처리됨
+            s.future().complete(new CreateRes(engine.reference(partition, r.seq()), "ACCEPTED"));
+        }
+        accepted.clear();
+    }
+
+    // fsync 되지 않은 레코드도 mmap 에는 있어서 나중에 디스크에 써지면 재기동 시 재적용된다 → 그냥 실패로 답하면
+    // 실패라고 들은 이체가 나중에 실행된다. 미확정 꼬리를 지우고 다시 fsync 되면 확정 실패(메모리 차감 원복, 파티션 계속),
+    // 그것도 안 되면 결과 불명으로 답하고 파티션 중단 → 재기동 시 저널이 결과를 정하고 같은 멱등키 재시도가 그 결과를 받는다
+    private void abandon(Throwable cause) {
+        if (journal.discardUnforced()) {
+            for (Object[] a : accepted) {
+                JournalRecord r = (JournalRecord) a[1];
+                balances.get(r.sourceWalletId())[0] += r.total();
+                ((Submit) a[0]).future().completeExceptionally(new IllegalStateException("JOURNAL_WRITE_FAILED", cause));
+            }
+            nextSeq = ((JournalRecord) accepted.get(0)[1]).seq();
+            log.warn("sequencer partition {} discarded {} unforced records from seq {}", partition, accepted.size(), nextSeq);
+        } else {
+            failed = true;
+            for (Object[] a : accepted) {
+                ((Submit) a[0]).future().completeExceptionally(new TransferOutcomeUnknownException("TRANSFER_OUTCOME_UNKNOWN", cause));
+            }
+            log.error("sequencer partition {} could not discard unforced records, outcome unknown until restart", partition);
+        }
+        accepted.clear();
+    }
+
+    // 파티션 중단: 남은 요청은 모두 실패 (재기동 시 저널로 복구)
+    private void halt(List<Object> batch, Throwable cause) {
+        failed = true;
+        running = false;
+        batch.addAll(inbox);
+        inbox.clear();
+        for (Object cmd : batch) {
+            if (cmd instanceof Submit s) s.future().completeExceptionally(cause);
+            else if (cmd instanceof Credit c) c.applied().completeExceptionally(cause);
+            else if (cmd instanceof Read r) r.balance().complete(null);
+        }
+        reads.forEach(r -> r.balance().complete(null));
+        reads.clear();
+        try {
+            journal.close();
+        } catch (RuntimeException e) {
+            log.warn("sequencer partition {} journal close failed: {}", partition, e.getMessage());
+        }
+    }
+
+    private void applyCredit(Credit c) {
+        long[] b = balance(c.walletId());
+        if (b == null) {
+            // 수락 시 존재 확인을 거쳤으므로 여기 오면 데이터 불일치
+            c.applied().completeExceptionally(new IllegalStateException("WALLET_NOT_FOUND: " + c.walletId()));
+            return;
+        }
+        b[0] = Math.addExact(b[0], c.amount());
+        c.applied().complete(null);
+    }
+
+    private JournalRecord accept(Submit s) {
+        long[] src = balance(s.sourceWalletId());
+        if (src == null) {
+            s.future().completeExceptionally(new IllegalArgumentException("WALLET_NOT_FOUND"));
+            return null;
+        }
+        JournalRecord r = new JournalRecord(nextSeq, System.currentTimeMillis(), s.sourceWalletId(),
+                s.destWalletIds(), s.amounts(), s.idemKey(), s.audit());
+        long total = r.total();
+        if (src[0] < total) {
+            s.future().completeExceptionally(new IllegalArgumentException("INSUFFICIENT_BALANCE"));
+            return null;
+        }
+        if (!journal.fits(r)) {
+            // 굴리기 전에 이 세그먼트에 쓴 요청부터 확정. 확정 실패로 seq/잔액이 되돌려졌을 수 있으니 다시 수락
+            commit();
+            if (failed) {
+                s.future().completeExceptionally(new IllegalStateException("SEQUENCER_UNAVAILABLE"));
+                return null;
+            }
+            if (r.seq() != nextSeq) return accept(s);
+            journal.roll(r.seq());
+        }
+        journal.append(r);
+        nextSeq++;
+        src[0] -= total;
+        return r;
+    }
+
+    // 메모리에 없으면 DB에서 1회 적재. 이 지갑의 미반영 변경은 모두 메모리에 있으므로 DB 값이 정확하다
+    private long[] balance(long walletId) {
+        long[] b = balances.get(walletId);
+        if (b == null) {
+            Long minor = engine.loadBalance(walletId);
+            if (minor == null) return null;
+            b = new long[]{minor};
+            balances.put(walletId, b);
+        }
+        return b;
+    }
+}
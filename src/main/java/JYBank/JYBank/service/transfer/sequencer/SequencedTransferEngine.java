@@ -0,0 +1,309 @@
+package JYBank.JYBank.service.transfer.sequencer;
+
+import JYBank.JYBank.domain.ledger.LedgerEntry;
+import JYBank.JYBank.domain.ledger.SequencerCheckpoint;
+import JYBank.JYBank.domain.money.Money;
+import JYBank.JYBank.domain.transfer.Transfer;
+import JYBank.JYBank.domain.wallet.Wallet;
+import JYBank.JYBank.dto.TransferDtos.CreateRes;
+import JYBank.JYBank.exception.TransferOutcomeUnknownException;
+import JYBank.JYBank.repository.SequencerCheckpointRepository;
+import JYBank.JYBank.repository.TransferRepository;
+import JYBank.JYBank.service.transfer.TransferEngine;
+import JYBank.JYBank.service.transfer.TransferLeg;
+import JYBank.JYBank.service.transfer.TransferPosting;
+import JYBank.JYBank.support.audit.PendingAudit;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 메모리 잔액 + 저널 기반 이체 엔진 (app.transfer.engine=sequencer).
+ * 지갑은 walletId 해시로 파티션에 고정되고, 출금 지갑의 파티션이 이체를 수락/저널링한다.
+ * 입금 레그는 fsync 이후 대상 파티션에 메시지로 전달되고, wallet/ledger_entry/transfer 는 비동기로 반영된다.
+ *
+ * 복구: DB 잔액(= 파티션별 체크포인트까지 반영된 상태) 적재 → 각 저널의 체크포인트 이후 레코드 재적용 + 재프로젝션.
+ * 멱등키: 처리 중인 키는 엔진 전체 맵, 프로젝션이 끝난 키는 transfer 테이블로 확인 → 이미 있으면 기존 이체를 돌려준다.
+ * 응답 id 는 수락 시의 참조값(transfer.reference)으로, 수락 응답과 멱등 재응답이 같다.
+ * 저널 fsync 실패로 결과를 알 수 없으면 TransferOutcomeUnknownException(503) → 같은 멱등키 재시도로 확인.
+ * 감사 성공 이벤트는 저널 레코드에 실어 프로젝션 트랜잭션에서 transfer 행과 함께 기록한다.
+ * 잔액 조회는 liveBalance 로 파티션 메모리 잔액을 준다 (DB/캐시는 프로젝션만큼 늦어 방금 응답한 이체가 안 보일 수 있음).
+ * 같은 지갑 집합을 다른 엔진/노드가 동시에 변경하지 않는 단일 노드 배포를 전제로 한다. 샤딩 지갑은 지원하지 않는다.
+ */
+@Component
+@ConditionalOnProperty(name = "app.transfer.engine", havingValue = "sequencer")
+@DependsOn("schemaUpgrades") // 시작 시 DB 잔액을 적재하므로 스키마 변환이 끝난 뒤
+@Slf4j
+public class SequencedTransferEngine implements TransferEngine {
+
+    private final TransferPosting posting;
+    private final TransferRepository transferRepo;
+    private final SequencerCheckpointRepository checkpointRepo;
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+
+    @Value("${app.transfer.sequencer.partitions:0}") private int partitions; // 0이면 코어 수
+    @Value("${app.transfer.sequencer.journal-dir:./data/journal}") private String journalDir;
+    @Value("${app.transfer.sequencer.segment-mb:64}") private int segmentMb;
+    @Value("${app.transfer.sequencer.max-batch:512}") private int maxBatch;
+    @Value("${app.transfer.sequencer.queue-capacity:10000}") private int queueCapacity;
+
+    private LedgerSequencer[] sequencers;
+    private JournalProjector[] projectors;
+    private final List<Thread> threads = new ArrayList<>();
+    private final Map<Long, String> knownWallets = new ConcurrentHashMap<>(); // walletId → 통화
+    // 수락 ~ 프로젝션 커밋 사이의 멱등키 → 최초 요청의 응답. 파티션과 무관하게 한 곳에서 중복을 막고,
+    // 커밋 후에 지우므로 그 뒤의 중복은 transfer 테이블 조회가 잡는다 (재기동 시 재적용 레코드로 다시 채움)
+    private final Map<String, CompletableFuture<CreateRes>> inflightIdem = new ConcurrentHashMap<>();
+
+    public SequencedTransferEngine(TransferPosting posting, TransferRepository transferRepo,
+                                   SequencerCheckpointRepository checkpointRepo,
+                                   JdbcTemplate jdbc, PlatformTransactionManager txManager) {
+        this.posting = posting;
+        this.transferRepo = transferRepo;
+        this.checkpointRepo = checkpointRepo;
+        this.jdbc = jdbc;
+        this.tx = new TransactionTemplate(txManager);
+    }
+
+    @Override
+    public CreateRes execute(Long sourceWalletId, List<TransferLeg> legs, String idemKey) {
+        Money total = posting.validate(sourceWalletId, legs);
+        long[] dst = new long[legs.size()];
+        long[] amt = new long[legs.size()];
+        checkCurrency(sourceWalletId, total);
+        for (int i = 0; i < legs.size(); i++) {
+            dst[i] = legs.get(i).destWalletId();
+            amt[i] = legs.get(i).amount().minor();
+            checkCurrency(dst[i], total);
+        }
+        LedgerSequencer sequencer = sequencers[partitionOf(sourceWalletId)];
+        if (idemKey == null) return join(sequencer.submit(sourceWalletId, dst, amt, null, PendingAudit.take()));
+
+        // 선점 후 DB 확인: 프로젝션은 커밋한 뒤에 선점을 풀므로, 선점한 시점에 DB 에 없으면 같은 키의 이전 이체는 없다
+        CompletableFuture<CreateRes> mine = new CompletableFuture<>();
+        CompletableFuture<CreateRes> prior = inflightIdem.putIfAbsent(idemKey, mine);
+        if (prior != null) return join(prior); // 처리 중인 같은 요청 → 같은 응답
+        Optional<Transfer> done = transferRepo.findByIdemKey(idemKey);
+        if (done.isPresent()) {
+            mine.complete(new CreateRes(done.get().responseId(), done.get().getStatus()));
+            inflightIdem.remove(idemKey, mine);
+            return mine.join();
+        }
+        sequencer.submit(sourceWalletId, dst, amt, idemKey, PendingAudit.take()).whenComplete((res, e) -> {
+            if (e == null) {
+                mine.complete(res); // 프로젝션 커밋 후 제거
+            } else {
+                // 거절된 요청은 다시 시도할 수 있음. 결과 불명은 선점을 유지 → 재기동 전까지 같은 키는 같은 오류
+                if (!(e instanceof TransferOutcomeUnknownException)) inflightIdem.remove(idemKey, mine);
+                mine.completeExceptionally(e);
+            }
+        });
+        return join(mine);
+    }
+
+    // 파티션 쓰레드가 확정 후 답한다. 샤딩/없는 지갑, 멈춘 파티션, 응답 지연이면 empty → DB 조회로 대체
+    @Override
+    public Optional<Money> liveBalance(Long walletId) {
+        String currency = knownWallets.get(walletId);
+        if (currency == null) {
+            List<String> r = jdbc.queryForList("select currency from wallet where wallet_id = ? and shard_count = 0", String.class, walletId);
+            if (r.isEmpty()) return Optional.empty();
+            currency = r.get(0);
+            knownWallets.put(walletId, currency);
+        }
+        Long minor = sequencers[partitionOf(walletId)].read(walletId)
+                .completeOnTimeout(null, 1, TimeUnit.SECONDS).join();
+        String c = currency;
+        return Optional.ofNullable(minor).map(m -> Money.of(m, c));
+    }
+
+    private static CreateRes join(CompletableFuture<CreateRes> f) {
+        try {
+            return f.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw e;
+        }
+    }
+
+    int partitionOf(long walletId) {
+        long h = walletId * 0x9E3779B97F4A7C15L; // 연속 id 분산
+        return (int) Math.floorMod(h ^ (h >>> 32), (long) sequencers.length);
+    }
+
+    // 응답용 참조값: 상위 16비트 파티션, 하위 48비트 seq. transfer.id 는 프로젝션 시 발급되므로
+    // transfer.reference 에 남겨 멱등 재응답(TransferIdempotentResults)도 같은 값을 돌려준다
+    long reference(int partition, long seq) {
+        return ((long) partition << 48) | seq;
+    }
+
+    // fsync 이후 호출: 입금 레그 전달 + 프로젝션 예약
+    void dispatch(int partition, JournalRecord r) {
+        CompletableFuture<?>[] applied = new CompletableFuture<?>[r.destWalletIds().length];
+        for (int i = 0; i < applied.length; i++) {
+            CompletableFuture<Void> f = new CompletableFuture<>();
+            sequencers[partitionOf(r.destWalletIds()[i])].credit(r.destWalletIds()[i], r.amounts()[i], f);
+            applied[i] = f;
+        }
+        projectors[partition].enqueue(r, CompletableFuture.allOf(applied));
+    }
+
+    Long loadBalance(long walletId) {
+        List<Long> r = jdbc.query("select balance from wallet where wallet_id = ? and shard_count = 0",
+                (rs, i) -> rs.getLong(1), walletId);
+        return r.isEmpty() ? null : r.get(0);
+    }
+
+    // 메모리 잔액은 최소 단위 long 뿐이므로 통화가 다른 지갑 사이 이체는 수락 전에 거절
+    private void checkCurrency(long walletId, Money total) {
+        String currency = knownWallets.get(walletId);
+        if (currency == null) {
+            List<String> r = jdbc.query("select shard_count, currency from wallet where wallet_id = ?", (rs, i) -> {
+                if (rs.getInt(1) > 0) throw new IllegalArgumentException("SHARDED_WALLET_NOT_SUPPORTED");
+                return rs.getString(2);
+            }, walletId);
+            if (r.isEmpty()) throw new IllegalArgumentException("WALLET_NOT_FOUND");
+            currency = r.get(0);
+            knownWallets.put(walletId, currency);
+        }
+        if (!currency.equals(total.currency())) throw new IllegalArgumentException("CURRENCY_MISMATCH");
+    }
+
+    // 레코드 배치를 한 트랜잭션으로 DB 반영 + 체크포인트 갱신
+    void project(int partition, List<JournalRecord> records) {
+        tx.executeWithoutResult(s -> {
+            Set<Long> ids = new TreeSet<>();
+            Set<String> keys = new HashSet<>();
+            for (JournalRecord r : records) {
+                ids.add(r.sourceWalletId());
+                for (long d : r.destWalletIds()) ids.add(d);
+                if (r.idemKey() != null) keys.add(r.idemKey());
+            }
+            // 수락 시 선점/조회로 막히므로 정상 흐름에선 비어 있음. 그래도 unique 위반으로 파티션 프로젝션이
+            // 영영 막히지 않도록 이미 반영된 멱등키 레코드는 건너뛴다 (메모리 잔액과 어긋나므로 error 로그)
+            Set<String> projected = new HashSet<>();
+            if (!keys.isEmpty()) transferRepo.findByIdemKeyIn(keys).forEach(t -> projected.add(t.getIdemKey()));
+            Map<Long, Wallet> wallets = posting.lock(ids);
+            List<LedgerEntry> entries = new ArrayList<>(records.size() * 2);
+            for (JournalRecord r : records) {
+                if (r.idemKey() != null && !projected.add(r.idemKey())) {
+                    log.error("sequencer partition {} seq {} skipped: idemKey {} already projected", partition, r.seq(), r.idemKey());
+                    continue;
+                }
+                Transfer t = new Transfer();
+                t.setSourceWalletId(r.sourceWalletId());
+                t.setDestWalletId(r.destWalletIds().length == 1 ? r.destWalletIds()[0] : null);
+                Wallet src = wallets.get(r.sourceWalletId());
+                t.setAmount(Money.of(r.total(), src.getCurrency()));
+                t.setStatus("COMPLETED");
+                t.setIdemKey(r.idemKey());
+                t.setReference(reference(partition, r.seq()));
+                t.setCreatedAt(Instant.ofEpochMilli(r.acceptedAtMillis()));
+                transferRepo.save(t);
+                posting.publishAudit(t, r.audit());
+                String refId = String.valueOf(t.getId());
+
+                // 이미 수락된 이체의 기록이므로 잔액 검증 없이 반영 (파티션 간 반영 순서 차이로 일시적 음수 가능)
+                src.setBalance(src.getBalance().minus(t.getAmount()));
+                entries.add(TransferPosting.entry(src.getWalletId(), "debit", t.getAmount(), src.getBalance(), null, refId));
+                for (int i = 0; i < r.destWalletIds().length; i++) {
+                    Wallet dst = wallets.get(r.destWalletIds()[i]);
+                    Money amount = Money.of(r.amounts()[i], dst.getCurrency());
+                    dst.setBalance(dst.getBalance().plus(amount));
+                    posting.publishCredit(t, dst, amount, i);
+                    entries.add(TransferPosting.entry(dst.getWalletId(), "credit", amount, dst.getBalance(), null, refId));
+                }
+            }
+            posting.saveEntries(entries);
+            long last = records.get(records.size() - 1).seq();
+            checkpointRepo.save(SequencerCheckpoint.builder().partitionNo(partition).lastSeq(last).updatedAt(Instant.now()).build());
+        });
+        for (JournalRecord r : records) if (r.idemKey() != null) inflightIdem.remove(r.idemKey());
+        long last = records.get(records.size() - 1).seq();
+        TransferJournal.deleteSegmentsUpTo(Path.of(journalDir), partition, last);
+    }
+
+    @PostConstruct
+    void start() {
+        int n = partitions > 0 ? partitions : Runtime.getRuntime().availableProcessors();
+        Path dir = Path.of(journalDir);
+        sequencers = new LedgerSequencer[n];
+        projectors = new JournalProjector[n];
+        TransferJournal[] journals = new TransferJournal[n];
+        for (int p = 0; p < n; p++) {
+            journals[p] = new TransferJournal(dir, p, segmentMb * 1024 * 1024);
+            sequencers[p] = new LedgerSequencer(p, this, journals[p], maxBatch, queueCapacity);
+            projectors[p] = new JournalProjector(p, this, maxBatch);
+        }
+
+        // 1) DB 잔액 적재
+        jdbc.query("select wallet_id, balance, currency from wallet where shard_count = 0", rs -> {
+            long id = rs.getLong(1);
+            sequencers[partitionOf(id)].loadBalance(id, rs.getLong(2));
+            knownWallets.put(id, rs.getString(3));
+        });
+
+        // 2) 체크포인트 이후 저널 재적용 → 재프로젝션 예약
+        Map<Integer, Long> checkpoints = new HashMap<>();
+        checkpointRepo.findAll().forEach(c -> checkpoints.put(c.getPartitionNo(), c.getLastSeq()));
+        int replayed = 0;
+        for (int p = 0; p < n; p++) {
+            long cp = checkpoints.getOrDefault(p, 0L);
+            long maxSeq = cp;
+            for (JournalRecord r : TransferJournal.readAll(dir, p)) {
+                maxSeq = Math.max(maxSeq, r.seq());
+                if (r.seq() <= cp) continue;
+                sequencers[p].replayDebit(r.sourceWalletId(), r.total());
+                if (r.idemKey() != null) {
+                    inflightIdem.put(r.idemKey(), CompletableFuture.completedFuture(new CreateRes(reference(p, r.seq()), "ACCEPTED")));
+                }
+                for (int i = 0; i < r.destWalletIds().length; i++) {
+                    sequencers[partitionOf(r.destWalletIds()[i])].replayCredit(r.destWalletIds()[i], r.amounts()[i]);
+                }
+                projectors[p].enqueue(r, CompletableFuture.completedFuture(null));
+                replayed++;
+            }
+            sequencers[p].startAt(maxSeq + 1);
+            journals[p].openTail(maxSeq + 1);
+        }
+        log.info("sequencer engine started: partitions={}, replayed={} records", n, replayed);
+
+        // 3) 쓰레드 시작
+        for (int p = 0; p < n; p++) {
+            threads.add(start("ledger-sequencer-" + p, sequencers[p]));
+            threads.add(start("ledger-projector-" + p, projectors[p]));
+        }
+    }
+
+    private static Thread start(String name, Runnable r) {
+        Thread t = new Thread(r, name);
+        t.setDaemon(true);
+        t.start();
+        return t;
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        // 시퀀서 먼저 비우고(남은 입금 전달 포함) 프로젝터 종료
+        for (LedgerSequencer s : sequencers) s.stop();
+        for (int i = 0; i < threads.size(); i += 2) threads.get(i).join(5_000);
+        for (JournalProjector p : projectors) p.stop();
+        for (int i = 1; i < threads.size(); i += 2) threads.get(i).join(10_000);
+    }
+}
@@ -0,0 +1,181 @@
+package JYBank.JYBank.service.transfer.sequencer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * 파티션별 메모리 맵 저널. 세그먼트 파일명 = journal-{partition}-{첫 seq}.log
+ * 레코드 포맷: [int 본문길이][본문][int crc32]. 길이 0 또는 CRC 불일치 지점이 로그의 끝.
+ * 복구 후에는 마지막 seq+1 이름의 세그먼트에서 이어 쓴다. 같은 이름의 파일이 이미 있다면 지난 실행이 열고
+ * 유효한 레코드를 하나도 남기지 못한 세그먼트(빈 파일 또는 fsync 전 찢어진 첫 레코드)이므로 비우고 다시 쓴다.
+ * fsync 실패 시 discardUnforced() 로 마지막 fsync 이후 꼬리를 0 으로 지워 로그 끝을 되돌린다.
+ */
+final class TransferJournal implements Closeable {
+
+    private final Path dir;
+    private final int partition;
+    private final int segmentBytes;
+    private final CRC32 crc = new CRC32();
+
+    private FileChannel channel;
+    private MappedByteBuffer buf;
+    private boolean dirty;
+    private int unforcedFrom = -1; // 마지막 fsync 이후 첫 레코드 위치
+
+    TransferJournal(Path dir, int partition, int segmentBytes) {
+        this.dir = dir;
+        this.partition = partition;
+        this.segmentBytes = segmentBytes;
+    }
+
+    // 복구 직후: firstSeq 는 재적용한 마지막 seq + 1 → 이 이름의 기존 파일에는 유효 레코드가 없다
+    void openTail(long firstSeq) {
+        open(firstSeq, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    private void open(long firstSeq, StandardOpenOption... create) {
+        try {
+            Files.createDirectories(dir);
+            Set<StandardOpenOption> opts = EnumSet.of(StandardOpenOption.READ, StandardOpenOption.WRITE);
+            opts.addAll(Arrays.asList(create));
+            channel = FileChannel.open(segmentPath(firstSeq), opts);
+            buf = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+            unforcedFrom = -1;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // 다음 레코드의 길이 0 마커 자리까지 남아 있는지. 모자라면 호출자가 fsync 후 roll()
+    boolean fits(JournalRecord r) {
+        return buf.remaining() >= r.bodySize() + 12;
+    }
+
+    // 현재 세그먼트를 닫고 firstSeq 이름의 새 세그먼트로. 호출 전에 force() 가 끝나 있어야 한다
+    void roll(long firstSeq) {
+        if (dirty) throw new IllegalStateException("journal not forced before roll");
+        close();
+        open(firstSeq, StandardOpenOption.CREATE_NEW); // 굴림 시에는 이름이 겹칠 수 없음
+    }
+
+    // 버퍼에 기록만 함. 내구성은 force() 호출 시점에 보장 (그룹 fsync)
+    void append(JournalRecord r) {
+        int body = r.bodySize();
+        int start = buf.position();
+        if (unforcedFrom < 0) unforcedFrom = start;
+        buf.putInt(body);
+        r.writeBody(buf);
+        crc.reset();
+        crc.update(buf.duplicate().position(start + 4).limit(start + 4 + body));
+        buf.putInt((int) crc.getValue());
+        dirty = true;
+    }
+
+    void force() {
+        if (dirty) {
+            buf.force();
+            dirty = false;
+            unforcedFrom = -1;
+        }
+    }
+
+    // force() 실패 후: 페이지 캐시의 미확정 레코드가 나중에라도 디스크에 써지면 재기동 시 재적용된다.
+    // 미확정 구간을 0(로그 끝)으로 지우고 다시 fsync → 성공하면 그 레코드들은 재적용되지 않고 같은 자리부터 이어 쓴다.
+    // (길이만 지우면 뒤에 이어 쓴 짧은 레코드 다음에 옛 레코드가 온전히 남아 다시 읽힐 수 있다)
+    // 다시 실패하면 false: 어느 레코드가 디스크에 남을지 알 수 없음
+    boolean discardUnforced() {
+        if (unforcedFrom < 0) return true;
+        try {
+            int end = buf.position();
+            buf.position(unforcedFrom);
+            buf.put(new byte[end - unforcedFrom]);
+            buf.position(unforcedFrom);
+            buf.force();
+            dirty = false;
+            unforcedFrom = -1;
+            return true;
+        } catch (RuntimeException | InternalError e) {
+            return false;
+        }
+    }
+
+    // 체크포인트 이하 레코드만 담긴(= 다음 세그먼트 첫 seq ≤ checkpoint+1) 이전 세그먼트 삭제
+    static void deleteSegmentsUpTo(Path dir, int partition, long checkpointSeq) {
+        List<Path> segs = segments(dir, partition);
+        for (int i = 0; i + 1 < segs.size(); i++) {
+            if (firstSeqOf(segs.get(i + 1)) <= checkpointSeq + 1) {
+                try { Files.deleteIfExists(segs.get(i)); } catch (IOException ignored) { }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            if (channel != null) channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            channel = null;
+            buf = null;
+        }
+    }
+
+    private Path segmentPath(long firstSeq) {
+        return dir.resolve(String.format("journal-%03d-%020d.log", partition, firstSeq));
+    }
+
+    // ===== 복구 =====
+    static List<JournalRecord> readAll(Path dir, int partition) {
+        List<JournalRecord> out = new ArrayList<>();
+        CRC32 crc = new CRC32();
+        for (Path seg : segments(dir, partition)) {
+            try (FileChannel ch = FileChannel.open(seg, StandardOpenOption.READ)) {
+                ByteBuffer b = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+                while (b.remaining() >= 4) {
+                    int start = b.position();
+                    int len = b.getInt();
+                    if (len <= 0 || b.remaining() < len + 4) break;
+                    crc.reset();
+                    crc.update(b.duplicate().position(start + 4).limit(start + 4 + len));
+                    ByteBuffer body = b.slice(start + 4, len);
+                    b.position(start + 4 + len);
+                    if ((int) crc.getValue() != b.getInt()) break; // 찢어진 꼬리
+                    out.add(JournalRecord.readBody(body));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return out;
+    }
+
+    private static List<Path> segments(Path dir, int partition) {
+        if (!Files.isDirectory(dir)) return List.of();
+        String prefix = String.format("journal-%03d-", partition);
+        try (Stream<Path> s = Files.list(dir)) {
+            return s.filter(p -> p.getFileName().toString().startsWith(prefix)).sorted().toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long firstSeqOf(Path seg) {
+        String n = seg.getFileName().toString();
+        return Long.parseLong(n.substring(n.lastIndexOf('-') + 1, n.length() - ".log".length()));
+    }
+}
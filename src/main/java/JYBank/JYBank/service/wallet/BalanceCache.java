@@ -0,0 +1,236 @@
+package JYBank.JYBank.service.wallet;
+
+import JYBank.JYBank.domain.money.Money;
+import JYBank.JYBank.dto.WalletDtos.BalanceRes;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 지갑 잔액 2단 캐시 (프로세스 near 캐시 + Redis).
+ * 지갑마다 세대(gen) 카운터를 두고, 원장이 커밋되면 afterCommit 에서 gen 증가 + 값 삭제 + 다른 노드에 무효화 발행.
+ * - 값은 로드 직전에 읽은 gen 이 그대로일 때만 Redis 에 기록(CAS) → 커밋과 경합한 느린 로더가 옛 값을 되살리지 못함
+ * - near-validate=true(기본)면 near 항목도 Redis gen 과 대조 후 사용 → 어느 노드로 가든 자기 커밋 이후 값만 보임
+ *   false 면 near-ttl 동안 pub/sub 무효화만 믿고 Redis 왕복 없이 응답 (다른 노드에서는 발행 지연만큼 늦을 수 있음)
+ * - 같은 (지갑, gen) 의 동시 미스는 로드 1회로 합침
+ * 커밋 순서와 afterCommit 실행 순서가 다를 수 있어 값을 덮어쓰는(write-through) 대신 무효화만 한다.
+ * 무효화(INCR/DEL/발행)가 실패하면 이 노드는 그 지갑의 near 항목을 지우고, 이후 무효화가 성공하거나 값 TTL 이
+ * 지날 때까지(= 커밋 전에 저장된 옛 값이 남아 있을 수 있는 최대 시간) 캐시를 건너뛰고 DB 에서 읽는다.
+ * 실패한 지갑은 다음 무효화 때 함께 다시 시도한다. 발행도 실패했으므로 다른 노드는 near-validate=false 일 때 near-ttl,
+ * 아니면 값 TTL 만큼 늦을 수 있다.
+ */
+@Component
+@Slf4j
+public class BalanceCache {
+    private static final String CHANNEL = "wallet:balance:invalidate";
+    private static final int MAX_NEAR_ENTRIES = 100_000;
+
+    // gen 이 기대값일 때만 값 저장
+    private static final DefaultRedisScript<Long> STORE_IF_GEN = new DefaultRedisScript<>(
+            "local g = redis.call('GET', KEYS[1]) or '0' " +
+            "if g == ARGV[1] then redis.call('SET', KEYS[2], ARGV[2], 'PX', ARGV[3]) return 1 end " +
+            "return 0", Long.class);
+
+    private record Near(long gen, BalanceRes value, long expiresAtNanos) {}
+
+    private final StringRedisTemplate redis;
+    private final RedisMessageListenerContainer listeners;
+    private final Map<Long, Near> near = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<BalanceRes>> inFlight = new ConcurrentHashMap<>();
+    // 무효화 실패 지갑 → 캐시를 건너뛸 기한(nanoTime). 너무 많아지면 노드 전체를 기한까지 건너뜀
+    private final Map<Long, Long> fenced = new ConcurrentHashMap<>();
+    private volatile long fencedAllUntil = System.nanoTime();
+
+    @Value("${app.wallet.balance-cache.enabled:true}") private boolean enabled;
+    @Value("${app.wallet.balance-cache.ttl:PT60S}") private Duration ttl;
+    @Value("${app.wallet.balance-cache.near-ttl:PT5S}") private Duration nearTtl;
+    @Value("${app.wallet.balance-cache.near-validate:true}") private boolean nearValidate;
+
+    public BalanceCache(StringRedisTemplate redis, RedisMessageListenerContainer listeners) {
+        this.redis = redis;
+        this.listeners = listeners;
+    }
+
+    @PostConstruct
+    void subscribe() {
+        listeners.addMessageListener((message, pattern) -> {
+            for (String id : new String(message.getBody(), StandardCharsets.UTF_8).split(",")) {
+                if (!id.isEmpty()) near.remove(Long.valueOf(id));
+            }
+        }, new ChannelTopic(CHANNEL));
+    }
+
+    public BalanceRes get(Long walletId, Function<Long, BalanceRes> loader) {
+        if (!enabled || isFenced(walletId)) return loader.apply(walletId);
+        Near n = near.get(walletId);
+        if (n != null && n.expiresAtNanos() - System.nanoTime() > 0 && !nearValidate) return fresh(n.value());
+
+        long gen;
+        String cached;
+        try {
+            List<String> v = redis.opsForValue().multiGet(List.of(genKey(walletId), valueKey(walletId)));
+            gen = v == null || v.get(0) == null ? 0 : Long.parseLong(v.get(0));
+            cached = v == null ? null : v.get(1);
+        } catch (DataAccessException e) {
+            log.debug("balance cache unavailable: {}", e.getMessage());
+            return loader.apply(walletId); // Redis 장애 시 DB 직행
+        }
+        if (n != null && n.gen() == gen && n.expiresAtNanos() - System.nanoTime() > 0) return fresh(n.value());
+        if (cached != null) {
+            int bar = cached.indexOf('|');
+            if (Long.parseLong(cached, 0, bar, 10) == gen) {
+                BalanceRes res = decode(walletId, cached.substring(bar + 1));
+                putNear(walletId, gen, res);
+                return res;
+            }
+        }
+        return load(walletId, gen, loader);
+    }
+
+    // 원장이 쓰인 지갑: 트랜잭션 중이면 커밋 후, 아니면 즉시 무효화
+    public void evictAfterCommit(Collection<Long> walletIds) {
+        if (!enabled || walletIds.isEmpty()) return;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override public void afterCommit() { evict(walletIds); }
+            });
+        } else {
+            evict(walletIds);
+        }
+    }
+
+    private void evict(Collection<Long> walletIds) {
+        walletIds.forEach(near::remove);
+        // 이전에 무효화에 실패한 지갑도 함께 재시도
+        Set<Long> ids = new HashSet<>(walletIds);
+        ids.addAll(fenced.keySet());
+        long genTtlMs = Math.max(ttl.toMillis(), nearTtl.toMillis()) + Duration.ofDays(1).toMillis();
+        try {
+            // INCR 가 DEL 보다 먼저 → 그 사이 CAS 저장은 gen 불일치로 실패
+            redis.executePipelined((RedisCallback<Object>) conn -> {
+                for (Long id : ids) {
+                    byte[] g = bytes(genKey(id));
+                    conn.stringCommands().incr(g);
+                    conn.keyCommands().pExpire(g, genTtlMs);
+                    conn.keyCommands().del(bytes(valueKey(id)));
+                }
+                publish(conn, ids);
+                return null;
+            });
+            ids.forEach(fenced::remove);
+        } catch (DataAccessException e) {
+            // 커밋은 이미 끝났으므로 예외를 올리지 않음. Redis 의 옛 값은 값 TTL 이 지나면 자연 만료되므로 그때까지 건너뜀
+            log.warn("balance cache invalidation failed wallets={}: {}", walletIds, e.getMessage());
+            fence(walletIds);
+        }
+    }
+
+    private void fence(Collection<Long> walletIds) {
+        long until = System.nanoTime() + ttl.toNanos();
+        if (fenced.size() + walletIds.size() > MAX_NEAR_ENTRIES) {
+            fencedAllUntil = until;
+            fenced.clear();
+            near.clear();
+            return;
+        }
+        for (Long id : walletIds) fenced.put(id, until);
+    }
+
+    private boolean isFenced(Long walletId) {
+        long now = System.nanoTime();
+        if (fencedAllUntil - now > 0) return true;
+        Long until = fenced.get(walletId);
+        if (until == null) return false;
+        if (until - now > 0) return true;
+        fenced.remove(walletId, until);
+        return false;
+    }
+
+    private void publish(RedisConnection conn, Collection<Long> walletIds) {
+        StringBuilder sb = new StringBuilder();
+        for (Long id : walletIds) sb.append(id).append(',');
+        conn.publish(bytes(CHANNEL), bytes(sb.toString()));
+    }
+
+    // 같은 (지갑, gen) 동시 미스는 한 번만 로드. gen 이 다르면(사이에 커밋) 따로 로드
+    private BalanceRes load(Long walletId, long gen, Function<Long, BalanceRes> loader) {
+        String flightKey = walletId + ":" + gen;
+        CompletableFuture<BalanceRes> mine = new CompletableFuture<>();
+        CompletableFuture<BalanceRes> running = inFlight.putIfAbsent(flightKey, mine);
+        if (running != null) {
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException re) throw re;
+                throw e;
+            }
+        }
+        try {
+            BalanceRes res = loader.apply(walletId);
+            store(walletId, gen, res);
+            mine.complete(res);
+            return res;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(flightKey, mine);
+        }
+    }
+
+    private void store(Long walletId, long gen, BalanceRes res) {
+        try {
+            Long ok = redis.execute(STORE_IF_GEN, List.of(genKey(walletId), valueKey(walletId)),
+                    String.valueOf(gen), gen + "|" + res.balance().minor() + "|" + res.currency(),
+                    String.valueOf(ttl.toMillis()));
+            if (ok != null && ok == 1L) putNear(walletId, gen, res);
+        } catch (DataAccessException e) {
+            log.debug("balance cache store failed: {}", e.getMessage());
+        }
+    }
+
+    private void putNear(Long walletId, long gen, BalanceRes res) {
+        if (near.size() > MAX_NEAR_ENTRIES) near.clear();
+        near.put(walletId, new Near(gen, res, System.nanoTime() + nearTtl.toNanos()));
+    }
+
+    private static BalanceRes fresh(BalanceRes r) {
+        return new BalanceRes(r.walletId(), r.balance(), r.currency(), Instant.now());
+    }
+
+    private static BalanceRes decode(Long walletId, String v) {
+        int bar = v.indexOf('|');
+        String currency = v.substring(bar + 1);
+        return new BalanceRes(walletId, Money.of(Long.parseLong(v, 0, bar, 10), currency), currency, Instant.now());
+    }
+
+    // 같은 지갑의 gen/값 키는 해시태그로 같은 슬롯 (Lua, MGET 가 클러스터에서도 동작)
+    private static String genKey(Long walletId) { return "wallet:{" + walletId + "}:bal-gen"; }
+
+    private static String valueKey(Long walletId) { return "wallet:{" + walletId + "}:bal"; }
+
+    private static byte[] bytes(String s) { return s.getBytes(StandardCharsets.UTF_8); }
+}
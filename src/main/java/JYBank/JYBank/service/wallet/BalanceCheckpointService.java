@@ -0,0 +1,154 @@
+package JYBank.JYBank.service.wallet;
+
+import JYBank.JYBank.domain.ledger.BalanceCheckpoint;
+import JYBank.JYBank.domain.money.Money;
+import JYBank.JYBank.domain.wallet.Wallet;
+import JYBank.JYBank.repository.BalanceCheckpointRepository;
+import JYBank.JYBank.repository.LedgerEntryRepository;
+import JYBank.JYBank.repository.WalletRepository;
+import JYBank.JYBank.service.ledger.archive.LedgerArchive;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.*;
+
+/**
+ * 지갑 잔액 체크포인트.
+ * 원장이 쓰일 때(커밋 후) 해당 지갑의 최신 체크포인트가 직전 주기 경계보다 오래됐으면 비동기로 하나 만든다.
+ * 경계 잔액 = 이전 체크포인트 + [이전 asOf, 경계) 순변동 → 주기당 지갑별 1회, 꼬리 구간만 합산.
+ * 경계 직후 커밋이 늦게 들어오는 원장을 놓치지 않도록 grace 가 지난 경계만 닫는다.
+ * 순변동은 아카이브 horizon 이전은 세그먼트 파일, 이후는 핫 테이블에서 합산한다.
+ */
+@Service
+@Slf4j
+public class BalanceCheckpointService {
+    private static final int MAX_TRACKED_WALLETS = 100_000;
+
+    private final BalanceCheckpointRepository checkpointRepo;
+    private final LedgerEntryRepository ledgerRepo;
+    private final WalletRepository walletRepo;
+    private final LedgerArchive archive;
+    private final TransactionTemplate tx;
+    private final Duration period;
+    private final Duration grace;
+
+    private final Map<Long, Instant> latestByWallet = new ConcurrentHashMap<>();
+    private final Map<Long, Boolean> inFlight = new ConcurrentHashMap<>();
+    private final ExecutorService executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(10_000), r -> {
+                Thread t = new Thread(r, "balance-checkpoint");
+                t.setDaemon(true);
+                return t;
+            }, new ThreadPoolExecutor.DiscardPolicy()); // 밀리면 버림: 다음 원장 기록 때 다시 시도됨
+
+    public BalanceCheckpointService(BalanceCheckpointRepository checkpointRepo, LedgerEntryRepository ledgerRepo,
+                                    WalletRepository walletRepo, LedgerArchive archive, PlatformTransactionManager txManager,
+                                    @Value("${app.ledger.checkpoint.period:P1D}") Duration period,
+                                    @Value("${app.ledger.checkpoint.grace:PT5M}") Duration grace) {
+        this.checkpointRepo = checkpointRepo;
+        this.ledgerRepo = ledgerRepo;
+        this.walletRepo = walletRepo;
+        this.archive = archive;
+        this.tx = new TransactionTemplate(txManager);
+        this.period = period;
+        this.grace = grace;
+    }
+
+    // 원장 기록 직후 호출. 트랜잭션 중이면 커밋 후에 처리
+    public void onEntriesWritten(Collection<Long> walletIds) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override public void afterCommit() { schedule(walletIds); }
+            });
+        } else {
+            schedule(walletIds);
+        }
+    }
+
+    // 시점 잔액: 가장 가까운 이전 체크포인트 + (asOf, at] 원장만 합산
+    public Money balanceAt(Long walletId, String currency, Instant at) {
+        Optional<BalanceCheckpoint> cp = checkpointRepo.findFirstByWalletIdAndAsOfLessThanEqualOrderByAsOfDesc(walletId, at);
+        Instant from = cp.map(BalanceCheckpoint::getAsOf).orElse(Instant.EPOCH);
+        Money base = cp.map(BalanceCheckpoint::getBalance).orElse(Money.zero(currency));
+        return base.plus(Money.of(netChange(walletId, from, at.plus(1, ChronoUnit.MICROS)), currency));
+    }
+
+    // 최소 단위 순변동. horizon 이전은 아카이브, 이후는 핫 테이블 (삭제 중 세그먼트의 행이 양쪽에 있어도 한 번만 합산)
+    private long netChange(Long walletId, Instant from, Instant to) {
+        Instant horizon = archive.horizon();
+        if (horizon == null || !from.isBefore(horizon)) return ledgerRepo.netChange(walletId, from, to);
+        if (!to.isAfter(horizon)) return archive.netChange(walletId, from, to);
+        return Math.addExact(archive.netChange(walletId, from, horizon), ledgerRepo.netChange(walletId, horizon, to));
+    }
+
+    private void schedule(Collection<Long> walletIds) {
+        Instant boundary = closedBoundary();
+        for (Long w : walletIds) {
+            Instant latest = latestByWallet.get(w);
+            if (latest != null && !latest.isBefore(boundary)) continue;
+            if (inFlight.putIfAbsent(w, Boolean.TRUE) != null) continue;
+            try {
+                executor.execute(() -> {
+                    try { ensureCheckpoint(w, boundary); }
+                    catch (Exception e) { log.warn("checkpoint failed wallet={}: {}", w, e.getMessage()); }
+                    finally { inFlight.remove(w); }
+                });
+            } catch (RejectedExecutionException e) {
+                inFlight.remove(w);
+            }
+        }
+    }
+
+    private void ensureCheckpoint(Long walletId, Instant boundary) {
+        Optional<BalanceCheckpoint> prev = checkpointRepo.findFirstByWalletIdAndAsOfLessThanEqualOrderByAsOfDesc(walletId, boundary);
+        if (prev.isPresent() && prev.get().getAsOf().equals(boundary)) {
+            remember(walletId, boundary);
+            return;
+        }
+        Instant from = prev.map(BalanceCheckpoint::getAsOf).orElse(Instant.EPOCH);
+        Money base = prev.map(BalanceCheckpoint::getBalance).orElseGet(() -> Money.zero(currencyOf(walletId)));
+        Money balance = base.plus(Money.of(netChange(walletId, from, boundary), base.currency()));
+        try {
+            tx.executeWithoutResult(s -> checkpointRepo.save(BalanceCheckpoint.builder()
+                    .walletId(walletId).asOf(boundary).balance(balance).createdAt(Instant.now()).build()));
+        } catch (DataIntegrityViolationException dup) {
+            // 다른 노드가 같은 경계를 먼저 만든 경우
+        }
+        remember(walletId, boundary);
+    }
+
+    // 첫 체크포인트만 지갑 통화를 조회 (이후는 이전 체크포인트의 통화)
+    private String currencyOf(Long walletId) {
+        return walletRepo.findById(walletId).map(Wallet::getCurrency).orElse(Money.DEFAULT_CURRENCY);
+    }
+
+    private void remember(Long walletId, Instant boundary) {
+        if (latestByWallet.size() > MAX_TRACKED_WALLETS) latestByWallet.clear();
+        latestByWallet.put(walletId, boundary);
+    }
+
+    // grace 를 뺀 현재 시각 기준, 이미 닫힌 가장 최근 주기 경계
+    private Instant closedBoundary() {
+        long p = period.toMillis();
+        long t = Instant.now().minus(grace).toEpochMilli();
+        return Instant.ofEpochMilli(Math.floorDiv(t, p) * p);
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,128 @@
+package JYBank.JYBank.service.wallet;
+
+import JYBank.JYBank.domain.ledger.LedgerEntry;
+import JYBank.JYBank.domain.money.Money;
+import JYBank.JYBank.dto.WalletDtos.EntryPage;
+import JYBank.JYBank.dto.WalletDtos.EntryRes;
+import JYBank.JYBank.repository.LedgerEntryRepository;
+import JYBank.JYBank.service.ledger.archive.LedgerArchive;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 지갑 원장 이력. 페이지 조회는 (wallet_id, id) keyset, 대량 내보내기는 전진 전용 JDBC 커서로 NDJSON 스트리밍.
+ * 원장 id 는 지갑 잠금 중에 받으므로(LedgerEntryWriter) 지갑 안에서 id 순 = 기록 순이고, 커서 앞에 늦게 커밋된 기록이 끼어들지 않는다.
+ * 샤딩 지갑은 샤드마다 잠금이 달라 샤드 안에서만 그렇다 (다른 샤드의 늦은 커밋이 커서 앞에 올 수 있음).
+ * 스트리밍은 fetch size 단위로만 행을 메모리에 올리므로 건수와 무관하게 메모리가 일정하다.
+ * 아카이브된 과거 원장은 세그먼트 파일에서 읽어 id 순으로 병합한다 (삭제 중 세그먼트와 겹치는 id 는 한 번만).
+ */
+@Service
+public class WalletHistoryService {
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private static final String STREAM_SQL = "select id, direction, amount, balance_after, shard_no, ref_type, ref_id, created_at, currency " +
+            "from ledger_entry where wallet_id = ? and id > ? order by id";
+
+    private final LedgerEntryRepository ledgerRepo;
+    private final LedgerArchive archive;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter rowWriter;
+    private final JdbcTemplate streamJdbc;
+    private final TransactionTemplate readOnlyTx;
+    private final int fetchSize;
+
+    public WalletHistoryService(LedgerEntryRepository ledgerRepo, LedgerArchive archive, ObjectMapper objectMapper,
+                                DataSource dataSource,
+                                PlatformTransactionManager txManager,
+                                @Value("${app.ledger.stream.fetch-size:1000}") int fetchSize) {
+        this.ledgerRepo = ledgerRepo;
+        this.archive = archive;
+        this.fetchSize = fetchSize;
+        this.objectMapper = objectMapper;
+        this.rowWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE); // 버퍼 단위로만 flush
+        this.streamJdbc = new JdbcTemplate(dataSource);
+        this.streamJdbc.setFetchSize(fetchSize);
+        this.readOnlyTx = new TransactionTemplate(txManager);
+        this.readOnlyTx.setReadOnly(true); // PostgreSQL 은 autocommit off 여야 커서(fetch size)가 동작
+    }
+
+    public EntryPage page(Long walletId, long after, int size) {
+        int n = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        List<LedgerEntry> hot = ledgerRepo.findByWalletIdAndIdGreaterThanOrderByIdAsc(walletId, after, Limit.of(n));
+        List<LedgerEntry> cold = archive.entries(walletId, after, n);
+        List<EntryRes> rows = merge(cold, hot, n).stream().map(WalletHistoryService::toRes).toList();
+        Long next = rows.size() == n ? rows.get(n - 1).id() : null;
+        return new EntryPage(rows, next);
+    }
+
+    // 한 줄에 한 건 (application/x-ndjson)
+    public void stream(Long walletId, long after, OutputStream out) {
+        readOnlyTx.executeWithoutResult(s -> {
+            try (JsonGenerator gen = objectMapper.getFactory().createGenerator(out)) {
+                gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                gen.setRootValueSeparator(new SerializedString("\n"));
+                LedgerArchive.Cursor cold = archive.cursor(walletId, after, fetchSize);
+                streamJdbc.query(STREAM_SQL, rs -> {
+                    try {
+                        long id = rs.getLong(1);
+                        writeColdBefore(gen, cold, id);
+                        rowWriter.writeValue(gen, new EntryRes(id, rs.getString(2), Money.of(rs.getLong(3), rs.getString(9)),
+                                Money.of(rs.getLong(4), rs.getString(9)), (Integer) rs.getObject(5), rs.getString(6), rs.getString(7),
+                                rs.getTimestamp(8).toInstant()));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e); // 클라이언트 연결 끊김 → 커서 종료
+                    }
+                }, walletId, after);
+                writeColdBefore(gen, cold, Long.MAX_VALUE);
+                gen.writeRaw('\n');
+                gen.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    // 아카이브 행 중 id 가 핫 행보다 앞서는 것을 먼저 쓴다. 같은 id 는 핫 행이 쓰이므로 건너뜀
+    private void writeColdBefore(JsonGenerator gen, LedgerArchive.Cursor cold, long id) throws IOException {
+        for (LedgerEntry e = cold.peek(); e != null && e.getId() <= id; e = cold.peek()) {
+            cold.next();
+            if (e.getId() < id) rowWriter.writeValue(gen, toRes(e));
+        }
+    }
+
+    // 둘 다 id 오름차순 → 병합 후 앞에서 n 건
+    private static List<LedgerEntry> merge(List<LedgerEntry> cold, List<LedgerEntry> hot, int n) {
+        if (cold.isEmpty()) return hot;
+        List<LedgerEntry> out = new ArrayList<>(Math.min(n, cold.size() + hot.size()));
+        int i = 0, j = 0;
+        while (out.size() < n && (i < cold.size() || j < hot.size())) {
+            if (j == hot.size() || (i < cold.size() && cold.get(i).getId() < hot.get(j).getId())) out.add(cold.get(i++));
+            else {
+                if (i < cold.size() && cold.get(i).getId().equals(hot.get(j).getId())) i++;
+                out.add(hot.get(j++));
+            }
+        }
+        return out;
+    }
+
+    static EntryRes toRes(LedgerEntry e) {
+        return new EntryRes(e.getId(), e.getDirection(), e.getAmount(), e.getBalanceAfter(), e.getShardNo(),
+                e.getRefType(), e.getRefId(), e.getCreatedAt());
+    }
+}
@@ -0,0 +1,46 @@
+package JYBank.JYBank.service.wallet;
+
+import JYBank.JYBank.domain.wallet.Wallet;
+import JYBank.JYBank.dto.WalletDtos.BalanceRes;
+import JYBank.JYBank.repository.WalletRepository;
+import JYBank.JYBank.service.transfer.TransferEngine;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+
+@Service
+public class WalletService {
+    private final WalletRepository walletRepo;
+    private final WalletShardService shards;
+    private final BalanceCheckpointService checkpoints;
+    private final BalanceCache cache;
+    private final TransferEngine engine;
+
+    public WalletService(WalletRepository walletRepo, WalletShardService shards, BalanceCheckpointService checkpoints,
+                         BalanceCache cache, TransferEngine engine) {
+        this.walletRepo = walletRepo; this.shards = shards; this.checkpoints = checkpoints; this.cache = cache; this.engine = engine; }
+
+    // 현재 잔액 (엔진 메모리 → near → Redis → DB 순).
+    // sequencer 엔진은 DB 반영이 비동기라 캐시/DB 가 호출자의 직전 이체보다 늦을 수 있어 엔진 값을 먼저 쓴다
+    public BalanceRes balance(Long walletId) {
+        return engine.liveBalance(walletId)
+                .map(m -> new BalanceRes(walletId, m, m.currency(), Instant.now()))
+                .orElseGet(() -> cache.get(walletId, this::load));
+    }
+
+    // 샤딩 지갑은 서브잔액 합계
+    private BalanceRes load(Long walletId) {
+        Wallet w = find(walletId);
+        return new BalanceRes(walletId, shards.totalBalance(w), w.getCurrency(), Instant.now());
+    }
+
+    // 시점 잔액: 체크포인트 + 꼬리 원장
+    public BalanceRes balanceAt(Long walletId, Instant at) {
+        Wallet w = find(walletId);
+        return new BalanceRes(walletId, checkpoints.balanceAt(walletId, w.getCurrency(), at), w.getCurrency(), at);
+    }
+
+    private Wallet find(Long walletId) {
+        return walletRepo.findById(walletId).orElseThrow(() -> new IllegalArgumentException("WALLET_NOT_FOUND"));
+    }
+}
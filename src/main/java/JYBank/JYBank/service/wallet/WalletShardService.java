@@ -0,0 +1,182 @@
+package JYBank.JYBank.service.wallet;
+
+import JYBank.JYBank.domain.ledger.LedgerEntry;
+import JYBank.JYBank.domain.money.Money;
+import JYBank.JYBank.domain.wallet.Wallet;
+import JYBank.JYBank.domain.wallet.WalletShard;
+import JYBank.JYBank.repository.WalletRepository;
+import JYBank.JYBank.repository.WalletShardRepository;
+import JYBank.JYBank.service.ledger.LedgerEntryWriter;
+import jakarta.transaction.Transactional;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 핫 지갑(가맹점/급여 지갑) 서브잔액 관리.
+ * 입금은 임의 샤드 1개 행만 잠그고, 출금은 임의 샤드 1개 → 실패 시 전체 샤드 스윕 순으로 처리한다.
+ * 한 트랜잭션 안의 샤드 행 잠금은 항상 (wallet_id, shard_no) 순.
+ * 원장의 balanceAfter는 (walletId, shardNo) 단위 잔액이다.
+ */
+@Service
+public class WalletShardService {
+
+    public record ShardPosting(int shardNo, Money amount, Money balanceAfter) {}
+
+    // 이체 1건의 샤드 입금 레그 (legIndex = 요청 레그 순번)
+    public record ShardCredit(int legIndex, Wallet wallet, Money amount) {}
+
+    // debits: 출금 샤드별 차감 내역 (출금 지갑이 일반 지갑이면 비어 있음), credits: legIndex → 입금 샤드
+    public record ShardPostings(List<ShardPosting> debits, Map<Integer, ShardPosting> credits) {}
+
+    private record CreditOp(long walletId, int shardNo, ShardCredit credit) {}
+
+    private static final Comparator<CreditOp> LOCK_ORDER = Comparator.comparingLong(CreditOp::walletId)
+            .thenComparingInt(CreditOp::shardNo).thenComparingInt(op -> op.credit().legIndex());
+
+    private static final String CREDIT_SQL =
+            "update wallet_shard set balance = balance + ?, updated_at = now() where wallet_id = ? and shard_no = ? returning balance";
+
+    private final JdbcTemplate jdbc;
+    private final WalletRepository walletRepo;
+    private final WalletShardRepository shardRepo;
+    private final LedgerEntryWriter ledgerWriter;
+
+    public WalletShardService(JdbcTemplate jdbc, WalletRepository walletRepo,
+                              WalletShardRepository shardRepo, LedgerEntryWriter ledgerWriter) {
+        this.jdbc = jdbc;
+        this.walletRepo = walletRepo;
+        this.shardRepo = shardRepo;
+        this.ledgerWriter = ledgerWriter;
+    }
+
+    /**
+     * 이체 1건의 샤드 행 반영. 입금 샤드를 먼저 정해 두고, 건드리는 샤드 행을 모두 (wallet_id, shard_no) 순으로 갱신한다
+     * → 샤딩 지갑 사이의 A→B, B→A 가 동시에 와도 샤드 행 잠금 순서가 같아 데드락이 생기지 않음.
+     * 호출 전에 일반 지갑 행이 id 순으로 잠겨 있어야 한다 (전 경로 공통: 지갑 행 → 샤드 행).
+     * 출금이 실패하면 앞서 반영한 입금을 되돌린 뒤 예외 → 호출자가 보는 샤드 잔액은 그대로.
+     */
+    public ShardPostings post(Wallet source, Money debit, List<ShardCredit> credits) {
+        List<CreditOp> ops = new ArrayList<>(credits.size());
+        for (ShardCredit c : credits) {
+            ops.add(new CreditOp(c.wallet().getWalletId(), ThreadLocalRandom.current().nextInt(c.wallet().getShardCount()), c));
+        }
+        ops.sort(LOCK_ORDER);
+
+        Map<Integer, ShardPosting> credited = new HashMap<>();
+        List<ShardPosting> debited = List.of();
+        boolean debitPending = source != null;
+        for (CreditOp op : ops) {
+            if (debitPending && op.walletId() > source.getWalletId()) {
+                debited = debitOrUndo(source, debit, credited, ops);
+                debitPending = false;
+            }
+            Long after = jdbc.queryForObject(CREDIT_SQL, Long.class, op.credit().amount().minor(), op.walletId(), op.shardNo());
+            Money balanceAfter = Money.of(after, op.credit().wallet().getCurrency());
+            credited.put(op.credit().legIndex(), new ShardPosting(op.shardNo(), op.credit().amount(), balanceAfter));
+        }
+        if (debitPending) debited = debitOrUndo(source, debit, credited, ops);
+        return new ShardPostings(debited, credited);
+    }
+
+    // 그룹 커밋 배치용: 배치가 건드릴 수 있는 샤드 행 전체를 (wallet_id, shard_no) 순으로 미리 잠금
+    // → 이후 건별 post() 가 어떤 순서로 갱신해도 새로 잠그는 행이 없음
+    public void lockAll(Collection<Long> walletIds) {
+        if (!walletIds.isEmpty()) shardRepo.lockByWalletIds(walletIds);
+    }
+
+    private List<ShardPosting> debitOrUndo(Wallet source, Money amount, Map<Integer, ShardPosting> credited, List<CreditOp> ops) {
+        try {
+            return debit(source, amount);
+        } catch (IllegalArgumentException e) {
+            // 이미 잠근 행만 되돌리므로 새 잠금 없음
+            List<Object[]> args = new ArrayList<>(credited.size());
+            for (CreditOp op : ops) {
+                if (credited.containsKey(op.credit().legIndex())) {
+                    args.add(new Object[]{op.credit().amount().minor(), op.walletId(), op.shardNo()});
+                }
+            }
+            if (!args.isEmpty()) {
+                jdbc.batchUpdate("update wallet_shard set balance = balance - ?, updated_at = now() where wallet_id = ? and shard_no = ?", args);
+            }
+            throw e;
+        }
+    }
+
+    // 출금: 임의 샤드 조건부 차감 → 부족하면 전체 샤드를 shard_no 순으로 잠그고 나눠서 차감
+    // 조건이 맞지 않은 UPDATE 는 행을 잠그지 않으므로, 스윕 시작 시점에 이 지갑의 샤드 행은 하나도 잡혀 있지 않다
+    private List<ShardPosting> debit(Wallet w, Money amount) {
+        int k = w.getShardCount();
+        // 시작 샤드는 매번 임의로: 그룹 커밋 워커처럼 한 쓰레드가 몰아 처리해도 한 샤드만 닳지 않게
+        int local = ThreadLocalRandom.current().nextInt(k);
+        List<Money> hit = jdbc.query(
+                "update wallet_shard set balance = balance - ?, updated_at = now() where wallet_id = ? and shard_no = ? and balance >= ? returning balance",
+                (rs, i) -> Money.of(rs.getLong(1), w.getCurrency()), amount.minor(), w.getWalletId(), local, amount.minor());
+        if (!hit.isEmpty()) return List.of(new ShardPosting(local, amount, hit.get(0)));
+
+        List<ShardPosting> locked = jdbc.query(
+                "select shard_no, balance from wallet_shard where wallet_id = ? order by shard_no for update",
+                (rs, i) -> new ShardPosting(rs.getInt(1), Money.zero(w.getCurrency()), Money.of(rs.getLong(2), w.getCurrency())),
+                w.getWalletId());
+        Money sum = Money.zero(w.getCurrency());
+        for (ShardPosting s : locked) sum = sum.plus(s.balanceAfter());
+        if (sum.isLessThan(amount)) throw new IllegalArgumentException("INSUFFICIENT_BALANCE");
+
+        List<ShardPosting> out = new ArrayList<>();
+        Money remaining = amount;
+        for (ShardPosting s : locked) {
+            if (remaining.signum() == 0) break;
+            Money take = s.balanceAfter().min(remaining);
+            if (take.signum() == 0) continue;
+            out.add(new ShardPosting(s.shardNo(), take, s.balanceAfter().minus(take)));
+            remaining = remaining.minus(take);
+        }
+        List<Object[]> args = new ArrayList<>(out.size());
+        for (ShardPosting p : out) args.add(new Object[]{p.amount().minor(), w.getWalletId(), p.shardNo()});
+        jdbc.batchUpdate("update wallet_shard set balance = balance - ?, updated_at = now() where wallet_id = ? and shard_no = ?", args);
+        return out;
+    }
+
+    // 총잔액: 샤딩 지갑이면 서브잔액 합계 (wallet_id 인덱스 범위 집계)
+    public Money totalBalance(Wallet w) {
+        if (!w.isSharded()) return w.getBalance();
+        return Money.of(jdbc.queryForObject("select cast(coalesce(sum(balance), 0) as bigint) from wallet_shard where wallet_id = ?",
+                Long.class, w.getWalletId()), w.getCurrency());
+    }
+
+    // 일반 지갑 → 샤딩 지갑 전환. 기존 잔액은 0번 샤드로 이전하고 원장에 이전 레그를 남긴다
+    @Transactional
+    public void enableSharding(Long walletId, int shardCount) {
+        if (shardCount < 2) throw new IllegalArgumentException("shardCount는 2 이상");
+        Wallet w = walletRepo.findByIdForUpdate(walletId).orElseThrow(() -> new IllegalArgumentException("WALLET_NOT_FOUND"));
+        if (w.isSharded() || shardRepo.existsByWalletId(walletId)) throw new IllegalStateException("이미 샤딩된 지갑");
+
+        Money balance = w.getBalance();
+        Money zero = Money.zero(w.getCurrency());
+        LocalDateTime now = LocalDateTime.now();
+        List<WalletShard> shards = new ArrayList<>(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            shards.add(WalletShard.builder().walletId(walletId).shardNo(i)
+                    .balance(i == 0 ? balance : zero).updatedAt(now).build());
+        }
+        shardRepo.saveAllAndFlush(shards);
+
+        if (balance.signum() > 0) {
+            String refId = String.valueOf(walletId);
+            LedgerEntry out = new LedgerEntry();
+            out.setWalletId(walletId); out.setDirection("debit");
+            out.setAmount(balance); out.setBalanceAfter(zero);
+            out.setRefType("SHARD_SPLIT"); out.setRefId(refId);
+            LedgerEntry in = new LedgerEntry();
+            in.setWalletId(walletId); in.setDirection("credit"); in.setShardNo(0);
+            in.setAmount(balance); in.setBalanceAfter(balance);
+            in.setRefType("SHARD_SPLIT"); in.setRefId(refId);
+            ledgerWriter.insert(List.of(out, in)); // 지갑 행 잠금 중
+        }
+        w.setBalance(zero);
+        w.setShardCount(shardCount);
+    }
+}
@@ -0,0 +1,38 @@
+package JYBank.JYBank.support.audit;
+
+import java.time.Instant;
+
+/**
+ * 아직 기록되지 않은 감사 성공 이벤트 (action + 주체).
+ * AuditAspect 가 @Auditable 메서드 실행 동안 요청 쓰레드에 걸어 둔다.
+ * 트랜잭션을 직접 여는 코드(이체 엔진)는 take() 로 가져가 자기 트랜잭션의 outbox 에 업무 변경과 함께 기록하고,
+ * 아무도 가져가지 않으면 AuditAspect 가 메서드 반환 후 기록한다.
+ */
+public record PendingAudit(String action, String principal) {
+    private static final ThreadLocal<PendingAudit> CURRENT = new ThreadLocal<>();
+
+    public AuditEvent success(String reference) {
+        return new AuditEvent(action, "SUCCESS", principal, reference, "ok", Instant.now());
+    }
+
+    // 요청 쓰레드에서 호출. 가져간 쪽이 기록 책임을 진다 (없으면 null)
+    public static PendingAudit take() {
+        PendingAudit a = CURRENT.get();
+        CURRENT.remove();
+        return a;
+    }
+
+    public static PendingAudit current() { return CURRENT.get(); }
+
+    // 이전 값을 돌려주므로 중첩 호출은 restore(이전 값) 으로 되돌린다
+    public static PendingAudit bind(PendingAudit a) {
+        PendingAudit prev = CURRENT.get();
+        CURRENT.set(a);
+        return prev;
+    }
+
+    public static void restore(PendingAudit prev) {
+        if (prev == null) CURRENT.remove();
+        else CURRENT.set(prev);
+    }
+}
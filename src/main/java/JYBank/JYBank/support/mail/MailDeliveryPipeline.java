@@ -0,0 +1,212 @@
+package JYBank.JYBank.support.mail;
+
+import JYBank.JYBank.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * SMTP 발송 파이프라인.
+ * - 크기 queue 의 대기열. 가득 차면 submit 이 바로 503 (ServiceOverloadedException) → 메일 폭주가 힙을 채우지 않음
+ * - 워커 connections 개가 각자 SMTP 연결(Transport) 하나를 재사용해 대기열에서 최대 batch 건씩 꺼내 연속 발송.
+ *   idle 동안 일이 없으면 연결을 닫는다
+ * - 일시 실패(연결 끊김, 4xx)는 full jitter 지수 백오프로 max-attempts 까지 재시도, 수신 주소 거부(5xx)와
+ *   메시지 구성 중 런타임 예외는 재시도하지 않고 실패로 센다
+ * - 메트릭: mail.queue 대기 건수, mail.send 건당 발송 시간, mail.sent / mail.failed / mail.retried / mail.rejected,
+ *   mail.connections.opened
+ * 대기열은 메모리에만 있으므로 재기동 시 남은 메일은 유실된다 (인증/재설정 메일은 사용자가 다시 요청).
+ */
+@Component
+@Slf4j
+public class MailDeliveryPipeline {
+    record Outgoing(String to, String subject, String html, String text, int attempt) {
+        Outgoing next() { return new Outgoing(to, subject, html, text, attempt + 1); }
+    }
+
+    private final JavaMailSenderImpl sender;
+    private final MeterRegistry meters;
+    private final ScheduledExecutorService retries = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "mail-retry");
+        t.setDaemon(true);
+        return t;
+    });
+    private final List<Thread> workers = new ArrayList<>();
+    private BlockingQueue<Outgoing> queue;
+    private volatile boolean running;
+
+    private Timer sendTimer;
+    private Counter sent, failed, retried, rejected, opened;
+
+    @Value("${app.mail.from}") private String from;
+    @Value("${app.mail.pipeline.queue:1000}") private int capacity;
+    @Value("${app.mail.pipeline.connections:2}") private int connections;
+    @Value("${app.mail.pipeline.batch:50}") private int batch;
+    @Value("${app.mail.pipeline.idle:PT30S}") private Duration idle;
+    @Value("${app.mail.pipeline.max-attempts:5}") private int maxAttempts;
+    @Value("${app.mail.pipeline.backoff:PT1S}") private Duration backoff;
+    @Value("${app.mail.pipeline.max-backoff:PT1M}") private Duration maxBackoff;
+    @Value("${app.mail.pipeline.retry-after-seconds:5}") private long retryAfterSeconds;
+
+    public MailDeliveryPipeline(JavaMailSender sender, MeterRegistry meters) {
+        if (!(sender instanceof JavaMailSenderImpl impl)) {
+            throw new IllegalStateException("MailDeliveryPipeline requires JavaMailSenderImpl (spring.mail.*)");
+        }
+        this.sender = impl;
+        this.meters = meters;
+    }
+
+    @PostConstruct
+    void start() {
+        queue = new ArrayBlockingQueue<>(capacity);
+        sendTimer = Timer.builder("mail.send").register(meters);
+        sent = Counter.builder("mail.sent").register(meters);
+        failed = Counter.builder("mail.failed").register(meters);
+        retried = Counter.builder("mail.retried").register(meters);
+        rejected = Counter.builder("mail.rejected").register(meters);
+        opened = Counter.builder("mail.connections.opened").register(meters);
+        Gauge.builder("mail.queue", queue, BlockingQueue::size).register(meters);
+
+        running = true;
+        for (int i = 0; i < connections; i++) {
+            Thread t = new Thread(this::work, "mail-sender-" + (i + 1));
+            t.setDaemon(true);
+            t.start();
+            workers.add(t);
+        }
+    }
+
+    public void submit(String to, String subject, String html, String text) {
+        if (!queue.offer(new Outgoing(to, subject, html, text, 0))) {
+            rejected.increment();
+            throw new ServiceOverloadedException("메일 발송 요청이 많습니다. 잠시 후 다시 시도해 주세요.", retryAfterSeconds);
+        }
+    }
+
+    private void work() {
+        Transport transport = null;
+        List<Outgoing> drained = new ArrayList<>(batch);
+        while (running) {
+            try {
+                Outgoing first = queue.poll(idle.toMillis(), TimeUnit.MILLISECONDS);
+                if (first == null) { // 한가함 → 연결 반납
+                    transport = close(transport);
+                    continue;
+                }
+                drained.add(first);
+                queue.drainTo(drained, batch - 1);
+            } catch (InterruptedException e) {
+                break;
+            }
+            // 배치 시작 때만 연결 확인 (isConnected 는 NOOP 왕복), 배치 안에서는 실패 시 재연결
+            if (transport != null && !transport.isConnected()) transport = close(transport);
+            for (Outgoing m : drained) {
+                try {
+                    if (transport == null) transport = connect();
+                    long t0 = System.nanoTime();
+                    deliver(transport, m);
+                    sendTimer.record(System.nanoTime() - t0, TimeUnit.NANOSECONDS);
+                    sent.increment();
+                } catch (SendFailedException e) {
+                    if (permanent(e)) {
+                        failed.increment();
+                        log.error("Mail rejected: to={}, subject={}, err={}", m.to(), m.subject(), e.getMessage());
+                    } else {
+                        retry(m, e);
+                    }
+                } catch (MessagingException e) {
+                    transport = close(transport); // 연결 상태를 알 수 없으므로 새로 연결
+                    retry(m, e);
+                } catch (RuntimeException e) {
+                    // 잘못된 주소 등 MimeMessageHelper / Transport 의 런타임 예외: 재시도해도 같으므로 실패 처리.
+                    // 워커 쓰레드(= SMTP 연결 하나)가 죽지 않게 여기서 끊는다
+                    transport = close(transport);
+                    failed.increment();
+                    log.error("Mail send failed: to={}, subject={}", m.to(), m.subject(), e);
+                }
+            }
+            drained.clear();
+        }
+        close(transport);
+    }
+
+    private Transport connect() throws MessagingException {
+        Transport t = sender.getSession().getTransport(sender.getProtocol() == null ? "smtp" : sender.getProtocol());
+        t.connect(sender.getHost(), sender.getPort(), sender.getUsername(), sender.getPassword());
+        opened.increment();
+        return t;
+    }
+
+    private void deliver(Transport transport, Outgoing m) throws MessagingException {
+        MimeMessage msg = sender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(msg, true, "UTF-8");
+        helper.setFrom(from);
+        helper.setTo(m.to());
+        helper.setSubject(m.subject());
+        helper.setText(m.text(), m.html()); // text/plain + text/html
+        msg.saveChanges();
+        transport.sendMessage(msg, msg.getAllRecipients());
+        log.info("Mail sent: to={}, subject={}", m.to(), m.subject());
+    }
+
+    // 받는 주소 자체가 거부됨(5xx) → 다시 보내도 같은 결과
+    private static boolean permanent(SendFailedException e) {
+        return e.getInvalidAddresses() != null && e.getInvalidAddresses().length > 0
+                && (e.getValidUnsentAddresses() == null || e.getValidUnsentAddresses().length == 0);
+    }
+
+    private void retry(Outgoing m, Exception cause) {
+        if (m.attempt() + 1 >= maxAttempts) {
+            failed.increment();
+            log.error("Mail send failed: to={}, subject={}, attempts={}, err={}", m.to(), m.subject(), m.attempt() + 1, cause.getMessage());
+            return;
+        }
+        retried.increment();
+        // full jitter: [0, min(max-backoff, backoff × 2^attempt))
+        long cap = Math.min(maxBackoff.toMillis(), backoff.toMillis() << Math.min(m.attempt(), 20));
+        long delay = ThreadLocalRandom.current().nextLong(Math.max(1, cap));
+        log.warn("Mail send retry in {}ms: to={}, attempt={}, err={}", delay, m.to(), m.attempt() + 1, cause.getMessage());
+        retries.schedule(() -> {
+            if (!queue.offer(m.next())) {
+                failed.increment();
+                log.error("Mail dropped (queue full on retry): to={}, subject={}", m.to(), m.subject());
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private static Transport close(Transport t) {
+        if (t != null) {
+            try {
+                t.close();
+            } catch (MessagingException e) {
+                log.debug("SMTP close failed: {}", e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        workers.forEach(Thread::interrupt);
+        retries.shutdownNow();
+        if (!queue.isEmpty()) log.warn("Mail pipeline stopped with {} undelivered messages", queue.size());
+    }
+}
@@ -0,0 +1,67 @@
+package JYBank.JYBank.support.mail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 미리 컴파일한 메일 템플릿. {{name}} 자리표시자를 기동 시 한 번 잘라 (고정 조각, 변수 번호) 배열로 두고,
+ * 발송 시에는 StringBuilder 에 이어 붙이기만 한다 (String.formatted 의 포맷 파싱 없음).
+ * html=true 로 렌더링하면 값은 HTML 이스케이프.
+ */
+final class MailTemplate {
+    private final String[] literals; // literals.length == slots.length + 1
+    private final int[] slots;       // 각 자리의 변수 번호 (names 순서)
+    private final int baseLength;
+
+    private MailTemplate(String[] literals, int[] slots) {
+        this.literals = literals;
+        this.slots = slots;
+        this.baseLength = Arrays.stream(literals).mapToInt(String::length).sum();
+    }
+
+    static MailTemplate compile(String source, String... names) {
+        List<String> lits = new ArrayList<>();
+        List<Integer> idx = new ArrayList<>();
+        int pos = 0;
+        while (true) {
+            int open = source.indexOf("{{", pos);
+            if (open < 0) break;
+            int close = source.indexOf("}}", open);
+            if (close < 0) throw new IllegalArgumentException("unclosed placeholder at " + open);
+            String name = source.substring(open + 2, close).trim();
+            int slot = Arrays.asList(names).indexOf(name);
+            if (slot < 0) throw new IllegalArgumentException("unknown placeholder: " + name);
+            lits.add(source.substring(pos, open));
+            idx.add(slot);
+            pos = close + 2;
+        }
+        lits.add(source.substring(pos));
+        return new MailTemplate(lits.toArray(String[]::new), idx.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    // values: compile 의 names 순서
+    String render(boolean html, String... values) {
+        StringBuilder sb = new StringBuilder(baseLength + 64 * slots.length);
+        for (int i = 0; i < slots.length; i++) {
+            sb.append(literals[i]);
+            String v = values[slots[i]];
+            if (html) escape(sb, v); else sb.append(v);
+        }
+        return sb.append(literals[slots.length]).toString();
+    }
+
+    private static void escape(StringBuilder sb, String v) {
+        for (int i = 0; i < v.length(); i++) {
+            char c = v.charAt(i);
+            switch (c) {
+                case '&' -> sb.append("&amp;");
+                case '<' -> sb.append("&lt;");
+                case '>' -> sb.append("&gt;");
+                case '"' -> sb.append("&quot;");
+                case '\'' -> sb.append("&#39;");
+                default -> sb.append(c);
+            }
+        }
+    }
+}
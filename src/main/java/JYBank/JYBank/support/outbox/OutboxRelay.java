@@ -0,0 +1,110 @@
+package JYBank.JYBank.support.outbox;
+
+import JYBank.JYBank.domain.outbox.OutboxEvent;
+import JYBank.JYBank.repository.OutboxEventRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.mapping.AbstractJavaTypeMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 아웃박스 릴레이. 짧은 트랜잭션으로 배치를 선점(FOR UPDATE SKIP LOCKED → claimed_by/claimed_at 기록 후 커밋)하고,
+ * 트랜잭션 밖에서 일괄 전송 → 전송 확인된 행만 삭제. Kafka 응답을 기다리는 동안 DB 트랜잭션/행 잠금을 쥐지 않는다.
+ * 전송 실패한 행은 선점을 풀어 다음 폴링에서 재전송하고, 릴레이가 죽으면 claim-timeout 뒤 다른 노드가 가져간다
+ * (at-least-once, 소비자는 eventId로 멱등 처리).
+ * payload_type 은 __TypeId__ 헤더로 실어 JsonSerializer 로 직접 보내던 때와 같은 헤더를 유지한다.
+ */
+@Component
+@ConditionalOnProperty(name = "app.outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class OutboxRelay {
+    private final OutboxEventRepository repo;
+    private final KafkaTemplate<String, String> kafka;
+    private final TransactionTemplate tx;
+    private final String node = UUID.randomUUID().toString(); // 선점 주체 (재기동하면 새 값)
+
+    @Value("${app.outbox.batch-size:500}") private int batchSize;
+    @Value("${app.outbox.send-timeout-ms:10000}") private long sendTimeoutMs;
+    @Value("${app.outbox.claim-timeout-ms:60000}") private long claimTimeoutMs; // send-timeout 보다 길게
+
+    public OutboxRelay(OutboxEventRepository repo, KafkaTemplate<String, String> outboxKafkaTemplate,
+                       PlatformTransactionManager txManager) {
+        this.repo = repo;
+        this.kafka = outboxKafkaTemplate;
+        this.tx = new TransactionTemplate(txManager);
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.poll-ms:200}")
+    public void relay() {
+        try {
+            int n;
+            do {
+                n = relayBatch();
+            } while (n == batchSize); // 밀려 있으면 바로 다음 배치
+        } catch (Exception e) {
+            log.warn("outbox relay failed: {}", e.getMessage());
+        }
+    }
+
+    private int relayBatch() {
+        Instant now = Instant.now();
+        List<OutboxEvent> batch = tx.execute(s -> {
+            List<OutboxEvent> b = repo.lockBatch(batchSize, now.minusMillis(claimTimeoutMs));
+            if (!b.isEmpty()) repo.claim(ids(b), node, now);
+            return b;
+        });
+        if (batch == null || batch.isEmpty()) return 0;
+
+        List<CompletableFuture<?>> sends = new ArrayList<>(batch.size());
+        for (OutboxEvent e : batch) sends.add(kafka.send(record(e)));
+        kafka.flush();
+        try {
+            CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception ignored) {
+            // 건별로 아래에서 판정
+        }
+
+        List<Long> sent = new ArrayList<>(batch.size());
+        List<Long> failed = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            CompletableFuture<?> f = sends.get(i);
+            (f.isDone() && !f.isCompletedExceptionally() ? sent : failed).add(batch.get(i).getId());
+        }
+        if (!sent.isEmpty()) tx.executeWithoutResult(s -> repo.deleteAllByIdInBatch(sent));
+        if (!failed.isEmpty()) {
+            tx.executeWithoutResult(s -> repo.release(failed, node)); // 미확인 건은 중복 전송될 수 있음 (at-least-once)
+            throw new IllegalStateException("outbox publish failed: " + failed.size() + "/" + batch.size());
+        }
+        return batch.size();
+    }
+
+    private static ProducerRecord<String, String> record(OutboxEvent e) {
+        ProducerRecord<String, String> r = new ProducerRecord<>(e.getTopic(), e.getMsgKey(), e.getPayload());
+        if (e.getPayloadType() != null) {
+            r.headers().add(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME, e.getPayloadType().getBytes(StandardCharsets.UTF_8));
+        }
+        return r;
+    }
+
+    private static List<Long> ids(List<OutboxEvent> events) {
+        List<Long> ids = new ArrayList<>(events.size());
+        for (OutboxEvent e : events) ids.add(e.getId());
+        return ids;
+    }
+}
@@ -0,0 +1,50 @@
+package JYBank.JYBank.support.outbox;
+
+import JYBank.JYBank.domain.outbox.OutboxEvent;
+import JYBank.JYBank.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+
+@Service
+public class OutboxService {
+    private final OutboxEventRepository repo;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate requiresNew;
+
+    public OutboxService(OutboxEventRepository repo, ObjectMapper objectMapper, PlatformTransactionManager txManager) {
+        this.repo = repo;
+        this.objectMapper = objectMapper;
+        this.requiresNew = new TransactionTemplate(txManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // 진행 중인 트랜잭션이 있으면 거기에 합류(함께 커밋/롤백), 없으면 단독 트랜잭션
+    public void append(String topic, String key, Object payload) {
+        OutboxEvent e = event(topic, key, payload);
+        if (TransactionSynchronizationManager.isActualTransactionActive()) repo.save(e);
+        else requiresNew.executeWithoutResult(s -> repo.save(e));
+    }
+
+    // 바깥 트랜잭션이 롤백돼도 남아야 하는 이벤트(실패 감사 등)
+    public void appendDetached(String topic, String key, Object payload) {
+        OutboxEvent e = event(topic, key, payload);
+        requiresNew.executeWithoutResult(s -> repo.save(e));
+    }
+
+    private OutboxEvent event(String topic, String key, Object payload) {
+        try {
+            return OutboxEvent.builder().topic(topic).msgKey(key)
+                    .payload(objectMapper.writeValueAsString(payload)).payloadType(payload.getClass().getName())
+                    .createdAt(Instant.now()).build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("outbox payload 직렬화 실패", e);
+        }
+    }
+}
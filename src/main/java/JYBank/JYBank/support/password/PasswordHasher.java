@@ -0,0 +1,118 @@
+package JYBank.JYBank.support.password;
+
+import JYBank.JYBank.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 비밀번호 해시(BCrypt, 건당 ~100ms CPU) 전용 실행기. 로그인 폭주가 Tomcat 워커를 다 잡아 이체 요청이 굶지 않게 격리한다.
+ * - 스레드 threads 개(기본 코어/2) + 크기 queue 의 대기열. 가득 차면 즉시 503 (ServiceOverloadedException)
+ * - 대기열에서 timeout 을 넘긴 작업은 해시하지 않고 버림 (클라이언트가 이미 포기했을 요청에 CPU 를 쓰지 않음)
+ * - 메트릭: auth.password.hash(op=encode|matches) 실행 시간, auth.password.hash.wait 대기 시간,
+ *   auth.password.hash.queue 대기 건수, auth.password.hash.active 실행 중, auth.password.hash.rejected 거절 수
+ */
+@Component
+public class PasswordHasher {
+    private final PasswordEncoder encoder;
+    private final ThreadPoolExecutor pool;
+    private final Duration timeout;
+    private final long retryAfterSeconds;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Timer waitTimer;
+    private final Counter rejected;
+
+    public PasswordHasher(PasswordEncoder encoder, MeterRegistry meters,
+                          @Value("${app.auth.hashing.threads:0}") int threads,
+                          @Value("${app.auth.hashing.queue:64}") int queue,
+                          @Value("${app.auth.hashing.timeout:PT5S}") Duration timeout,
+                          @Value("${app.auth.hashing.retry-after-seconds:1}") long retryAfterSeconds) {
+        this.encoder = encoder;
+        this.timeout = timeout;
+        this.retryAfterSeconds = retryAfterSeconds;
+        int n = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger seq = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(n, n, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queue), r -> {
+            Thread t = new Thread(r, "pw-hash-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }, new ThreadPoolExecutor.AbortPolicy());
+
+        this.encodeTimer = Timer.builder("auth.password.hash").tag("op", "encode").register(meters);
+        this.matchesTimer = Timer.builder("auth.password.hash").tag("op", "matches").register(meters);
+        this.waitTimer = Timer.builder("auth.password.hash.wait").register(meters);
+        this.rejected = Counter.builder("auth.password.hash.rejected").register(meters);
+        Gauge.builder("auth.password.hash.queue", pool, p -> p.getQueue().size()).register(meters);
+        Gauge.builder("auth.password.hash.active", pool, ThreadPoolExecutor::getActiveCount).register(meters);
+    }
+
+    public CompletableFuture<Boolean> matches(CharSequence raw, String hash) {
+        return submit(matchesTimer, () -> encoder.matches(raw, hash));
+    }
+
+    public CompletableFuture<String> encodeAsync(CharSequence raw) {
+        return submit(encodeTimer, () -> encoder.encode(raw));
+    }
+
+    // 트랜잭션 안처럼 결과를 바로 써야 하는 곳용. 해시는 전용 스레드에서, 호출 스레드는 대기만
+    public String encode(CharSequence raw) {
+        try {
+            return encodeAsync(raw).get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw overloaded();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("password hashing interrupted");
+        }
+    }
+
+    private <T> CompletableFuture<T> submit(Timer timer, Supplier<T> work) {
+        CompletableFuture<T> f = new CompletableFuture<>();
+        long queuedAt = System.nanoTime();
+        try {
+            pool.execute(() -> {
+                long start = System.nanoTime();
+                waitTimer.record(start - queuedAt, TimeUnit.NANOSECONDS);
+                if (start - queuedAt > timeout.toNanos()) {
+                    rejected.increment();
+                    f.completeExceptionally(overloaded());
+                    return;
+                }
+                try {
+                    f.complete(work.get());
+                } catch (Throwable t) {
+                    f.completeExceptionally(t);
+                } finally {
+                    timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw overloaded();
+        }
+        return f;
+    }
+
+    private ServiceOverloadedException overloaded() {
+        return new ServiceOverloadedException("요청이 많아 처리할 수 없습니다. 잠시 후 다시 시도해 주세요.", retryAfterSeconds);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdown();
+    }
+}
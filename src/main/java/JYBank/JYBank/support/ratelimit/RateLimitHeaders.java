@@ -0,0 +1,15 @@
+package JYBank.JYBank.support.ratelimit;
+
+import java.util.function.BiConsumer;
+
+// IETF RateLimit 헤더 초안 형식 (RateLimit-Limit / -Remaining / -Reset) + 거절 시 Retry-After
+public final class RateLimitHeaders {
+    private RateLimitHeaders() {}
+
+    public static void write(BiConsumer<String, String> header, RateLimiter.Decision d) {
+        header.accept("RateLimit-Limit", String.valueOf(d.limit()));
+        header.accept("RateLimit-Remaining", String.valueOf(d.remaining()));
+        header.accept("RateLimit-Reset", String.valueOf(d.resetSeconds()));
+        if (!d.allowed()) header.accept("Retry-After", String.valueOf(Math.max(1, d.retryAfterSeconds())));
+    }
+}
@@ -0,0 +1,236 @@
+package JYBank.JYBank.support.ratelimit;
+
+import JYBank.JYBank.support.ratelimit.RedisTokenStore.Grant;
+import JYBank.JYBank.support.ratelimit.RedisTokenStore.GrantAndClaim;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 2단 레이트리밋: 전역 한도는 Redis(RedisTokenStore), 요청 경로는 가능한 한 프로세스 안에서 끝낸다.
+ * - 키마다 Redis 에서 토큰을 lease 개씩 묶어 임대 → 스트라이프된 로컬 버킷에서 CAS 로 소비 (Redis 왕복은 lease 건당 1회)
+ *   lease = clamp(limit × lease.fraction, 1, lease.max). 1 이면(작은 한도) 매 요청 Redis 판정 그대로
+ * - 임대분은 lease.ttl 동안만 쓰고, 남은 토큰은 주기적으로 Redis 에 반납
+ * - 거절 결과는 retryAfter 까지 로컬에서 바로 거절 (남용 키가 Redis 를 두드리지 않게)
+ * 정확도: 토큰은 Redis 에서 먼저 차감되므로 전역 초과 허용은 없고, 다른 노드에 묶인 미사용분(노드 수 × lease) 만큼 덜 허용될 수 있다.
+ * Redis 장애 시 redis-retry 동안 로컬 전용 GCRA(limit / local-fallback.nodes)로 판정하고 요청을 실패시키지 않는다.
+ * acquireAndClaim: 멱등 키 선점을 같은 Redis 왕복에 얹음 (임대 토큰으로 통과하면 선점 스크립트만, 아니면 take + 선점 스크립트 1회)
+ */
+@Component
+@Slf4j
+public class RateLimiter {
+    private static final int STRIPES = Integer.highestOneBit(Math.max(1, Math.min(8, Runtime.getRuntime().availableProcessors())));
+
+    // reset/retryAfter 는 초 단위 올림 (RateLimit-Reset, Retry-After 헤더 값)
+    public record Decision(boolean allowed, long limit, long remaining, long resetSeconds, long retryAfterSeconds) {}
+
+    // 멱등 키 선점 결과. claimed=false 면 current 가 기존 값 (빈 문자열 = 사이에 만료/삭제)
+    public record Claim(boolean claimed, String current) {}
+
+    // 거절이거나 Redis 장애면 claim 은 null
+    public record Guarded(Decision decision, Claim claim) {}
+
+    private final RedisTokenStore store;
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final Map<String, LocalGcra> fallback = new ConcurrentHashMap<>();
+    private volatile long redisDownUntilNanos;
+
+    @Value("${app.ratelimit.lease.enabled:true}") private boolean leaseEnabled;
+    @Value("${app.ratelimit.lease.fraction:0.1}") private double leaseFraction;
+    @Value("${app.ratelimit.lease.max:20}") private long leaseMax;
+    @Value("${app.ratelimit.lease.ttl:PT1S}") private Duration leaseTtl;
+    @Value("${app.ratelimit.local-fallback.nodes:1}") private int fallbackNodes; // 로컬 전용 시 노드당 몫 = limit / nodes
+    @Value("${app.ratelimit.redis-retry:PT5S}") private Duration redisRetry;
+
+    public RateLimiter(RedisTokenStore store) { this.store = store; }
+
+    // period 동안 limit 건 허용
+    public Decision acquire(String key, long limit, Duration period) {
+        long now = System.nanoTime();
+        if (now - redisDownUntilNanos < 0) return local(key, limit, period, now);
+
+        Bucket b = buckets.computeIfAbsent(key, k -> new Bucket(limit, period));
+        Decision denied = b.denied;
+        if (denied != null && now - b.deniedUntilNanos < 0) return denied;
+        if (now - b.expiresAtNanos < 0 && b.tryTake()) {
+            return new Decision(true, limit, b.remoteRemaining + b.available(), b.resetSeconds, 0);
+        }
+
+        try {
+            return apply(b, store.take(key, limit, period, leaseSize(limit)), now);
+        } catch (DataAccessException e) {
+            return storeDown(e, key, limit, period, now);
+        }
+    }
+
+    // 레이트리밋 판정 + 멱등 키(claimKey) 선점을 Redis 왕복 1회로
+    public Guarded acquireAndClaim(String key, long limit, Duration period, String claimKey, String token, Duration lock) {
+        long now = System.nanoTime();
+        if (now - redisDownUntilNanos < 0) return new Guarded(local(key, limit, period, now), null);
+
+        Bucket b = buckets.computeIfAbsent(key, k -> new Bucket(limit, period));
+        Decision denied = b.denied;
+        if (denied != null && now - b.deniedUntilNanos < 0) return new Guarded(denied, null);
+        if (now - b.expiresAtNanos < 0 && b.tryTake()) {
+            Decision d = new Decision(true, limit, b.remoteRemaining + b.available(), b.resetSeconds, 0);
+            try {
+                return new Guarded(d, store.claim(claimKey, token, lock));
+            } catch (DataAccessException e) {
+                storeDown(e, key, limit, period, now);
+                return new Guarded(d, null);
+            }
+        }
+        try {
+            GrantAndClaim gc = store.takeAndClaim(key, limit, period, leaseSize(limit), claimKey, token, lock);
+            return new Guarded(apply(b, gc.grant(), now), gc.claim());
+        } catch (DataAccessException e) {
+            return new Guarded(storeDown(e, key, limit, period, now), null);
+        }
+    }
+
+    private Decision apply(Bucket b, Grant g, long now) {
+        long limit = b.limit;
+        long reset = seconds(g.resetMicros());
+        if (g.granted() == 0) {
+            Decision d = new Decision(false, limit, 0, reset, seconds(g.retryAfterMicros()));
+            b.denied = d;
+            b.deniedUntilNanos = now + g.retryAfterMicros() * 1000;
+            return d;
+        }
+        b.remoteRemaining = g.remaining();
+        b.resetSeconds = reset;
+        if (g.granted() > 1) {
+            b.deposit(g.granted() - 1); // 1개는 이 요청이 사용
+            b.expiresAtNanos = now + leaseTtl.toNanos();
+        }
+        return new Decision(true, limit, g.remaining() + b.available(), reset, 0);
+    }
+
+    // 임대 기간이 지난 토큰 반납 + 쓰이지 않는 버킷 정리
+    @Scheduled(fixedDelayString = "${app.ratelimit.lease.sweep-ms:1000}")
+    public void sweep() {
+        long now = System.nanoTime();
+        buckets.forEach((key, b) -> {
+            if (now - b.expiresAtNanos < 0) return;
+            giveBack(key, b);
+            // 제거와 동시에 입금한 스레드의 토큰은 반납되지 않음 → 덜 허용될 뿐 초과는 없음
+            if (now - b.deniedUntilNanos >= 0 && b.available() == 0) buckets.remove(key, b);
+        });
+        fallback.entrySet().removeIf(e -> e.getValue().idle(now));
+    }
+
+    @PreDestroy
+    void returnAll() {
+        buckets.forEach(this::giveBack);
+    }
+
+    private void giveBack(String key, Bucket b) {
+        long left = b.drain();
+        if (left == 0 || System.nanoTime() - redisDownUntilNanos < 0) return;
+        try {
+            store.giveBack(key, b.limit, b.period, left);
+        } catch (DataAccessException e) {
+            log.debug("rate limit lease return failed key={}: {}", key, e.getMessage()); // 창/TAT 가 지나면 자연 회복
+        }
+    }
+
+    private Decision storeDown(DataAccessException e, String key, long limit, Duration period, long now) {
+        redisDownUntilNanos = now + redisRetry.toNanos();
+        log.warn("rate limit store unavailable, local-only for {}: {}", redisRetry, e.getMessage());
+        return local(key, limit, period, now);
+    }
+
+    private long leaseSize(long limit) {
+        if (!leaseEnabled) return 1;
+        return Math.max(1, Math.min(leaseMax, (long) (limit * leaseFraction)));
+    }
+
+    private Decision local(String key, long limit, Duration period, long now) {
+        long share = Math.max(1, (limit + fallbackNodes - 1) / fallbackNodes);
+        return fallback.computeIfAbsent(key, k -> new LocalGcra(share, period)).acquire(now);
+    }
+
+    private static long seconds(long micros) { return (micros + 999_999) / 1_000_000; }
+
+    // 임대 토큰: 스트라이프마다 카운터 하나, 스레드별 시작 칸부터 CAS 로 차감 (잠금 없음)
+    private static final class Bucket {
+        final long limit;
+        final Duration period;
+        final AtomicLongArray stripes = new AtomicLongArray(STRIPES);
+        volatile long expiresAtNanos = System.nanoTime();
+        volatile long remoteRemaining;
+        volatile long resetSeconds;
+        volatile Decision denied;
+        volatile long deniedUntilNanos = System.nanoTime();
+
+        Bucket(long limit, Duration period) { this.limit = limit; this.period = period; }
+
+        boolean tryTake() {
+            int start = (int) Thread.currentThread().getId() & (STRIPES - 1);
+            for (int i = 0; i < STRIPES; i++) {
+                int s = (start + i) & (STRIPES - 1);
+                for (long v = stripes.get(s); v > 0; v = stripes.get(s)) {
+                    if (stripes.compareAndSet(s, v, v - 1)) return true;
+                }
+            }
+            return false;
+        }
+
+        void deposit(long n) {
+            for (int s = 0; s < STRIPES; s++) {
+                long part = n / STRIPES + (s < n % STRIPES ? 1 : 0);
+                if (part > 0) stripes.addAndGet(s, part);
+            }
+        }
+
+        long drain() {
+            long sum = 0;
+            for (int s = 0; s < STRIPES; s++) sum += stripes.getAndSet(s, 0);
+            return sum;
+        }
+
+        long available() {
+            long sum = 0;
+            for (int s = 0; s < STRIPES; s++) sum += stripes.get(s);
+            return sum;
+        }
+    }
+
+    // Redis 장애 시 로컬 전용 GCRA (TAT 하나를 CAS 로 갱신)
+    private static final class LocalGcra {
+        final long limit;
+        final long intervalNanos;
+        final AtomicLong tat = new AtomicLong(System.nanoTime());
+
+        LocalGcra(long limit, Duration period) {
+            this.limit = limit;
+            this.intervalNanos = Math.max(1, period.toNanos() / limit);
+        }
+
+        Decision acquire(long now) {
+            while (true) {
+                long cur = tat.get();
+                long t = now - cur > 0 ? now : cur;
+                long avail = (now + intervalNanos * limit - t) / intervalNanos;
+                if (avail < 1) {
+                    return new Decision(false, limit, 0, seconds((t - now) / 1000),
+                            seconds((t - intervalNanos * (limit - 1) - now) / 1000));
+                }
+                if (tat.compareAndSet(cur, t + intervalNanos)) {
+                    return new Decision(true, limit, avail - 1, seconds((t + intervalNanos - now) / 1000), 0);
+                }
+            }
+        }
+
+        boolean idle(long now) { return now - tat.get() > 0; }
+    }
+}
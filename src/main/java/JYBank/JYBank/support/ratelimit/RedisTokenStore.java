@@ -0,0 +1,158 @@
+package JYBank.JYBank.support.ratelimit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 레이트리밋 전역 상태 (Redis). 판정 + 기록 + TTL 을 Lua 1회(왕복 1번)로 원자 처리하고, 시각은 Redis TIME 기준.
+ * take 는 최대 n 개까지 한 번에 가져가고(로컬 임대), giveBack 으로 쓰지 않은 만큼 돌려준다.
+ * takeAndClaim 은 같은 스크립트 안에서 멱등 키 선점(SET NX, 실패 시 현재 값)까지 처리한다.
+ * app.ratelimit.algorithm
+ * - gcra(기본): 키당 TAT(이론 도착 시각) 1개. 버스트는 limit 까지, 이후 period/limit 간격으로 1건씩 회복 → 창 경계 2배 버스트 없음
+ * - sliding-window: 현재/직전 고정 창 카운터를 경과 비율로 가중 합산 (해시 1개, 필드 = 창 번호)
+ */
+@Component
+class RedisTokenStore {
+    // take(key, interval(us), limit, n) → {granted, remaining, reset(us), retryAfter(us)}
+    private static final String GCRA_FN =
+            "local function take(key, interval, limit, n) " +
+            "  local t = redis.call('TIME') " +
+            "  local now = tonumber(t[1]) * 1000000 + tonumber(t[2]) " +
+            "  local tat = tonumber(redis.call('GET', key) or now) " +
+            "  if tat < now then tat = now end " +
+            "  local avail = math.floor((now + interval * limit - tat) / interval) " +
+            "  local k = math.min(n, avail) " +
+            "  if k <= 0 then return {0, 0, math.floor(tat - now), math.ceil(tat - interval * (limit - 1) - now)} end " +
+            "  local newTat = tat + k * interval " +
+            "  redis.call('SET', key, string.format('%d', newTat), 'PX', math.ceil((newTat - now) / 1000)) " +
+            "  return {k, avail - k, math.floor(newTat - now), 0} " +
+            "end ";
+
+    // take(key, window(ms), limit, n) → {granted, remaining, reset(ms), retryAfter(ms)}
+    private static final String SLIDING_FN =
+            "local function take(key, w, limit, n) " +
+            "  local t = redis.call('TIME') " +
+            "  local now = tonumber(t[1]) * 1000 + math.floor(tonumber(t[2]) / 1000) " +
+            "  local idx = math.floor(now / w) " +
+            "  local cur = tonumber(redis.call('HGET', key, idx) or 0) " +
+            "  local prev = tonumber(redis.call('HGET', key, idx - 1) or 0) " +
+            "  local elapsed = now - idx * w " +
+            "  local est = prev * (w - elapsed) / w + cur " +
+            "  local avail = math.floor(limit - est) " +
+            "  local k = math.min(n, avail) " +
+            "  if k <= 0 then " +
+            "    local retry = w - elapsed " +
+            "    if cur + 1 <= limit and prev > 0 then retry = math.ceil(w * (1 - (limit - 1 - cur) / prev)) - elapsed end " +
+            "    return {0, 0, w - elapsed, math.max(retry, 1)} " +
+            "  end " +
+            "  redis.call('HINCRBY', key, idx, k) " +
+            "  redis.call('HDEL', key, idx - 2) " +
+            "  redis.call('PEXPIRE', key, w * 2) " +
+            "  return {k, avail - k, w - elapsed, 0} " +
+            "end ";
+
+    private static final String TAKE = "return take(KEYS[1], tonumber(ARGV[1]), tonumber(ARGV[2]), tonumber(ARGV[3]))";
+
+    // KEYS[2] 멱등 키, ARGV[4] 처리 중 토큰, ARGV[5] lock(ms) → take 결과 + {선점 1/0, 현재 값}. 거절이면 선점하지 않음
+    private static final String TAKE_AND_CLAIM =
+            "local r = take(KEYS[1], tonumber(ARGV[1]), tonumber(ARGV[2]), tonumber(ARGV[3])) " +
+            "if r[1] == 0 then return r end " +
+            "if redis.call('SET', KEYS[2], ARGV[4], 'NX', 'PX', ARGV[5]) then r[5] = 1 r[6] = '' " +
+            "else r[5] = 0 r[6] = redis.call('GET', KEYS[2]) or '' end " +
+            "return r";
+
+    private static final DefaultRedisScript<List> GCRA_TAKE = new DefaultRedisScript<>(GCRA_FN + TAKE, List.class);
+    private static final DefaultRedisScript<List> SLIDING_TAKE = new DefaultRedisScript<>(SLIDING_FN + TAKE, List.class);
+    private static final DefaultRedisScript<List> GCRA_TAKE_AND_CLAIM = new DefaultRedisScript<>(GCRA_FN + TAKE_AND_CLAIM, List.class);
+    private static final DefaultRedisScript<List> SLIDING_TAKE_AND_CLAIM = new DefaultRedisScript<>(SLIDING_FN + TAKE_AND_CLAIM, List.class);
+
+    // 멱등 키 선점만 (로컬 임대 토큰으로 레이트리밋을 통과한 경우)
+    private static final DefaultRedisScript<List> CLAIM = new DefaultRedisScript<>(
+            "if redis.call('SET', KEYS[1], ARGV[1], 'NX', 'PX', ARGV[2]) then return {1, ''} end " +
+            "return {0, redis.call('GET', KEYS[1]) or ''}", List.class);
+
+    // ARGV: interval(us), n — TAT 를 n 칸 되돌림 (현재 시각 아래로는 내리지 않음)
+    private static final DefaultRedisScript<Long> GCRA_GIVE_BACK = new DefaultRedisScript<>(
+            "local t = redis.call('TIME') " +
+            "local now = tonumber(t[1]) * 1000000 + tonumber(t[2]) " +
+            "local tat = tonumber(redis.call('GET', KEYS[1])) " +
+            "if not tat then return 0 end " +
+            "local newTat = tat - tonumber(ARGV[1]) * tonumber(ARGV[2]) " +
+            "if newTat <= now then redis.call('DEL', KEYS[1]) return 1 end " +
+            "redis.call('SET', KEYS[1], string.format('%d', newTat), 'PX', math.ceil((newTat - now) / 1000)) " +
+            "return 1", Long.class);
+
+    // ARGV: window(ms), n — 현재 창(부족하면 직전 창) 카운터에서 차감
+    private static final DefaultRedisScript<Long> SLIDING_GIVE_BACK = new DefaultRedisScript<>(
+            "local t = redis.call('TIME') " +
+            "local idx = math.floor((tonumber(t[1]) * 1000 + math.floor(tonumber(t[2]) / 1000)) / tonumber(ARGV[1])) " +
+            "local n = tonumber(ARGV[2]) " +
+            "if tonumber(redis.call('HGET', KEYS[1], idx) or 0) >= n then redis.call('HINCRBY', KEYS[1], idx, -n) return 1 end " +
+            "if tonumber(redis.call('HGET', KEYS[1], idx - 1) or 0) >= n then redis.call('HINCRBY', KEYS[1], idx - 1, -n) return 1 end " +
+            "return 0", Long.class);
+
+    // 시간 값은 모두 마이크로초
+    record Grant(long granted, long remaining, long resetMicros, long retryAfterMicros) {}
+
+    // 거절이면 claim 은 null (선점하지 않음)
+    record GrantAndClaim(Grant grant, RateLimiter.Claim claim) {}
+
+    private final StringRedisTemplate redis;
+    private final boolean gcra;
+
+    RedisTokenStore(StringRedisTemplate redis, @Value("${app.ratelimit.algorithm:gcra}") String algorithm) {
+        this.redis = redis;
+        if (!"gcra".equals(algorithm) && !"sliding-window".equals(algorithm)) {
+            throw new IllegalArgumentException("app.ratelimit.algorithm must be gcra or sliding-window: " + algorithm);
+        }
+        this.gcra = "gcra".equals(algorithm);
+    }
+
+    // period 동안 limit 건 중 최대 n 개. 0 개면 거절 (거절은 기록하지 않음)
+    Grant take(String key, long limit, Duration period, long n) {
+        return grant(redis.execute(gcra ? GCRA_TAKE : SLIDING_TAKE, List.of(key(key)), args(limit, period, n)));
+    }
+
+    // take + 멱등 키 선점을 한 스크립트로.
+    // 두 키가 한 스크립트에 들어가므로 Redis Cluster 에서는 슬롯이 같아야 함 (현재 단일 인스턴스/센티널 구성)
+    GrantAndClaim takeAndClaim(String key, long limit, Duration period, long n, String claimKey, String token, Duration lock) {
+        String[] a = args(limit, period, n);
+        List<?> r = redis.execute(gcra ? GCRA_TAKE_AND_CLAIM : SLIDING_TAKE_AND_CLAIM, List.of(key(key), claimKey),
+                a[0], a[1], a[2], token, String.valueOf(lock.toMillis()));
+        Grant g = grant(r);
+        return new GrantAndClaim(g, g.granted() == 0 ? null : new RateLimiter.Claim(num(r, 4) == 1, String.valueOf(r.get(5))));
+    }
+
+    RateLimiter.Claim claim(String claimKey, String token, Duration lock) {
+        List<?> r = redis.execute(CLAIM, List.of(claimKey), token, String.valueOf(lock.toMillis()));
+        if (r == null || r.size() < 2) throw new IllegalStateException("RATE_LIMIT_SCRIPT_FAILED");
+        return new RateLimiter.Claim(num(r, 0) == 1, String.valueOf(r.get(1)));
+    }
+
+    void giveBack(String key, long limit, Duration period, long n) {
+        if (gcra) redis.execute(GCRA_GIVE_BACK, List.of(key(key)), String.valueOf(interval(limit, period)), String.valueOf(n));
+        else redis.execute(SLIDING_GIVE_BACK, List.of(key(key)), String.valueOf(period.toMillis()), String.valueOf(n));
+    }
+
+    private String[] args(long limit, Duration period, long n) {
+        long unit = gcra ? interval(limit, period) : period.toMillis();
+        return new String[]{String.valueOf(unit), String.valueOf(limit), String.valueOf(n)};
+    }
+
+    private Grant grant(List<?> r) {
+        if (r == null || r.size() < 4) throw new IllegalStateException("RATE_LIMIT_SCRIPT_FAILED");
+        long scale = gcra ? 1 : 1_000;
+        return new Grant(num(r, 0), Math.max(0, num(r, 1)), num(r, 2) * scale, num(r, 3) * scale);
+    }
+
+    private static long interval(long limit, Duration period) { return Math.max(1, period.toNanos() / 1000 / limit); }
+
+    private String key(String key) { return gcra ? "rl:{" + key + "}" : "rl:{" + key + "}:sw"; }
+
+    private static long num(List<?> r, int i) { return ((Number) r.get(i)).longValue(); }
+}
@@ -0,0 +1,62 @@
+package JYBank.JYBank.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 문자열 Bloom 필터. mightContain 이 false 면 확실히 없음, true 면 fpp 확률로 오탐.
+ * 비트 설정은 CAS 라 put/mightContain 을 여러 스레드에서 동시에 호출해도 된다 (삭제 없음).
+ * 해시: 64비트 FNV-1a + fmix64 두 개로 k 개 위치를 만든다 (double hashing).
+ */
+public class BloomFilter {
+    private final AtomicLongArray words;
+    private final long bits;
+    private final int hashes;
+
+    public BloomFilter(long expectedInsertions, double fpp) {
+        long n = Math.max(1, expectedInsertions);
+        this.bits = Math.max(64, (long) Math.ceil(-n * Math.log(fpp) / (Math.log(2) * Math.log(2))));
+        this.hashes = Math.max(1, (int) Math.round((double) bits / n * Math.log(2)));
+        this.words = new AtomicLongArray(Math.toIntExact((bits + 63) / 64));
+    }
+
+    public void put(String value) {
+        long h1 = h1(value), h2 = h2(h1);
+        for (int i = 0; i < hashes; i++) {
+            long idx = Math.floorMod(h1 + i * h2, bits);
+            int w = (int) (idx >>> 6);
+            long mask = 1L << idx;
+            for (long cur = words.get(w); (cur & mask) == 0; cur = words.get(w)) {
+                if (words.compareAndSet(w, cur, cur | mask)) break;
+            }
+        }
+    }
+
+    public boolean mightContain(String value) {
+        long h1 = h1(value), h2 = h2(h1);
+        for (int i = 0; i < hashes; i++) {
+            long idx = Math.floorMod(h1 + i * h2, bits);
+            if ((words.get((int) (idx >>> 6)) & (1L << idx)) == 0) return false;
+        }
+        return true;
+    }
+
+    private static long h1(String s) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < s.length(); i++) {
+            h ^= s.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return fmix(h);
+    }
+
+    private static long h2(long h1) { return fmix(h1 ^ 0x9e3779b97f4a7c15L) | 1; }
+
+    private static long fmix(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
@@ -0,0 +1,12 @@
+package JYBank.JYBank.util;
+
+import java.time.Instant;
+
+/** 서명/만료 검증을 통과한 토큰의 클레임 (불변). typ 미설정(과거 토큰)은 access 로 간주 */
+public record JwtPrincipal(String loginId, String typ, Instant issuedAt, Instant expiresAt) {
+    public boolean isAccess() { return typ == null || "access".equals(typ); }
+
+    public boolean isRefresh() { return "refresh".equals(typ); }
+
+    public boolean isExpired(Instant now) { return expiresAt != null && !now.isBefore(expiresAt); }
+}
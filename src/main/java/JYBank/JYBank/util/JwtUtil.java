@@ -7,26 +7,40 @@ import java.nio.charset.StandardCharsets;
 import java.security.Key;
 import java.time.Instant;
 import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class JwtUtil {
 
+    // 시크릿별 키/파서 캐시 (JwtParser 는 불변·스레드 안전). 시크릿은 설정값 1~2개뿐이라 크기 제한 없음
+    private static final Map<String, Key> KEYS = new ConcurrentHashMap<>();
+    private static final Map<String, JwtParser> PARSERS = new ConcurrentHashMap<>();
+
     private static Key key(String secret) {
         // 최소 32바이트 이상 권장
-        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        return KEYS.computeIfAbsent(secret, s -> Keys.hmacShaKeyFor(s.getBytes(StandardCharsets.UTF_8)));
     }
 
     private static JwtParser parser(String secret) {
-        return Jwts.parserBuilder()
-                .setSigningKey(key(secret))
+        return PARSERS.computeIfAbsent(secret, s -> Jwts.parserBuilder()
+                .setSigningKey(key(s))
                 .setAllowedClockSkewSeconds(30) // 시계 드리프트 허용
-                .build();
+                .build());
     }
 
-    public static String getLoginId(String token, String secretKey) {
-        Claims claims = parseClaims(token, secretKey);
+    /** 서명/만료를 한 번 검증하고 필요한 클레임을 모두 꺼냄. 만료면 ExpiredJwtException, 위변조면 JwtException */
+    public static JwtPrincipal verify(String token, String secretKey) {
+        Claims c = parseClaims(token, secretKey);
         // 커스텀 클레임(loginId) 우선, 없으면 subject 사용
-        String login = claims.get("loginId", String.class);
-        return (login != null) ? login : claims.getSubject();
+        String login = c.get("loginId", String.class);
+        Date iat = c.getIssuedAt();
+        Date exp = c.getExpiration();
+        return new JwtPrincipal(login != null ? login : c.getSubject(), c.get("typ", String.class),
+                iat == null ? null : iat.toInstant(), exp == null ? null : exp.toInstant());
+    }
+
+    public static String getLoginId(String token, String secretKey) {
+        return verify(token, secretKey).loginId();
     }
 
     public static boolean isExpired(String token, String secretKey) {
@@ -71,10 +85,7 @@ public class JwtUtil {
     }
 
     public static boolean isRefreshToken(String token, String secretKey) {
-        var claims = parser(secretKey)
-                .parseClaimsJws(stripBearer(token))
-                .getBody();
-        return "refresh".equals(claims.get("typ", String.class));
+        return verify(token, secretKey).isRefresh();
     }
 
     /** ✅ 하드 로그아웃 체크용: iat(발급시각) Instant 반환 (없으면 null) */
@@ -85,8 +96,7 @@ public class JwtUtil {
 
     /** (선택) Access 토큰 판별. typ 미설정(과거 토큰)은 access로 간주 → 하위호환 */
     public static boolean isAccessToken(String token, String secretKey) {
-        String typ = parseClaims(token, secretKey).get("typ", String.class);
-        return typ == null || "access".equals(typ);
+        return verify(token, secretKey).isAccess();
     }
 
     /** (선택) 만료시각 Instant가 필요하면 */
@@ -19,4 +19,12 @@ public class TransferController {
         body = new CreateReq(body.sourceWalletId(), body.destWalletId(), body.amount(), body.memo(), idemKey);
         return ResponseEntity.ok(service.create(body));
     }
+
+    //다건 이체 (분할 결제, 수수료 레그)
+    @PostMapping("/multi-leg")
+    public ResponseEntity<CreateRes> createMultiLeg(@RequestHeader("Idempotency-Key") String idemKey,
+                                                    @RequestBody @Valid MultiLegReq body) {
+        body = new MultiLegReq(body.sourceWalletId(), body.legs(), body.memo(), idemKey);
+        return ResponseEntity.ok(service.createMultiLeg(body));
+    }
 }
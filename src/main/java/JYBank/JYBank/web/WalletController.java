@@ -0,0 +1,48 @@
+package JYBank.JYBank.web;
+
+import JYBank.JYBank.dto.WalletDtos.*;
+import JYBank.JYBank.service.wallet.WalletHistoryService;
+import JYBank.JYBank.service.wallet.WalletService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.Instant;
+
+@RestController
+@RequestMapping("/v1/wallets")
+public class WalletController {
+    private static final String NDJSON = "application/x-ndjson";
+
+    private final WalletService service;
+    private final WalletHistoryService history;
+
+    public WalletController(WalletService service, WalletHistoryService history) {
+        this.service = service;
+        this.history = history;
+    }
+
+    //잔액 조회 (at 지정 시 해당 시점 잔액)
+    @GetMapping("/{id}/balance")
+    public ResponseEntity<BalanceRes> balance(@PathVariable Long id,
+                                              @RequestParam(required = false)
+                                              @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant at) {
+        return ResponseEntity.ok(at == null ? service.balance(id) : service.balanceAt(id, at));
+    }
+
+    //원장 이력 (keyset: after = 이전 페이지 nextCursor)
+    @GetMapping("/{id}/entries")
+    public ResponseEntity<EntryPage> entries(@PathVariable Long id,
+                                             @RequestParam(defaultValue = "0") long after,
+                                             @RequestParam(defaultValue = "100") int size) {
+        return ResponseEntity.ok(history.page(id, after, size));
+    }
+
+    //원장 이력 전체 내보내기 (Accept: application/x-ndjson)
+    @GetMapping(value = "/{id}/entries", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamEntries(@PathVariable Long id,
+                                                               @RequestParam(defaultValue = "0") long after) {
+        return ResponseEntity.ok().header("Content-Type", NDJSON).body(out -> history.stream(id, after, out));
+    }
+}
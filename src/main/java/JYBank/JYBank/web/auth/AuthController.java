@@ -14,6 +14,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.net.URI;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 
 @RestController
@@ -38,8 +39,9 @@ public class AuthController {
 
     //로그인
     @GetMapping("/login")
-    public ResponseEntity<LoginResponse> register(@RequestBody @Valid LoginRequest req) {
-        return ResponseEntity.ok(authService.login(req));
+    public CompletableFuture<ResponseEntity<LoginResponse>> register(@RequestBody @Valid LoginRequest req) {
+        // 비동기 응답: 해시 검증 동안 Tomcat 워커를 반환
+        return authService.login(req).thenApply(ResponseEntity::ok);
     }
 
     //리프레쉬 토큰 재발급
@@ -0,0 +1,68 @@
+package JYBank.JYBank.domain.money;
+
+import JYBank.JYBank.dto.TransferDtos.CreateReq;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Money: 넘침은 예외, 최소 단위 아래 금액은 거절, JSON 은 주 단위 숫자 (요청은 BigDecimal → 지갑 통화로 ofMajor).
+ */
+class MoneyTest {
+
+    private final ObjectMapper json = new ObjectMapper();
+
+    @Test
+    void overflowThrowsInsteadOfWrapping() {
+        Money max = Money.of(Long.MAX_VALUE);
+        assertEquals("MONEY_OVERFLOW", assertThrows(IllegalStateException.class, () -> max.plus(Money.of(1))).getMessage());
+        assertEquals("MONEY_OVERFLOW", assertThrows(IllegalStateException.class, () -> Money.of(Long.MIN_VALUE).minus(Money.of(1))).getMessage());
+        assertEquals("MONEY_OVERFLOW", assertThrows(IllegalStateException.class, () -> Money.of(Long.MIN_VALUE).negate()).getMessage());
+        assertThrows(IllegalArgumentException.class, () -> Money.ofMajor(new BigDecimal("1e30"), "KRW"));
+    }
+
+    @Test
+    void currencyMismatchIsRejected() {
+        assertEquals("CURRENCY_MISMATCH",
+                assertThrows(IllegalArgumentException.class, () -> Money.of(1, "KRW").plus(Money.of(1, "USD"))).getMessage());
+    }
+
+    @Test
+    void rejectsAmountsBelowMinorUnit() {
+        assertEquals("INVALID_AMOUNT", assertThrows(IllegalArgumentException.class, () -> Money.ofMajor(new BigDecimal("1.5"), "KRW")).getMessage());
+        assertEquals("INVALID_AMOUNT", assertThrows(IllegalArgumentException.class, () -> Money.ofMajor(new BigDecimal("0.001"), "USD")).getMessage());
+        assertEquals(Money.of(10, "KRW"), Money.ofMajor(new BigDecimal("10.00"), "KRW")); // 0 인 소수부는 허용
+        assertEquals(Money.of(1_050, "USD"), Money.ofMajor(new BigDecimal("10.5"), "USD"));
+    }
+
+    @Test
+    void fractionDigitsFollowCurrency() {
+        assertEquals(0, Money.fractionDigits("KRW"));
+        assertEquals(2, Money.fractionDigits("USD"));
+        assertEquals(0, Money.fractionDigits("JPY"));
+        assertEquals(3, Money.fractionDigits("BHD"));
+        assertEquals(0, Money.fractionDigits("XAU")); // 소수 자릿수 정의 없음(-1)
+    }
+
+    @Test
+    void jsonRoundTripInWalletCurrency() throws Exception {
+        for (Money m : new Money[]{Money.of(12_345, "KRW"), Money.of(12_345, "USD"), Money.of(-5, "USD"), Money.of(1_234, "BHD")}) {
+            String out = json.writeValueAsString(m);
+            assertEquals(m, Money.ofMajor(json.readValue(out, BigDecimal.class), m.currency()), out);
+        }
+        assertEquals("123.45", json.writeValueAsString(Money.of(12_345, "USD")));
+        assertEquals("12345", json.writeValueAsString(Money.of(12_345, "KRW")));
+    }
+
+    @Test
+    void requestAmountIsParsedWithoutCurrency() throws Exception {
+        CreateReq req = json.readValue("{\"sourceWalletId\":1,\"destWalletId\":2,\"amount\":10.25,\"idemKey\":\"k\"}", CreateReq.class);
+        assertEquals(new BigDecimal("10.25"), req.amount());
+        assertEquals(Money.of(1_025, "USD"), Money.ofMajor(req.amount(), "USD"));
+        assertThrows(IllegalArgumentException.class, () -> Money.ofMajor(req.amount(), "KRW"));
+    }
+}
@@ -0,0 +1,84 @@
+package JYBank.JYBank.service.transfer;
+
+import JYBank.JYBank.domain.money.Money;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 이체 1건당 DB 왕복 수: IDENTITY + 배치 없음(기준선) vs SEQUENCE pooled-lo + JDBC 배치.
+ * 실제 TransferPosting.post (비관적 경로) 를 레그 수별로 단일 쓰레드 실행하고 RoundTripCounter 로 센다.
+ * 기준선은 orm.xml 로 Transfer / LedgerEntry / OutboxEvent id 를 IDENTITY 로 되돌리고 배치 크기 1.
+ * Docker 필요, 기본 실행에서 제외: JYBANK_BENCH=true ./gradlew test --tests '*LedgerBatchingBenchmark'
+ */
+@EnabledIfEnvironmentVariable(named = "JYBANK_BENCH", matches = "true")
+@TestClassOrder(ClassOrderer.OrderAnnotation.class)
+class LedgerBatchingBenchmark {
+    private static final int WALLETS = 1_000;
+    private static final int WARMUP = 200;
+    private static final int TRANSFERS = 2_000;
+    private static final int[] LEGS = {1, 4, 16};
+
+    record Result(String mode, int legs, double roundTrips, double statements, double micros) {}
+
+    private static final List<Result> results = new ArrayList<>();
+
+    @Nested
+    @Order(1)
+    @TestPropertySource(properties = {"spring.jpa.mapping-resources=bench/identity-orm.xml", "app.jpa.batch-size=1"})
+    class Identity extends TransferDbBenchmark {
+        @Autowired TransferPosting posting;
+
+        @Test
+        void run() { measure("identity", this, posting); }
+    }
+
+    @Nested
+    @Order(2)
+    class PooledLo extends TransferDbBenchmark {
+        @Autowired TransferPosting posting;
+
+        @Test
+        void run() { measure("pooled-lo+batch", this, posting); }
+    }
+
+    @AfterAll
+    static void report() {
+        System.out.printf("%-16s %5s %12s %12s %10s%n", "mode", "legs", "trips/xfer", "stmts/xfer", "us/xfer");
+        for (Result r : results) {
+            System.out.printf("%-16s %5d %12.2f %12.2f %10.0f%n", r.mode(), r.legs(), r.roundTrips(), r.statements(), r.micros());
+        }
+    }
+
+    private static void measure(String mode, TransferDbBenchmark db, TransferPosting posting) {
+        for (int legs : LEGS) {
+            db.resetWallets(WALLETS, 1_000_000_000L);
+            for (int i = 0; i < WARMUP; i++) transfer(posting, legs);
+            RoundTripCounter.Snapshot before = db.roundTrips.snapshot();
+            long t0 = System.nanoTime();
+            for (int i = 0; i < TRANSFERS; i++) transfer(posting, legs);
+            long elapsed = System.nanoTime() - t0;
+            RoundTripCounter.Snapshot d = db.roundTrips.snapshot().minus(before);
+            results.add(new Result(mode, legs, (double) d.roundTrips() / TRANSFERS, (double) d.statements() / TRANSFERS,
+                    elapsed / 1_000.0 / TRANSFERS));
+            Assertions.assertEquals(1_000_000_000L * WALLETS, db.totalBalance(), "잔액 총합 보존");
+        }
+    }
+
+    private static void transfer(TransferPosting posting, int legs) {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        long src = rnd.nextLong(1, WALLETS + 1);
+        Set<Long> dst = new LinkedHashSet<>();
+        while (dst.size() < legs) {
+            long d = rnd.nextLong(1, WALLETS + 1);
+            if (d != src) dst.add(d);
+        }
+        List<TransferLeg> out = new ArrayList<>(legs);
+        for (long d : dst) out.add(new TransferLeg(d, Money.of(1)));
+        posting.post(src, out, null, null);
+    }
+}
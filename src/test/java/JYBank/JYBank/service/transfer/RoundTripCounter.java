@@ -0,0 +1,60 @@
+package JYBank.JYBank.service.transfer;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * DataSource 를 감싸 DB 왕복 수를 센다 (벤치마크용).
+ * 문장 실행 1회(execute*, executeBatch 는 배치 전체가 1회) + commit / rollback 1회씩.
+ * Hibernate 와 JdbcTemplate 이 같은 DataSource 를 쓰므로 이체 경로의 모든 SQL 이 잡힌다.
+ */
+class RoundTripCounter implements BeanPostProcessor {
+    private final LongAdder statements = new LongAdder();
+    private final LongAdder commits = new LongAdder();
+    private final LongAdder rollbacks = new LongAdder();
+
+    record Snapshot(long statements, long commits, long rollbacks) {
+        long roundTrips() { return statements + commits + rollbacks; }
+
+        Snapshot minus(Snapshot o) {
+            return new Snapshot(statements - o.statements, commits - o.commits, rollbacks - o.rollbacks);
+        }
+    }
+
+    Snapshot snapshot() { return new Snapshot(statements.sum(), commits.sum(), rollbacks.sum()); }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        return bean instanceof DataSource ds ? wrap(ds, DataSource.class) : bean;
+    }
+
+    private Object wrap(Object target, Class<?> type) {
+        return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{type}, (proxy, m, args) -> {
+            String name = m.getName();
+            if (type != DataSource.class && type != Connection.class && name.startsWith("execute")) statements.increment();
+            else if (type == Connection.class && name.equals("commit")) commits.increment();
+            else if (type == Connection.class && name.equals("rollback")) rollbacks.increment();
+            Object r;
+            try {
+                r = m.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (type == DataSource.class && r instanceof Connection c) return wrap(c, Connection.class);
+            if (type == Connection.class) {
+                if (r instanceof CallableStatement s) return wrap(s, CallableStatement.class);
+                if (r instanceof PreparedStatement s) return wrap(s, PreparedStatement.class);
+                if (r instanceof Statement s) return wrap(s, Statement.class);
+            }
+            return r;
+        });
+    }
+}
@@ -0,0 +1,70 @@
+package JYBank.JYBank.service.transfer;
+
+import JYBank.JYBank.config.JpaConfig;
+import JYBank.JYBank.service.ledger.LedgerEntryWriter;
+import JYBank.JYBank.service.wallet.BalanceCache;
+import JYBank.JYBank.service.wallet.BalanceCheckpointService;
+import JYBank.JYBank.service.wallet.WalletShardService;
+import JYBank.JYBank.support.outbox.OutboxService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * 이체 경로 DB 벤치마크 공통 틀: Testcontainers PostgreSQL + JPA 슬라이스.
+ * 스키마는 실제 엔티티에서 만들고(ddl-auto=create), TransferPosting / WalletShardService / OutboxService 는 실제 빈.
+ * Redis 를 쓰는 잔액 캐시와 커밋 후 비동기 체크포인트는 이체 왕복에서 빼기 위해 목으로 둔다.
+ * 각 테스트가 트랜잭션 없이(NOT_SUPPORTED) 실제 서비스 트랜잭션 경계대로 돈다.
+ */
+@DataJpaTest(showSql = false)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({JpaConfig.class, TransferPosting.class, WalletShardService.class, LedgerEntryWriter.class, OutboxService.class, RoundTripCounter.class})
+@TestPropertySource(properties = {
+        "spring.jpa.hibernate.ddl-auto=create",
+        "app.kafka.topics.notification=notification",
+        "app.kafka.topics.audit=audit"
+})
+abstract class TransferDbBenchmark {
+    static final PostgreSQLContainer<?> PG = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry r) {
+        PG.start(); // 이미 떠 있으면 그대로
+        r.add("spring.datasource.url", () -> PG.getJdbcUrl() + "&reWriteBatchedInserts=true");
+        r.add("spring.datasource.username", PG::getUsername);
+        r.add("spring.datasource.password", PG::getPassword);
+    }
+
+    @MockitoBean BalanceCache balanceCache;
+    @MockitoBean BalanceCheckpointService checkpoints;
+
+    @Autowired protected JdbcTemplate jdbc;
+    @Autowired protected RoundTripCounter roundTrips;
+
+    // 지갑 1..n (일반 지갑, 잔액 initial) 만 남기고 이체 흔적 삭제
+    protected void resetWallets(int n, long initial) {
+        jdbc.execute("truncate table ledger_entry, transfer, outbox_event, wallet_shard, wallet, app_user restart identity cascade");
+        jdbc.update("insert into app_user (email, email_key, password_hash, kyc_status, role, created_at, updated_at) " +
+                "values ('bench@jybank.test', 'bench@jybank.test', 'x', 'VERIFIED', 'USER', now(), now())");
+        Long userId = jdbc.queryForObject("select user_id from app_user", Long.class);
+        jdbc.update("insert into wallet (wallet_id, user_id, currency, balance, shard_count, version, created_at, updated_at) " +
+                "select g, ?, 'KRW', ?, 0, 0, now(), now() from generate_series(1, ?) g", userId, initial, n);
+    }
+
+    protected long totalBalance() {
+        return jdbc.queryForObject("select cast(sum(balance) as bigint) from wallet", Long.class);
+    }
+}
@@ -0,0 +1,110 @@
+package JYBank.JYBank.service.transfer;
+
+import JYBank.JYBank.domain.money.Money;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 지갑 동시성 전략 경합 벤치마크 (pessimistic / optimistic / conditional).
+ * 실제 WalletConcurrency 빈(트랜잭션 프록시 포함)을 실제 스키마에 대고 돌려, 핫 지갑 쏠림(skew)별
+ * 처리량/지연/이체당 DB 왕복/롤백(낙관적 재시도 + 데드락 등)을 비교한다.
+ * 전략 빈은 app.transfer.concurrency 조건부라 컨텍스트에 하나만 뜨므로 세 개 모두 createBean 으로 만든다.
+ * Docker 필요, 기본 실행에서 제외: JYBANK_BENCH=true ./gradlew test --tests '*WalletConcurrencyBenchmark'
+ */
+@EnabledIfEnvironmentVariable(named = "JYBANK_BENCH", matches = "true")
+@TestPropertySource(properties = "spring.datasource.hikari.maximum-pool-size=20")
+class WalletConcurrencyBenchmark extends TransferDbBenchmark {
+    private static final int WALLETS = 1_000;
+    private static final int THREADS = 16;
+    private static final long DURATION_MS = 5_000;
+    private static final long INITIAL = 1_000_000_000L;
+
+    @Autowired AutowireCapableBeanFactory beans;
+
+    @Test
+    void compare() throws Exception {
+        Map<String, WalletConcurrency> modes = new LinkedHashMap<>();
+        modes.put("pessimistic", beans.createBean(PessimisticWalletConcurrency.class));
+        modes.put("optimistic", beans.createBean(OptimisticWalletConcurrency.class));
+        modes.put("conditional", beans.createBean(ConditionalUpdateWalletConcurrency.class));
+        // zipf 지수: 0 = 균등, 클수록 소수 지갑에 쏠림
+        double[] skews = {0.0, 0.8, 1.2, 2.0};
+
+        System.out.printf("%-12s %5s %10s %9s %9s %11s %10s %8s%n",
+                "mode", "skew", "ops/s", "p50(us)", "p99(us)", "trips/xfer", "rollbacks", "failed");
+        for (double skew : skews) {
+            for (Map.Entry<String, WalletConcurrency> m : modes.entrySet()) {
+                resetWallets(WALLETS, INITIAL);
+                RoundTripCounter.Snapshot before = roundTrips.snapshot();
+                Result r = run(m.getValue(), new Zipf(WALLETS, skew));
+                RoundTripCounter.Snapshot d = roundTrips.snapshot().minus(before);
+                System.out.printf("%-12s %5.1f %10.0f %9d %9d %11.2f %10d %8d%n", m.getKey(), skew,
+                        r.ops * 1000.0 / DURATION_MS, r.p50Micros, r.p99Micros,
+                        r.ops == 0 ? 0.0 : (double) d.roundTrips() / r.ops, d.rollbacks(), r.failed);
+                assertEquals(INITIAL * WALLETS, totalBalance(), "잔액 총합 보존");
+            }
+        }
+    }
+
+    record Result(long ops, long p50Micros, long p99Micros, long failed) {}
+
+    private Result run(WalletConcurrency mode, Zipf dist) throws Exception {
+        LongAdder ops = new LongAdder(), failed = new LongAdder();
+        ConcurrentLinkedQueue<long[]> latencies = new ConcurrentLinkedQueue<>();
+        long deadline = System.currentTimeMillis() + DURATION_MS;
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> fs = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            fs.add(pool.submit(() -> {
+                long[] lat = new long[1 << 20];
+                int n = 0;
+                while (System.currentTimeMillis() < deadline) {
+                    long src = dist.next(), dst = dist.next();
+                    if (src == dst) continue;
+                    long t0 = System.nanoTime();
+                    try {
+                        mode.post(src, List.of(new TransferLeg(dst, Money.of(1))), null, null);
+                        ops.increment();
+                    } catch (RuntimeException e) {
+                        failed.increment(); // 낙관적 재시도 소진, 데드락 등
+                    }
+                    if (n < lat.length) lat[n++] = (System.nanoTime() - t0) / 1_000;
+                }
+                latencies.add(Arrays.copyOf(lat, n));
+                return null;
+            }));
+        }
+        for (Future<?> f : fs) f.get();
+        pool.shutdown();
+        long[] all = latencies.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        long p50 = all.length == 0 ? 0 : all[all.length / 2];
+        long p99 = all.length == 0 ? 0 : all[(int) Math.min(all.length - 1, all.length * 99L / 100)];
+        return new Result(ops.sum(), p50, p99, failed.sum());
+    }
+
+    // 누적분포 이진 탐색 zipf 샘플러 (1..n)
+    static final class Zipf {
+        private final double[] cdf;
+
+        Zipf(int n, double s) {
+            cdf = new double[n];
+            double sum = 0;
+            for (int i = 0; i < n; i++) { sum += 1.0 / Math.pow(i + 1, s); cdf[i] = sum; }
+            for (int i = 0; i < n; i++) cdf[i] /= sum;
+        }
+
+        long next() {
+            int i = Arrays.binarySearch(cdf, ThreadLocalRandom.current().nextDouble());
+            return (i < 0 ? -i - 1 : i) + 1L;
+        }
+    }
+}
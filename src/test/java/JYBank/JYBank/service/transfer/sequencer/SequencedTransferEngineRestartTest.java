@@ -0,0 +1,103 @@
+package JYBank.JYBank.service.transfer.sequencer;
+
+import JYBank.JYBank.repository.SequencerCheckpointRepository;
+import JYBank.JYBank.repository.TransferRepository;
+import JYBank.JYBank.service.transfer.TransferPosting;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * 시퀀서 엔진 재기동: 지난 실행이 열어 둔 꼬리 세그먼트(빈 파일 / 찢어진 첫 레코드)가 있어도 다시 뜬다.
+ * fsync 실패로 지운 꼬리는 재적용되지 않는다.
+ * DB 는 목으로 대체 (지갑 0개, 체크포인트 없음).
+ */
+class SequencedTransferEngineRestartTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void restartsWithoutTraffic() throws Exception {
+        for (int run = 0; run < 3; run++) {
+            SequencedTransferEngine engine = engine();
+            assertDoesNotThrow(engine::start);
+            engine.stop();
+        }
+        assertEquals(List.of("journal-000-00000000000000000001.log"), segments());
+    }
+
+    @Test
+    void restartsOverTornFirstRecord() throws Exception {
+        SequencedTransferEngine engine = engine();
+        engine.start();
+        engine.stop();
+
+        // fsync 도중 죽은 것처럼: 길이만 쓰이고 본문/CRC 는 어긋난 첫 레코드
+        Path tail = dir.resolve(segments().get(0));
+        try (FileChannel ch = FileChannel.open(tail, StandardOpenOption.WRITE)) {
+            ch.write(ByteBuffer.allocate(12).putInt(8).putLong(42L).flip(), 0);
+        }
+        assertEquals(List.of(), TransferJournal.readAll(dir, 0));
+
+        SequencedTransferEngine restarted = engine();
+        assertDoesNotThrow(restarted::start);
+        restarted.stop();
+        assertEquals(0, ByteBuffer.wrap(Files.readAllBytes(tail), 0, 4).getInt(), "꼬리 세그먼트는 비워지고 다시 씀");
+    }
+
+    @Test
+    void discardedTailIsNotReplayed() {
+        TransferJournal journal = new TransferJournal(dir, 0, 1024 * 1024);
+        journal.openTail(1);
+        journal.append(record(1, 100));
+        journal.force();
+        journal.append(record(2, 20_000)); // fsync 실패했다고 치고 지울 레코드
+        journal.append(record(3, 30_000));
+        assertTrue(journal.discardUnforced());
+        journal.append(record(2, 200)); // 같은 자리에 더 짧게 이어 씀 → 뒤에 옛 레코드가 남으면 안 됨
+        journal.force();
+        journal.close();
+
+        List<JournalRecord> replayed = TransferJournal.readAll(dir, 0);
+        assertEquals(List.of(1L, 2L), replayed.stream().map(JournalRecord::seq).toList());
+        assertEquals(200L, replayed.get(1).total());
+    }
+
+    private static JournalRecord record(long seq, long amount) {
+        // 금액 자릿수만큼 멱등키 길이를 달리해 레코드 크기를 바꾼다
+        return new JournalRecord(seq, 0L, 1L, new long[]{2L}, new long[]{amount}, "k-" + amount, null);
+    }
+
+    private SequencedTransferEngine engine() {
+        SequencedTransferEngine e = new SequencedTransferEngine(mock(TransferPosting.class), mock(TransferRepository.class),
+                mock(SequencerCheckpointRepository.class), mock(JdbcTemplate.class), mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(e, "partitions", 1);
+        ReflectionTestUtils.setField(e, "journalDir", dir.toString());
+        ReflectionTestUtils.setField(e, "segmentMb", 1);
+        ReflectionTestUtils.setField(e, "maxBatch", 16);
+        ReflectionTestUtils.setField(e, "queueCapacity", 16);
+        return e;
+    }
+
+    private List<String> segments() throws Exception {
+        try (Stream<Path> s = Files.list(dir)) {
+            return s.map(p -> p.getFileName().toString()).sorted().toList();
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package JYBank.JYBank.support.mail;
+
+import JYBank.JYBank.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.*;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * MailDeliveryPipeline 을 프로세스 안의 최소 SMTP 서버(FakeSmtp)에 붙여 확인:
+ * 연결 재사용(워커당 1개), 일시 실패 재시도, 대기열 가득 참 시 거절.
+ */
+class MailDeliveryPipelineTest {
+    private FakeSmtp smtp;
+    private MailDeliveryPipeline pipeline;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (pipeline != null) pipeline.stop();
+        if (smtp != null) smtp.close();
+    }
+
+    @Test
+    void reusesOneConnectionPerWorker() throws Exception {
+        smtp = new FakeSmtp(0);
+        pipeline = pipeline(1000, 2);
+        for (int i = 0; i < 30; i++) pipeline.submit("user" + i + "@example.com", "subject " + i, "<p>" + i + "</p>", "" + i);
+
+        await(() -> smtp.delivered.get() == 30);
+        assertTrue(smtp.connections.get() <= 2, "connections=" + smtp.connections.get());
+    }
+
+    @Test
+    void retriesTransientFailures() throws Exception {
+        smtp = new FakeSmtp(3); // 처음 DATA 3번은 451
+        pipeline = pipeline(1000, 1);
+        for (int i = 0; i < 5; i++) pipeline.submit("user" + i + "@example.com", "subject", "<p>x</p>", "x");
+
+        await(() -> smtp.delivered.get() == 5);
+    }
+
+    @Test
+    void rejectsWhenQueueIsFull() throws Exception {
+        smtp = new FakeSmtp(0);
+        pipeline = pipeline(1, 0); // 워커 없음 → 대기열이 비지 않음
+        pipeline.submit("a@example.com", "s", "h", "t");
+        assertThrows(ServiceOverloadedException.class, () -> pipeline.submit("b@example.com", "s", "h", "t"));
+    }
+
+    private MailDeliveryPipeline pipeline(int capacity, int connections) {
+        JavaMailSenderImpl sender = new JavaMailSenderImpl();
+        sender.setHost("localhost");
+        sender.setPort(smtp.port());
+        MailDeliveryPipeline p = new MailDeliveryPipeline(sender, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(p, "from", "no-reply@jybank.test");
+        ReflectionTestUtils.setField(p, "capacity", capacity);
+        ReflectionTestUtils.setField(p, "connections", connections);
+        ReflectionTestUtils.setField(p, "batch", 10);
+        ReflectionTestUtils.setField(p, "idle", Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(p, "maxAttempts", 5);
+        ReflectionTestUtils.setField(p, "backoff", Duration.ofMillis(10));
+        ReflectionTestUtils.setField(p, "maxBackoff", Duration.ofMillis(50));
+        ReflectionTestUtils.setField(p, "retryAfterSeconds", 1L);
+        p.start();
+        return p;
+    }
+
+    private static void await(BooleanSupplier cond) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!cond.getAsBoolean()) {
+            if (System.nanoTime() > deadline) fail("timed out");
+            Thread.sleep(20);
+        }
+    }
+
+    // EHLO/MAIL/RCPT/DATA/RSET/NOOP/QUIT 만 아는 SMTP 서버. failures 만큼 DATA 를 451 로 거절
+    static final class FakeSmtp implements Closeable {
+        final ServerSocket server = new ServerSocket(0);
+        final AtomicInteger connections = new AtomicInteger();
+        final AtomicInteger delivered = new AtomicInteger();
+        final AtomicInteger failures;
+
+        FakeSmtp(int failures) throws IOException {
+            this.failures = new AtomicInteger(failures);
+            Thread t = new Thread(this::accept, "fake-smtp");
+            t.setDaemon(true);
+            t.start();
+        }
+
+        int port() { return server.getLocalPort(); }
+
+        private void accept() {
+            while (!server.isClosed()) {
+                try {
+                    Socket s = server.accept();
+                    connections.incrementAndGet();
+                    Thread t = new Thread(() -> session(s), "fake-smtp-session");
+                    t.setDaemon(true);
+                    t.start();
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+
+        private void session(Socket s) {
+            try (s;
+                 BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.ISO_8859_1));
+                 Writer out = new OutputStreamWriter(s.getOutputStream(), StandardCharsets.ISO_8859_1)) {
+                reply(out, "220 localhost ESMTP");
+                String line;
+                while ((line = in.readLine()) != null) {
+                    String cmd = line.length() >= 4 ? line.substring(0, 4).toUpperCase() : line.toUpperCase();
+                    switch (cmd) {
+                        case "EHLO" -> reply(out, "250-localhost\r\n250 8BITMIME");
+                        case "DATA" -> {
+                            reply(out, "354 end with <CRLF>.<CRLF>");
+                            while ((line = in.readLine()) != null && !line.equals(".")) { /* 본문 버림 */ }
+                            if (failures.getAndDecrement() > 0) {
+                                reply(out, "451 try again later");
+                            } else {
+                                delivered.incrementAndGet();
+                                reply(out, "250 queued");
+                            }
+                        }
+                        case "QUIT" -> {
+                            reply(out, "221 bye");
+                            return;
+                        }
+                        default -> reply(out, "250 OK"); // HELO, MAIL, RCPT, RSET, NOOP
+                    }
+                }
+            } catch (IOException ignored) {
+                // 클라이언트가 끊음
+            }
+        }
+
+        private static void reply(Writer out, String s) throws IOException {
+            out.write(s + "\r\n");
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException { server.close(); }
+    }
+}
@@ -0,0 +1,91 @@
+package JYBank.JYBank.support.password;
+
+import JYBank.JYBank.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 로그인 폭주 중 이체 지연: BCrypt 를 요청 워커에서 직접(inline) vs PasswordHasher 로 격리(isolated).
+ * 워커 풀(Tomcat 스레드 대용)에 이체(DB I/O 2ms 대용 + 약간의 CPU)를 일정 속도로, 로그인을 폭주 속도로 넣고 이체 p50/p99 를 비교한다.
+ * isolated 모드의 워커는 해시를 제출만 하고 반환 (비동기 응답과 같음). 큐가 차면 503 으로 집계.
+ * 기본 실행에서 제외: JYBANK_BENCH=true ./gradlew test --tests '*PasswordHasherBenchmark'
+ */
+@EnabledIfEnvironmentVariable(named = "JYBANK_BENCH", matches = "true")
+class PasswordHasherBenchmark {
+    private static final int WORKERS = 32;
+    private static final long DURATION_MS = 5_000;
+    private static final int TRANSFERS_PER_SEC = 200;
+    private static final int LOGINS_PER_SEC = 400;
+
+    private final BCryptPasswordEncoder encoder = new BCryptPasswordEncoder();
+    private final String hash = encoder.encode("correct horse battery staple");
+
+    @Test
+    void compare() throws Exception {
+        System.out.printf("%-9s %9s %9s %9s %9s %9s%n", "mode", "xfer", "p50(ms)", "p99(ms)", "login-ok", "login-503");
+        run("inline", false);
+        run("isolated", true);
+    }
+
+    private void run(String mode, boolean isolated) throws Exception {
+        PasswordHasher hasher = new PasswordHasher(encoder, new SimpleMeterRegistry(), 0, 64, Duration.ofSeconds(5), 1);
+        ExecutorService workers = Executors.newFixedThreadPool(WORKERS);
+        ScheduledExecutorService drivers = Executors.newScheduledThreadPool(2);
+        long[] lat = new long[TRANSFERS_PER_SEC * (int) (DURATION_MS / 1000) + 1_000];
+        AtomicLong done = new AtomicLong();
+        LongAdder loginOk = new LongAdder(), loginRejected = new LongAdder();
+
+        drivers.scheduleAtFixedRate(() -> {
+            long submitted = System.nanoTime();
+            workers.execute(() -> {
+                LockSupport.parkNanos(2_000_000); // DB 왕복
+                spin(50_000);                     // 검증/매핑 CPU
+                int i = (int) done.getAndIncrement();
+                if (i < lat.length) lat[i] = System.nanoTime() - submitted;
+            });
+        }, 0, 1_000_000 / TRANSFERS_PER_SEC, TimeUnit.MICROSECONDS);
+
+        drivers.scheduleAtFixedRate(() -> workers.execute(() -> {
+            if (!isolated) {
+                encoder.matches("correct horse battery staple", hash);
+                loginOk.increment();
+                return;
+            }
+            try {
+                hasher.matches("correct horse battery staple", hash).whenComplete((ok, ex) -> {
+                    if (ex == null) loginOk.increment(); else loginRejected.increment();
+                });
+            } catch (ServiceOverloadedException e) {
+                loginRejected.increment();
+            }
+        }), 0, 1_000_000 / LOGINS_PER_SEC, TimeUnit.MICROSECONDS);
+
+        Thread.sleep(DURATION_MS);
+        drivers.shutdownNow();
+        workers.shutdownNow();
+        hasher.shutdown();
+
+        long[] sorted = Arrays.copyOf(lat, (int) Math.min(done.get(), lat.length));
+        Arrays.sort(sorted);
+        System.out.printf("%-9s %9d %9.1f %9.1f %9d %9d%n", mode, sorted.length,
+                pct(sorted, 50) / 1e6, pct(sorted, 99) / 1e6, loginOk.sum(), loginRejected.sum());
+    }
+
+    private static void spin(long nanos) {
+        long end = System.nanoTime() + nanos;
+        while (System.nanoTime() < end) Thread.onSpinWait();
+    }
+
+    private static long pct(long[] sorted, int p) {
+        return sorted.length == 0 ? 0 : sorted[(int) Math.min(sorted.length - 1, sorted.length * (long) p / 100)];
+    }
+}
@@ -0,0 +1,164 @@
+package JYBank.JYBank.support.ratelimit;
+
+import JYBank.JYBank.aop.GuardAspect;
+import JYBank.JYBank.aop.IdempotencyAspect;
+import JYBank.JYBank.aop.SpelKeyResolver;
+import JYBank.JYBank.aop.annotation.Idempotent;
+import JYBank.JYBank.aop.annotation.RateLimited;
+import JYBank.JYBank.dto.TransferDtos.CreateReq;
+import JYBank.JYBank.dto.TransferDtos.CreateRes;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.GenericContainer;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * 이체 서비스 진입 가드(레이트리밋 + 멱등) 지연 분포.
+ * - baseline: 기존 RateLimitAspect 의 분 단위 INCR(+첫 요청 EXPIRE) 카운터 → 멱등 애스펙트 (가드 도입 전 흐름)
+ * - fused / fused+lease: 실제 RateLimiter + GuardAspect (레이트리밋과 멱등 선점을 한 Redis 왕복으로)
+ * IdempotencyAspect / GuardAspect 를 AspectJ 프록시로 감싸 TransferService.create 와 같은 애너테이션 구성으로 호출한다.
+ * Docker 필요, 기본 실행에서 제외: JYBANK_BENCH=true ./gradlew test --tests '*GuardPipelineBenchmark'
+ */
+@EnabledIfEnvironmentVariable(named = "JYBANK_BENCH", matches = "true")
+class GuardPipelineBenchmark {
+    private static final int THREADS = 16;
+    private static final long DURATION_MS = 5_000;
+    private static final int SOURCE_WALLETS = 200;
+    private static final long PERMITS = 1_000_000; // 한도 안쪽 지연만 측정
+    private static final DateTimeFormatter MINUTE = DateTimeFormatter.ofPattern("yyyyMMddHHmm");
+
+    private static GenericContainer<?> redisContainer;
+    private static LettuceConnectionFactory cf;
+    private static StringRedisTemplate redis;
+
+    @BeforeAll
+    static void start() {
+        redisContainer = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+        redisContainer.start();
+        cf = new LettuceConnectionFactory(redisContainer.getHost(), redisContainer.getMappedPort(6379));
+        cf.afterPropertiesSet();
+        cf.start();
+        redis = new StringRedisTemplate(cf);
+        redis.afterPropertiesSet();
+    }
+
+    @AfterAll
+    static void stop() {
+        if (cf != null) cf.destroy();
+        if (redisContainer != null) redisContainer.stop();
+    }
+
+    // TransferService.create 와 같은 가드 구성
+    public static class Fused {
+        @Idempotent(key = "#req.idemKey", ttlSeconds = 300)
+        @RateLimited(key = "'transfer:' + #req.sourceWalletId", permitsPerMinute = PERMITS)
+        public CreateRes create(CreateReq req) { return new CreateRes(1L, "COMPLETED"); }
+    }
+
+    // 기존 흐름 재현용: 멱등만 애스펙트, 레이트리밋은 호출 전에 기존 고정 윈도 카운터로 따로
+    public static class IdempotentOnly {
+        @Idempotent(key = "#req.idemKey", ttlSeconds = 300)
+        public CreateRes create(CreateReq req) { return new CreateRes(1L, "COMPLETED"); }
+    }
+
+    @Test
+    void compare() throws Exception {
+        Map<String, Function<CreateReq, CreateRes>> modes = new LinkedHashMap<>();
+        IdempotentOnly separate = proxy(new IdempotentOnly(), limiter(false));
+        modes.put("baseline", req -> {
+            incrExpire("transfer:" + req.sourceWalletId(), PERMITS);
+            return separate.create(req);
+        });
+        Fused fused = proxy(new Fused(), limiter(false));
+        modes.put("fused", fused::create);
+        Fused leased = proxy(new Fused(), limiter(true));
+        modes.put("fused+lease", leased::create);
+
+        System.out.printf("%-12s %10s %9s %9s %9s%n", "mode", "ops/s", "p50(us)", "p95(us)", "p99(us)");
+        for (Map.Entry<String, Function<CreateReq, CreateRes>> m : modes.entrySet()) {
+            redis.execute((RedisCallback<Object>) c -> { c.serverCommands().flushAll(); return null; });
+            long[] lat = run(m.getValue());
+            System.out.printf("%-12s %10.0f %9d %9d %9d%n", m.getKey(), lat.length * 1000.0 / DURATION_MS,
+                    pct(lat, 50), pct(lat, 95), pct(lat, 99));
+        }
+    }
+
+    // 기존 RateLimitAspect.before 그대로: rl:<key>:<yyyyMMddHHmm> INCR, 1이면 EXPIRE 1분
+    private static void incrExpire(String key, long permitsPerMinute) {
+        String rk = "rl:" + key + ":" + LocalDateTime.now().format(MINUTE);
+        Long c = redis.opsForValue().increment(rk);
+        if (c != null && c == 1L) redis.expire(rk, Duration.ofMinutes(1));
+        if (c != null && c > permitsPerMinute) throw new IllegalStateException("limited");
+    }
+
+    private RateLimiter limiter(boolean lease) {
+        RateLimiter l = new RateLimiter(new RedisTokenStore(redis, "gcra"));
+        ReflectionTestUtils.setField(l, "leaseEnabled", lease);
+        ReflectionTestUtils.setField(l, "leaseFraction", 0.1);
+        ReflectionTestUtils.setField(l, "leaseMax", 20L);
+        ReflectionTestUtils.setField(l, "leaseTtl", Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(l, "fallbackNodes", 1);
+        ReflectionTestUtils.setField(l, "redisRetry", Duration.ofSeconds(5));
+        return l;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T proxy(T target, RateLimiter limiter) {
+        SpelKeyResolver keys = new SpelKeyResolver();
+        IdempotencyAspect idem = new IdempotencyAspect(redis, new ObjectMapper(), List.of(), keys);
+        ReflectionTestUtils.setField(idem, "wait", Duration.ofSeconds(2));
+        ReflectionTestUtils.setField(idem, "retryAfterSeconds", 1L);
+        ReflectionTestUtils.setField(idem, "fingerprintSecret", "bench");
+        AspectJProxyFactory f = new AspectJProxyFactory(target);
+        f.setProxyTargetClass(true);
+        f.addAspect(new GuardAspect(limiter, idem, keys));
+        f.addAspect(idem);
+        return (T) f.getProxy();
+    }
+
+    private long[] run(Function<CreateReq, CreateRes> call) throws Exception {
+        AtomicLong seq = new AtomicLong();
+        ConcurrentLinkedQueue<long[]> latencies = new ConcurrentLinkedQueue<>();
+        long deadline = System.currentTimeMillis() + DURATION_MS;
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> fs = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            fs.add(pool.submit(() -> {
+                long[] lat = new long[1 << 20];
+                int n = 0;
+                ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                while (System.currentTimeMillis() < deadline) {
+                    CreateReq req = new CreateReq((long) rnd.nextInt(SOURCE_WALLETS), 0L, BigDecimal.ONE, null, "bench-" + seq.incrementAndGet());
+                    long t0 = System.nanoTime();
+                    call.apply(req);
+                    if (n < lat.length) lat[n++] = (System.nanoTime() - t0) / 1_000;
+                }
+                latencies.add(Arrays.copyOf(lat, n));
+                return null;
+            }));
+        }
+        for (Future<?> f : fs) f.get();
+        pool.shutdown();
+        return latencies.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+    }
+
+    private static long pct(long[] sorted, int p) {
+        return sorted.length == 0 ? 0 : sorted[(int) Math.min(sorted.length - 1, sorted.length * (long) p / 100)];
+    }
+}
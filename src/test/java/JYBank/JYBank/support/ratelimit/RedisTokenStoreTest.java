@@ -0,0 +1,227 @@
+package JYBank.JYBank.support.ratelimit;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * RedisTokenStore Lua 스크립트 (GCRA / sliding-window / giveBack / takeAndClaim) 를 실제 Redis 로 확인.
+ * 시각은 Redis TIME 기준이라 창 경계 테스트는 Redis 시계에 맞춰 기다린다. Docker 가 없으면 건너뜀.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class RedisTokenStoreTest {
+    private static final long LIMIT = 10;
+
+    @Container
+    private static final GenericContainer<?> REDIS = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+
+    private static LettuceConnectionFactory cf;
+    private static StringRedisTemplate redis;
+
+    @BeforeAll
+    static void connect() {
+        cf = new LettuceConnectionFactory(REDIS.getHost(), REDIS.getMappedPort(6379));
+        cf.afterPropertiesSet();
+        cf.start();
+        redis = new StringRedisTemplate(cf);
+        redis.afterPropertiesSet();
+    }
+
+    @AfterAll
+    static void disconnect() {
+        if (cf != null) cf.destroy();
+    }
+
+    @BeforeEach
+    void flush() {
+        redis.execute((RedisCallback<Object>) c -> { c.serverCommands().flushAll(); return null; });
+    }
+
+    // ===== GCRA =====
+
+    @Test
+    void gcraBurstsUpToLimitThenRejects() {
+        RedisTokenStore store = new RedisTokenStore(redis, "gcra");
+        Duration period = Duration.ofSeconds(10); // 회복 간격 1초 → 테스트 중 회복 없음
+        for (int i = 0; i < LIMIT; i++) {
+            assertEquals(1, store.take("k", LIMIT, period, 1).granted(), "take #" + i);
+        }
+        RedisTokenStore.Grant denied = store.take("k", LIMIT, period, 1);
+        assertEquals(0, denied.granted());
+        assertEquals(0, denied.remaining());
+    }
+
+    @Test
+    void gcraGrantsAtMostLimitInOneTake() {
+        RedisTokenStore store = new RedisTokenStore(redis, "gcra");
+        RedisTokenStore.Grant g = store.take("k", LIMIT, Duration.ofSeconds(10), 25);
+        assertEquals(LIMIT, g.granted());
+        assertEquals(0, g.remaining());
+    }
+
+    @Test
+    void gcraRetryAfterIsTimeToNextToken() throws InterruptedException {
+        RedisTokenStore store = new RedisTokenStore(redis, "gcra");
+        Duration period = Duration.ofSeconds(1); // 간격 100ms
+        store.take("k", LIMIT, period, LIMIT);
+        RedisTokenStore.Grant denied = store.take("k", LIMIT, period, 1);
+        assertEquals(0, denied.granted());
+        assertTrue(denied.retryAfterMicros() > 0 && denied.retryAfterMicros() <= 100_000, "retryAfter=" + denied.retryAfterMicros());
+
+        Thread.sleep(denied.retryAfterMicros() / 1000 + 20);
+        assertEquals(1, store.take("k", LIMIT, period, 1).granted());
+    }
+
+    // 고정 창이면 창 끝 limit + 다음 창 시작 limit = 2배가 짧은 시간에 통과한다. GCRA 는 경과 시간만큼만 회복
+    @Test
+    void gcraHasNoDoubleBurstAcrossSecondBoundary() throws InterruptedException {
+        RedisTokenStore store = new RedisTokenStore(redis, "gcra");
+        Duration period = Duration.ofSeconds(1);
+        waitForRedisMillisIn(1000, 900, 950);
+        long first = store.take("k", LIMIT, period, LIMIT).granted();
+        waitForRedisMillisIn(1000, 0, 50);
+        long second = store.take("k", LIMIT, period, LIMIT).granted();
+        assertEquals(LIMIT, first);
+        assertTrue(second <= 2, "granted right after the boundary: " + second); // 최대 150ms 경과 → 1~2개
+    }
+
+    @Test
+    void gcraGiveBackReturnsUnusedLease() {
+        RedisTokenStore store = new RedisTokenStore(redis, "gcra");
+        Duration period = Duration.ofSeconds(10);
+        assertEquals(LIMIT, store.take("k", LIMIT, period, LIMIT).granted());
+        store.giveBack("k", LIMIT, period, 4);
+        assertEquals(4, store.take("k", LIMIT, period, LIMIT).granted());
+    }
+
+    // 받은 것보다 많이 돌려줘도 현재 시각 아래로는 내려가지 않음 → 버스트는 여전히 limit 까지
+    @Test
+    void gcraGiveBackNeverExceedsLimit() {
+        RedisTokenStore store = new RedisTokenStore(redis, "gcra");
+        Duration period = Duration.ofSeconds(10);
+        store.take("k", LIMIT, period, 3);
+        store.giveBack("k", LIMIT, period, 50);
+        assertEquals(LIMIT, store.take("k", LIMIT, period, 50).granted());
+    }
+
+    // ===== sliding window =====
+
+    @Test
+    void slidingBurstsUpToLimitThenRejects() {
+        RedisTokenStore store = new RedisTokenStore(redis, "sliding-window");
+        Duration window = Duration.ofSeconds(60);
+        waitOutWindowEnd(window);
+        for (int i = 0; i < LIMIT; i++) {
+            assertEquals(1, store.take("k", LIMIT, window, 1).granted(), "take #" + i);
+        }
+        RedisTokenStore.Grant denied = store.take("k", LIMIT, window, 1);
+        assertEquals(0, denied.granted());
+        // 직전 창이 비었으므로 다음 창 시작까지 기다려야 함
+        assertTrue(denied.retryAfterMicros() > 0 && denied.retryAfterMicros() <= window.toNanos() / 1000,
+                "retryAfter=" + denied.retryAfterMicros());
+        assertEquals(denied.resetMicros(), denied.retryAfterMicros());
+    }
+
+    // 창 끝에 다 쓰고 다음 창 시작 직후: 직전 창 가중치(≥0.9)가 남아 있어 1개 이하만 통과
+    @Test
+    void slidingHasNoDoubleBurstAcrossWindowBoundary() throws InterruptedException {
+        RedisTokenStore store = new RedisTokenStore(redis, "sliding-window");
+        Duration window = Duration.ofSeconds(1);
+        waitForRedisMillisIn(1000, 900, 950);
+        long first = store.take("k", LIMIT, window, LIMIT).granted();
+        waitForRedisMillisIn(1000, 0, 50);
+        long second = store.take("k", LIMIT, window, LIMIT).granted();
+        assertEquals(LIMIT, first);
+        assertTrue(second <= 1, "granted right after the boundary: " + second);
+    }
+
+    @Test
+    void slidingRetryAfterWaitsForPreviousWindowWeightToDecay() throws InterruptedException {
+        RedisTokenStore store = new RedisTokenStore(redis, "sliding-window");
+        Duration window = Duration.ofSeconds(1);
+        waitForRedisMillisIn(1000, 900, 950);
+        store.take("k", LIMIT, window, LIMIT);
+        waitForRedisMillisIn(1000, 0, 50);
+        store.take("k", LIMIT, window, LIMIT); // 남은 1개 이하 소진
+        RedisTokenStore.Grant denied = store.take("k", LIMIT, window, 1);
+        assertEquals(0, denied.granted());
+        assertTrue(denied.retryAfterMicros() > 0 && denied.retryAfterMicros() < window.toNanos() / 1000,
+                "retryAfter=" + denied.retryAfterMicros());
+
+        Thread.sleep(denied.retryAfterMicros() / 1000 + 20);
+        assertEquals(1, store.take("k", LIMIT, window, 1).granted());
+    }
+
+    @Test
+    void slidingGiveBackReturnsUnusedLease() {
+        RedisTokenStore store = new RedisTokenStore(redis, "sliding-window");
+        Duration window = Duration.ofSeconds(60);
+        waitOutWindowEnd(window);
+        assertEquals(LIMIT, store.take("k", LIMIT, window, LIMIT).granted());
+        store.giveBack("k", LIMIT, window, 4);
+        assertEquals(4, store.take("k", LIMIT, window, LIMIT).granted());
+    }
+
+    // ===== take + 멱등 선점 =====
+
+    @Test
+    void rejectedTakeDoesNotClaim() {
+        RedisTokenStore store = new RedisTokenStore(redis, "gcra");
+        Duration period = Duration.ofSeconds(10);
+        store.take("k", LIMIT, period, LIMIT);
+        RedisTokenStore.GrantAndClaim r = store.takeAndClaim("k", LIMIT, period, 1, "idem:x", "P:t", Duration.ofSeconds(5));
+        assertEquals(0, r.grant().granted());
+        assertNull(r.claim());
+        assertNull(redis.opsForValue().get("idem:x"));
+    }
+
+    @Test
+    void grantedTakeClaimsOnceThenReturnsHolder() {
+        RedisTokenStore store = new RedisTokenStore(redis, "gcra");
+        Duration period = Duration.ofSeconds(10);
+        RedisTokenStore.GrantAndClaim first = store.takeAndClaim("k", LIMIT, period, 1, "idem:x", "P:a", Duration.ofSeconds(5));
+        RedisTokenStore.GrantAndClaim second = store.takeAndClaim("k", LIMIT, period, 1, "idem:x", "P:b", Duration.ofSeconds(5));
+        assertTrue(first.claim().claimed());
+        assertFalse(second.claim().claimed());
+        assertEquals("P:a", second.claim().current());
+    }
+
+    // Redis TIME(ms) 의 period 내 위치가 [from, to) 에 들어올 때까지 대기
+    private static void waitForRedisMillisIn(long period, long from, long to) throws InterruptedException {
+        while (true) {
+            long pos = redisMillis() % period;
+            if (pos >= from && pos < to) return;
+            long sleep = pos < from ? from - pos : period - pos + from;
+            Thread.sleep(Math.max(1, sleep));
+        }
+    }
+
+    // 테스트 중 창이 바뀌지 않도록, 창 끝 5초 이내면 다음 창까지 대기
+    private static void waitOutWindowEnd(Duration window) {
+        long w = window.toMillis();
+        long pos = redisMillis() % w;
+        if (pos < w - 5_000) return;
+        try {
+            Thread.sleep(w - pos + 10);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static long redisMillis() {
+        Long t = redis.execute((RedisCallback<Long>) c -> c.serverCommands().time());
+        return t == null ? System.currentTimeMillis() : t;
+    }
+}